@@ -0,0 +1,68 @@
+package thedarkdnktv.mclibextractor.bench;
+
+import org.openjdk.jmh.annotations.*;
+import thedarkdnktv.mclibextractor.model.ArtifactCoordinate;
+import thedarkdnktv.mclibextractor.model.Dependency;
+import thedarkdnktv.mclibextractor.model.MavenArtifact;
+import thedarkdnktv.mclibextractor.resolve.ConflictResolver;
+import thedarkdnktv.mclibextractor.resolve.ConflictStrategy;
+import thedarkdnktv.mclibextractor.resolve.Declaration;
+import thedarkdnktv.mclibextractor.resolve.Resolution;
+import thedarkdnktv.mclibextractor.resolve.ResolutionSettings;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conflict resolution alone, over declarations of a deep chain where every level redeclares
+ * {@code overlap} share of artifacts of the levels above with other versions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConflictBenchmark {
+
+    @Param({"NEAREST", "NEWEST"})
+    public ConflictStrategy strategy;
+
+    @Param({"0.1", "0.9"})
+    public double overlap;
+
+    @Param({"5000", "50000"})
+    public int libraries;
+
+    private List<Declaration> declarations;
+    private ConflictResolver resolver;
+
+    @Setup
+    public void setup() {
+        var random = new Random(42);
+        var depth = 20;
+        var perLevel = libraries / depth;
+        declarations = new ArrayList<>(libraries);
+        // leaf level first, as the chain is traversed
+        for (int level = depth - 1; level >= 0; level --) {
+            for (int i = 0; i < perLevel; i ++) {
+                var redeclare = level > 0 && random.nextDouble() < overlap;
+                var index = redeclare ? random.nextInt(level * perLevel) : level * perLevel + i;
+                var version = ArtifactCoordinate.version((redeclare ? "2." : "1.") + random.nextInt(20));
+                var artifact = MavenArtifact.of("org.synthetic.group" + (index % 50), "library" + index, null);
+                var path = Paths.get("org/synthetic/library" + index + "/" + version + "/library" + index + ".jar");
+                declarations.add(new Declaration(new Dependency(artifact, version, path), "level" + level));
+            }
+        }
+
+        resolver = new ConflictResolver(ResolutionSettings.defaults().withStrategy(strategy));
+    }
+
+    @Benchmark
+    public Resolution resolve() {
+        return resolver.resolve(declarations);
+    }
+}
@@ -0,0 +1,76 @@
+package thedarkdnktv.mclibextractor.bench;
+
+import org.apache.commons.lang3.builder.HashCodeBuilder;
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.maven.artifact.versioning.ComparableVersion;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import thedarkdnktv.mclibextractor.model.ArtifactCoordinate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Library name parsing and artifact key hashing, compared with the regex based parser
+ * and builder based hashCode used before.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CoordinateBenchmark {
+
+    private static final Pattern LEGACY_PATTERN = Pattern.compile("^([[^:].]+):([[^:].]+):([[^:].]+)(?::([[^:].]+))?$");
+
+    @Param({"3000"})
+    public int libraries;
+
+    private List<String> names;
+
+    @Setup
+    public void setup() {
+        names = new ArrayList<>(libraries);
+        for (int i = 0; i < libraries; i ++) {
+            var name = "org.synthetic.group" + (i % 50) + ":library" + (i % 1000) + ":1." + (i % 7) + ".0";
+            names.add(i % 5 == 0 ? name + ":natives-linux" : name);
+        }
+    }
+
+    @Benchmark
+    public void legacy(Blackhole blackhole) {
+        for (var name : names) {
+            var matcher = LEGACY_PATTERN.matcher(name);
+            if (matcher.lookingAt()) {
+                var key = new LegacyArtifact(matcher.group(1), matcher.group(2), matcher.group(4));
+                var parsed = Pair.of(key, new ComparableVersion(matcher.group(3)));
+                blackhole.consume(parsed);
+                blackhole.consume(key.hashCode());
+            }
+        }
+    }
+
+    @Benchmark
+    public void parser(Blackhole blackhole) {
+        for (var name : names) {
+            var parsed = ArtifactCoordinate.parse(name);
+            blackhole.consume(parsed);
+            blackhole.consume(parsed.artifact().hashCode());
+        }
+    }
+
+    private record LegacyArtifact(String group, String id, String type) {
+
+        @Override
+        public int hashCode() {
+            return new HashCodeBuilder(17, 37)
+                    .append(group)
+                    .append(id)
+                    .append(type)
+                    .toHashCode();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package thedarkdnktv.mclibextractor.bench;
+
+import org.openjdk.jmh.annotations.*;
+import thedarkdnktv.mclibextractor.api.impl.MinecraftDependencyServiceImpl;
+import thedarkdnktv.mclibextractor.model.Dependency;
+import thedarkdnktv.mclibextractor.model.LauncherProfile;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cold resolution of deep inheritance chains where child levels redeclare parent artifacts,
+ * the parse cost is constant over {@code overlap}, so differences come from duplicate handling.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DedupBenchmark {
+
+    @Param({"0.1", "0.5", "0.9"})
+    public double overlap;
+
+    @Param({"5000"})
+    public int libraries;
+
+    private SyntheticInstall install;
+    private MinecraftDependencyServiceImpl service;
+    private LauncherProfile profile;
+
+    @Setup
+    public void setup() throws IOException {
+        Quiet.enable();
+        install = SyntheticInstall.create(SyntheticInstall.Kind.DEEP, libraries, 20, overlap);
+        service = new MinecraftDependencyServiceImpl();
+        service.setDirectory(install.getDirectory());
+        profile = service.loadSettings().getProfiles().get(SyntheticInstall.PROFILE);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        install.close();
+        Quiet.disable();
+    }
+
+    @Benchmark
+    public Set<Dependency> resolve() throws IOException {
+        service.clearCache();
+        return service.loadLibraries(profile);
+    }
+}
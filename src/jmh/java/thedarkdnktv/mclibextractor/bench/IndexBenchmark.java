@@ -0,0 +1,84 @@
+package thedarkdnktv.mclibextractor.bench;
+
+import org.openjdk.jmh.annotations.*;
+import thedarkdnktv.mclibextractor.model.ArtifactCoordinate;
+import thedarkdnktv.mclibextractor.model.Dependency;
+import thedarkdnktv.mclibextractor.model.MavenArtifact;
+import thedarkdnktv.mclibextractor.source.LibraryIndex;
+import thedarkdnktv.mclibextractor.source.RepositorySource;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Looks every library of synthetic install up in its libraries folder, probing and hashing files
+ * on every lookup versus answering from warm {@link LibraryIndex}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IndexBenchmark {
+
+    @Param({"300", "3000"})
+    public int libraries;
+
+    @Param({"true", "false"})
+    public boolean trusted;
+
+    private SyntheticInstall install;
+    private List<Dependency> dependencies;
+    private RepositorySource probing;
+    private RepositorySource indexed;
+
+    @Setup
+    public void setup() throws IOException {
+        Quiet.enable();
+        install = SyntheticInstall.create(SyntheticInstall.Kind.VANILLA, libraries, 1, 0);
+        install.createLibraryFiles(64 * 1024);
+
+        dependencies = new ArrayList<>();
+        var artifact = MavenArtifact.of("org.synthetic", "library", null);
+        for (var path : install.getLibraryPaths()) {
+            // declared hash never matches, so untrusted lookups always hash the whole file
+            dependencies.add(new Dependency(artifact, ArtifactCoordinate.version("1"), Path.of(path)).setSha1("0".repeat(40)));
+        }
+
+        var root = install.getDirectory().resolve("libraries");
+        probing = new RepositorySource("probing", root, trusted);
+        indexed = new RepositorySource("indexed", root, trusted).setIndex(new LibraryIndex());
+        this.locateAll(indexed);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        install.close();
+        Quiet.disable();
+    }
+
+    @Benchmark
+    public int probe() throws IOException {
+        return this.locateAll(probing);
+    }
+
+    @Benchmark
+    public int index() throws IOException {
+        return this.locateAll(indexed);
+    }
+
+    private int locateAll(RepositorySource source) throws IOException {
+        var found = 0;
+        for (var lib : dependencies) {
+            if (source.locate(lib) != null) {
+                found ++;
+            }
+        }
+
+        return found;
+    }
+}
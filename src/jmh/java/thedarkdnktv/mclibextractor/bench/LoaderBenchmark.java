@@ -0,0 +1,68 @@
+package thedarkdnktv.mclibextractor.bench;
+
+import org.openjdk.jmh.annotations.*;
+import thedarkdnktv.mclibextractor.api.impl.MinecraftDependencyServiceImpl;
+import thedarkdnktv.mclibextractor.model.Dependency;
+import thedarkdnktv.mclibextractor.model.LauncherProfile;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cold resolution of several loader profiles sharing vanilla parent, one by one versus all at once
+ * with chains parsed concurrently.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoaderBenchmark {
+
+    @Param({"4", "16"})
+    public int loaders;
+
+    @Param({"3000"})
+    public int libraries;
+
+    private SyntheticInstall install;
+    private MinecraftDependencyServiceImpl service;
+    private List<LauncherProfile> profiles;
+
+    @Setup
+    public void setup() throws IOException {
+        Quiet.enable();
+        install = SyntheticInstall.create(SyntheticInstall.Kind.LOADERS, libraries * loaders / 4, loaders, 0.3);
+        service = new MinecraftDependencyServiceImpl();
+        service.setDirectory(install.getDirectory());
+        profiles = new ArrayList<>(service.loadSettings().getProfiles().values());
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        install.close();
+        Quiet.disable();
+    }
+
+    @Benchmark
+    public int oneByOne() throws IOException {
+        service.clearCache();
+        var total = 0;
+        for (var profile : profiles) {
+            total += service.loadLibraries(profile).size();
+        }
+
+        return total;
+    }
+
+    @Benchmark
+    public Map<LauncherProfile, Set<Dependency>> together() throws IOException {
+        service.clearCache();
+        return service.loadLibraries(profiles);
+    }
+}
@@ -0,0 +1,55 @@
+package thedarkdnktv.mclibextractor.bench;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import org.openjdk.jmh.annotations.*;
+import thedarkdnktv.mclibextractor.gson.LibraryTypeAdapter;
+import thedarkdnktv.mclibextractor.gson.VersionProfileTypeAdapter;
+import thedarkdnktv.mclibextractor.model.Library;
+import thedarkdnktv.mclibextractor.model.VersionProfile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParseBenchmark {
+
+    @Param({"500", "5000"})
+    public int libraries;
+
+    private String json;
+    private Gson streaming;
+    private Gson tree;
+
+    @Setup
+    public void setup() throws IOException {
+        try (var install = SyntheticInstall.create(SyntheticInstall.Kind.VANILLA, libraries, 1, 0)) {
+            json = Files.readString(install.versionFile(SyntheticInstall.LEAF));
+        }
+
+        var libraryAdapter = new LibraryTypeAdapter();
+        streaming = new GsonBuilder()
+                .registerTypeAdapter(Library.class, libraryAdapter)
+                .registerTypeAdapter(VersionProfile.class, new VersionProfileTypeAdapter(libraryAdapter))
+                .create();
+        tree = new GsonBuilder()
+                .registerTypeAdapter(Library.class, new TreeLibraryDeserializer())
+                .create();
+    }
+
+    @Benchmark
+    public VersionProfile streaming() {
+        return streaming.fromJson(json, VersionProfile.class);
+    }
+
+    @Benchmark
+    public VersionProfile tree() {
+        return tree.fromJson(json, VersionProfile.class);
+    }
+}
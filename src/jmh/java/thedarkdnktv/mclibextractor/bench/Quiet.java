@@ -0,0 +1,28 @@
+package thedarkdnktv.mclibextractor.bench;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+/**
+ * Swallows console output of the code under measurement, so printing does not dominate results.
+ */
+final class Quiet {
+
+    private static PrintStream original;
+
+    private Quiet() {}
+
+    static synchronized void enable() {
+        if (original == null) {
+            original = System.out;
+            System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        }
+    }
+
+    static synchronized void disable() {
+        if (original != null) {
+            System.setOut(original);
+            original = null;
+        }
+    }
+}
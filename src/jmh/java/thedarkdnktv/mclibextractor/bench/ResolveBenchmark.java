@@ -0,0 +1,55 @@
+package thedarkdnktv.mclibextractor.bench;
+
+import org.openjdk.jmh.annotations.*;
+import thedarkdnktv.mclibextractor.api.impl.MinecraftDependencyServiceImpl;
+import thedarkdnktv.mclibextractor.model.Dependency;
+import thedarkdnktv.mclibextractor.model.LauncherProfile;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResolveBenchmark {
+
+    @Param({"VANILLA", "FORGE", "DEEP"})
+    public SyntheticInstall.Kind kind;
+
+    @Param({"300", "3000"})
+    public int libraries;
+
+    private SyntheticInstall install;
+    private MinecraftDependencyServiceImpl service;
+    private LauncherProfile profile;
+
+    @Setup
+    public void setup() throws IOException {
+        Quiet.enable();
+        install = SyntheticInstall.create(kind, libraries, 10, 0.3);
+        service = new MinecraftDependencyServiceImpl();
+        service.setDirectory(install.getDirectory());
+        profile = service.loadSettings().getProfiles().get(SyntheticInstall.PROFILE);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        install.close();
+        Quiet.disable();
+    }
+
+    @Benchmark
+    public Set<Dependency> cold() throws IOException {
+        service.clearCache();
+        return service.loadLibraries(profile);
+    }
+
+    @Benchmark
+    public Set<Dependency> memoized() throws IOException {
+        return service.loadLibraries(profile);
+    }
+}
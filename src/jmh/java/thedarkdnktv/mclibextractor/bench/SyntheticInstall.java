@@ -0,0 +1,282 @@
+package thedarkdnktv.mclibextractor.bench;
+
+import com.google.gson.stream.JsonWriter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Generates synthetic {@code .minecraft} folders: vanilla-like version with full set of unused sections,
+ * Forge-like child redeclaring part of parent libraries, deep {@code inheritsFrom} chains, and several
+ * loader versions sharing one vanilla parent, each with its own profile.
+ */
+public final class SyntheticInstall implements Closeable {
+
+    public static final String PROFILE = "bench";
+    public static final String LEAF = "leaf";
+
+    public enum Kind {
+        VANILLA,
+        FORGE,
+        DEEP,
+        LOADERS
+    }
+
+    private final Path root;
+    private final Path mcDir;
+    private final List<String> libraryPaths = new ArrayList<>();
+    private final Map<String, String> profiles = new LinkedHashMap<>();
+
+    private SyntheticInstall(Path root) {
+        this.root = root;
+        this.mcDir = root.resolve(".minecraft");
+    }
+
+    /**
+     * @param libraries total number of library entries over the whole chain
+     * @param depth     chain length of {@link Kind#DEEP} or number of loaders of {@link Kind#LOADERS}
+     * @param overlap   share of child libraries redeclaring parent artifacts with another version
+     */
+    public static SyntheticInstall create(Kind kind, int libraries, int depth, double overlap) throws IOException {
+        var install = new SyntheticInstall(Files.createTempDirectory("mclib-bench"));
+        Files.createDirectories(install.mcDir.resolve("libraries"));
+
+        if (kind != Kind.LOADERS) {
+            install.profiles.put(PROFILE, LEAF);
+        }
+
+        switch (kind) {
+            case VANILLA -> install.writeVersion(LEAF, null, 0, libraries, 0, 0, true);
+            case FORGE -> {
+                var base = libraries * 2 / 3;
+                install.writeVersion("vanilla", null, 0, base, 0, 0, true);
+                install.writeVersion(LEAF, "vanilla", base, libraries - base, overlap, base, false);
+            }
+            case DEEP -> {
+                var perLevel = Math.max(1, libraries / depth);
+                String parent = null;
+                for (int level = 0; level < depth; level ++) {
+                    var id = level == depth - 1 ? LEAF : "level" + level;
+                    install.writeVersion(id, parent, level * perLevel, perLevel, level == 0 ? 0 : overlap, level * perLevel, level == 0);
+                    parent = id;
+                }
+            }
+            case LOADERS -> {
+                var base = libraries / 2;
+                var perLoader = Math.max(1, (libraries - base) / depth);
+                install.writeVersion("vanilla", null, 0, base, 0, 0, true);
+                for (int i = 0; i < depth; i ++) {
+                    var id = "loader" + i;
+                    install.writeVersion(id, "vanilla", base + i * perLoader, perLoader, overlap, base, false);
+                    install.profiles.put(PROFILE + i, id);
+                }
+            }
+        }
+
+        install.writeLauncherProfiles();
+        return install;
+    }
+
+    public Path getDirectory() {
+        return mcDir;
+    }
+
+    public Path versionFile(String id) {
+        return mcDir.resolve("versions").resolve(id).resolve(id + ".json");
+    }
+
+    /**
+     * @return launcher profile ids with their version ids
+     */
+    public Map<String, String> getProfiles() {
+        return profiles;
+    }
+
+    public List<String> getLibraryPaths() {
+        return libraryPaths;
+    }
+
+    /**
+     * Writes random content of given size for every generated library into {@code libraries} folder.
+     */
+    public void createLibraryFiles(int size) throws IOException {
+        var random = new Random(42);
+        var content = new byte[size];
+        for (var path : libraryPaths) {
+            var file = mcDir.resolve("libraries").resolve(path);
+            Files.createDirectories(file.getParent());
+            random.nextBytes(content);
+            Files.write(file, content);
+        }
+    }
+
+    private void writeVersion(String id, String parent, int first, int count, double overlap, int parentSpan, boolean vanillaSections) throws IOException {
+        var file = this.versionFile(id);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, this.versionJson(id, parent, first, count, overlap, parentSpan, vanillaSections));
+    }
+
+    String versionJson(String id, String parent, int first, int count, double overlap, int parentSpan, boolean vanillaSections) {
+        var random = new Random(id.hashCode());
+        var buffer = new StringWriter();
+        try (var json = new JsonWriter(buffer)) {
+            json.setIndent("  ");
+            json.beginObject();
+            json.name("id").value(id);
+            if (parent != null) {
+                json.name("inheritsFrom").value(parent);
+            }
+
+            if (vanillaSections) {
+                writeVanillaSections(json, id);
+            }
+
+            json.name("libraries").beginArray();
+            for (int i = 0; i < count; i ++) {
+                var redeclare = parentSpan > 0 && random.nextDouble() < overlap;
+                var index = redeclare ? random.nextInt(parentSpan) : first + i;
+                var version = redeclare ? "2." + random.nextInt(20) : "1." + (index % 7);
+                this.writeLibrary(json, index, version, random);
+            }
+            json.endArray();
+            json.name("type").value("release");
+            json.endObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return buffer.toString();
+    }
+
+    private void writeLibrary(JsonWriter json, int index, String version, Random random) throws IOException {
+        var group = "org.synthetic.group" + (index % 50);
+        var artifact = "library" + index;
+        var path = group.replace('.', '/') + "/" + artifact + "/" + version + "/" + artifact + "-" + version + ".jar";
+        libraryPaths.add(path);
+
+        json.beginObject();
+        json.name("downloads").beginObject();
+        json.name("artifact").beginObject();
+        json.name("path").value(path);
+        json.name("sha1").value(String.format("%040x", random.nextLong() & Long.MAX_VALUE));
+        json.name("size").value(1000 + random.nextInt(1_000_000));
+        json.name("url").value("https://libraries.example.net/" + path);
+        json.endObject();
+        json.endObject();
+        json.name("name").value(group + ":" + artifact + ":" + version);
+
+        if (index % 10 == 0) {
+            json.name("rules").beginArray();
+            json.beginObject().name("action").value("allow").endObject();
+            json.beginObject().name("action").value("disallow");
+            json.name("os").beginObject().name("name").value("osx").endObject();
+            json.endObject();
+            json.endArray();
+        }
+
+        json.endObject();
+    }
+
+    private static void writeVanillaSections(JsonWriter json, String id) throws IOException {
+        json.name("arguments").beginObject();
+        json.name("game").beginArray();
+        for (int i = 0; i < 40; i ++) {
+            json.value("--argument" + i);
+            json.beginObject();
+            json.name("rules").beginArray().beginObject();
+            json.name("action").value("allow");
+            json.name("features").beginObject().name("is_demo_user").value(true).endObject();
+            json.endObject().endArray();
+            json.name("value").beginArray().value("--width").value("${resolution_width}").endArray();
+            json.endObject();
+        }
+        json.endArray();
+        json.name("jvm").beginArray();
+        for (int i = 0; i < 20; i ++) {
+            json.value("-Dsynthetic.property" + i + "=${natives_directory}");
+        }
+        json.endArray();
+        json.endObject();
+
+        json.name("assetIndex").beginObject();
+        json.name("id").value(id);
+        json.name("sha1").value("0".repeat(40));
+        json.name("size").value(400000);
+        json.name("totalSize").value(600000000);
+        json.name("url").value("https://piston-meta.example.net/" + id + ".json");
+        json.endObject();
+
+        json.name("downloads").beginObject();
+        for (var side : new String[] {"client", "client_mappings", "server", "server_mappings"}) {
+            json.name(side).beginObject();
+            json.name("sha1").value("1".repeat(40));
+            json.name("size").value(20000000);
+            json.name("url").value("https://piston-data.example.net/" + side + ".jar");
+            json.endObject();
+        }
+        json.endObject();
+
+        json.name("logging").beginObject().name("client").beginObject();
+        json.name("argument").value("-Dlog4j.configurationFile=${path}");
+        json.name("type").value("log4j2-xml");
+        json.endObject().endObject();
+        json.name("mainClass").value("net.minecraft.client.main.Main");
+    }
+
+    private void writeLauncherProfiles() throws IOException {
+        var buffer = new StringWriter();
+        try (var json = new JsonWriter(buffer)) {
+            json.beginObject();
+            json.name("profiles").beginObject();
+            for (var profile : profiles.entrySet()) {
+                json.name(profile.getKey()).beginObject();
+                json.name("name").value(profile.getKey());
+                json.name("type").value("custom");
+                json.name("lastVersionId").value(profile.getValue());
+                json.endObject();
+            }
+            json.endObject();
+            json.name("version").value(3);
+            json.endObject();
+        }
+
+        Files.writeString(mcDir.resolve("launcher_profiles.json"), buffer.toString());
+    }
+
+    @Override
+    public void close() throws IOException {
+        delete(root);
+    }
+
+    static void delete(Path dir) throws IOException {
+        if (Files.notExists(dir)) {
+            return;
+        }
+
+        Files.walkFileTree(dir, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Files.delete(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+                Files.delete(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+}
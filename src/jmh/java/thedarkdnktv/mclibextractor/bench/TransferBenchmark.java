@@ -0,0 +1,78 @@
+package thedarkdnktv.mclibextractor.bench;
+
+import org.openjdk.jmh.annotations.*;
+import thedarkdnktv.mclibextractor.api.impl.MinecraftDependencyServiceImpl;
+import thedarkdnktv.mclibextractor.model.Dependency;
+import thedarkdnktv.mclibextractor.transfer.LibraryTransfer;
+import thedarkdnktv.mclibextractor.transfer.PlanStep;
+import thedarkdnktv.mclibextractor.transfer.TransferEngine;
+import thedarkdnktv.mclibextractor.transfer.TransferReport;
+import thedarkdnktv.mclibextractor.transfer.TransferSettings;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Copies whole synthetic library set from MC folder into fresh output folder.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransferBenchmark {
+
+    @Param({"200"})
+    public int files;
+
+    @Param({"16384", "1048576"})
+    public int fileSize;
+
+    @Param({"1", "4", "16"})
+    public int threads;
+
+    private SyntheticInstall install;
+    private Set<Dependency> libs;
+    private Path output;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        Quiet.enable();
+        install = SyntheticInstall.create(SyntheticInstall.Kind.VANILLA, files, 1, 0);
+        install.createLibraryFiles(fileSize);
+
+        var service = new MinecraftDependencyServiceImpl();
+        service.setDirectory(install.getDirectory());
+        libs = service.loadLibraries(service.loadSettings().getProfiles().get(SyntheticInstall.PROFILE));
+    }
+
+    @Setup(Level.Invocation)
+    public void prepareOutput() throws IOException {
+        output = Files.createTempDirectory("mclib-bench-out");
+    }
+
+    @TearDown(Level.Invocation)
+    public void cleanOutput() throws IOException {
+        SyntheticInstall.delete(output);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        install.close();
+        Quiet.disable();
+    }
+
+    @Benchmark
+    public TransferReport<PlanStep> copy() throws IOException, InterruptedException {
+        var transfer = new LibraryTransfer(install.getDirectory().resolve("libraries"), output.resolve("libraries"));
+        var plan = transfer.plan(libs, output.resolve("natives"));
+        plan.createDirectories();
+        try (var engine = new TransferEngine(TransferSettings.defaults().withConcurrency(threads).withDiskLimit(threads))) {
+            return engine.transferAll(plan.getSchedule(), transfer);
+        }
+    }
+}
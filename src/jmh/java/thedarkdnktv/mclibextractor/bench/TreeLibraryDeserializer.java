@@ -1,4 +1,4 @@
-package thedarkdnktv.mclibextractor.gson;
+package thedarkdnktv.mclibextractor.bench;
 
 import com.google.gson.JsonDeserializationContext;
 import com.google.gson.JsonDeserializer;
@@ -10,7 +10,10 @@ import java.lang.reflect.Type;
 import java.nio.file.InvalidPathException;
 import java.nio.file.Paths;
 
-public class LibraryDeserializer implements JsonDeserializer<Library> {
+/**
+ * Tree-based library deserializer used before streaming adapters, kept as parse baseline.
+ */
+public class TreeLibraryDeserializer implements JsonDeserializer<Library> {
 
     @Override
     public Library deserialize(JsonElement json, Type typeOfT, JsonDeserializationContext context) throws JsonParseException {
@@ -22,37 +25,27 @@ public class LibraryDeserializer implements JsonDeserializer<Library> {
             if (json != null && json.isJsonObject()) {
                 json = json.getAsJsonObject().get("artifact");
                 if (json != null && json.isJsonObject()) {
-                    var pathJson = json.getAsJsonObject().get("path");
-                    var urlJson = json.getAsJsonObject().get("url");
-
-                    if (pathJson != null) {
+                    var artifact = json.getAsJsonObject();
+                    if (artifact.has("path")) {
                         try {
-                            result.setPath(Paths.get(pathJson.getAsString()));
+                            result.setPath(Paths.get(artifact.get("path").getAsString()));
                         } catch (InvalidPathException e) {
                             throw new JsonParseException(e);
                         }
                     }
 
-                    if (urlJson != null) {
-                        try {
-                            result.setUrl(urlJson.getAsString());
-                        } catch (InvalidPathException e) {
-                            throw new JsonParseException(e);
-                        }
+                    if (artifact.has("url")) {
+                        result.setUrl(artifact.get("url").getAsString());
+                    }
+
+                    if (artifact.has("sha1")) {
+                        result.setSha1(artifact.get("sha1").getAsString());
                     }
-                }
-            }
 
-            json = obj.get("rules");
-            if (json != null && json.isJsonArray()) {
-                var optional = json.getAsJsonArray()
-                        .asList()
-                        .stream()
-                        .filter(JsonElement::isJsonObject)
-                        .map(JsonElement::getAsJsonObject)
-                        .filter(e -> e.has("os"))
-                        .findFirst();
-                result.setNative(optional.isPresent());
+                    if (artifact.has("size")) {
+                        result.setSize(artifact.get("size").getAsLong());
+                    }
+                }
             }
 
             if (result.getPath() != null) {
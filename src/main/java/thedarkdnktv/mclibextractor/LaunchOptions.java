@@ -0,0 +1,400 @@
+package thedarkdnktv.mclibextractor;
+
+import thedarkdnktv.mclibextractor.exception.LaunchException;
+import thedarkdnktv.mclibextractor.model.ArtifactCoordinate;
+import thedarkdnktv.mclibextractor.model.Platform;
+import thedarkdnktv.mclibextractor.output.ArchiveSink;
+import thedarkdnktv.mclibextractor.resolve.ConflictStrategy;
+import thedarkdnktv.mclibextractor.resolve.ResolutionSettings;
+import thedarkdnktv.mclibextractor.source.RepositorySource;
+import thedarkdnktv.mclibextractor.transfer.ArtifactCache;
+import thedarkdnktv.mclibextractor.transfer.DownloadSettings;
+import thedarkdnktv.mclibextractor.transfer.TransferSettings;
+import thedarkdnktv.mclibextractor.transfer.TransferStrategy;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+public class LaunchOptions {
+
+    public static final int EXIT_CODE_BAD_ARGUMENTS = 4;
+    public static final int DEFAULT_SERVE_PORT = 8780;
+
+    private final List<String> profiles = new ArrayList<>();
+    private boolean allProfiles = false;
+    private Platform platform = Platform.current();
+    private final Set<String> features = new LinkedHashSet<>();
+    private boolean download = true;
+    private boolean incremental = false;
+    private boolean verifySha1 = false;
+    private Path storeDir;
+    private TransferStrategy transferStrategy = TransferStrategy.COPY;
+    private Path cacheDir = ArtifactCache.defaultDirectory();
+    private long cacheSize = ArtifactCache.DEFAULT_MAX_SIZE;
+    private Path resolveSnapshot;
+    private Path libraryIndex;
+    private Path dryRunOutput;
+    private Path planFile;
+    private Path metricsFile;
+    private boolean progress = true;
+    private boolean watch = false;
+    private Path classpathFile;
+    private Path manifestFile;
+    private Path modulesFile;
+    private Path archiveFile;
+    private Path mavenRepository = RepositorySource.defaultMavenRepository();
+    private final List<URI> mirrors = new ArrayList<>();
+    private boolean storeJars = false;
+    private boolean assets = false;
+    private int servePort = -1;
+    private ResolutionSettings resolutionSettings = ResolutionSettings.defaults();
+    private Path conflictReport;
+    private TransferSettings transferSettings = TransferSettings.defaults();
+    private DownloadSettings downloadSettings = DownloadSettings.defaults();
+
+    public static LaunchOptions parse(String[] arguments) throws LaunchException {
+        var options = new LaunchOptions();
+        for (var argument : arguments) {
+            var split = argument.indexOf('=');
+            var key = split < 0 ? argument : argument.substring(0, split);
+            var value = split < 0 ? null : argument.substring(split + 1);
+
+            switch (key) {
+                case "--profile" -> {
+                    if (value == null || value.isBlank()) {
+                        throw new LaunchException("Argument --profile requires profile name or id", EXIT_CODE_BAD_ARGUMENTS);
+                    }
+
+                    options.profiles.add(value);
+                }
+                case "--all" -> options.allProfiles = true;
+                case "--platform" -> {
+                    try {
+                        options.platform = Platform.parse(value == null ? "" : value);
+                    } catch (IllegalArgumentException e) {
+                        throw new LaunchException("Argument --platform requires os[:arch[:version]], got: " + value, EXIT_CODE_BAD_ARGUMENTS);
+                    }
+                }
+                case "--feature" -> {
+                    if (value == null || value.isBlank()) {
+                        throw new LaunchException("Argument --feature requires feature name", EXIT_CODE_BAD_ARGUMENTS);
+                    }
+
+                    options.features.add(value);
+                }
+                case "nodownload", "--no-download" -> options.download = false;
+                case "--incremental" -> options.incremental = true;
+                case "--verify-sha1" -> options.verifySha1 = true;
+                case "--store" -> options.storeDir = parsePath(key, value);
+                case "--link-mode" -> options.transferStrategy = parseStrategy(key, value);
+                case "--cache-dir" -> options.cacheDir = parsePath(key, value);
+                case "--cache-size" -> options.cacheSize = parsePositive(key, value) * 1024L * 1024;
+                case "--no-cache" -> options.cacheDir = null;
+                case "--resolve-cache" -> options.resolveSnapshot = value == null
+                        ? ArtifactCache.defaultDirectory().resolve("resolved.bin")
+                        : parsePath(key, value);
+                case "--library-index" -> options.libraryIndex = value == null
+                        ? ArtifactCache.defaultDirectory().resolve("libraries.bin")
+                        : parsePath(key, value);
+                case "--dry-run" -> options.dryRunOutput = value == null
+                        ? Paths.get("extraction-plan.json").toAbsolutePath()
+                        : parsePath(key, value);
+                case "--plan" -> options.planFile = parsePath(key, value);
+                case "--metrics" -> options.metricsFile = parsePath(key, value);
+                case "--no-progress" -> options.progress = false;
+                case "--watch" -> options.watch = true;
+                case "--classpath" -> options.classpathFile = parsePath(key, value);
+                case "--manifest" -> options.manifestFile = parsePath(key, value);
+                case "--modules" -> options.modulesFile = parsePath(key, value);
+                case "--archive" -> {
+                    options.archiveFile = parsePath(key, value);
+                    if (!ArchiveSink.isSupported(options.archiveFile)) {
+                        throw new LaunchException("Argument --archive requires .zip, .tar.gz or .tgz file, got: " + value, EXIT_CODE_BAD_ARGUMENTS);
+                    }
+                }
+                case "--store-jars" -> options.storeJars = true;
+                case "--assets" -> options.assets = true;
+                case "--serve" -> options.servePort = value == null ? DEFAULT_SERVE_PORT : parsePort(key, value);
+                case "--m2" -> options.mavenRepository = parsePath(key, value);
+                case "--no-m2" -> options.mavenRepository = null;
+                case "--mirror" -> options.mirrors.add(parseMirror(key, value));
+                case "--conflict-strategy" -> options.resolutionSettings = options.resolutionSettings
+                        .withStrategy(parseConflictStrategy(key, value));
+                case "--pin" -> {
+                    var coordinate = value == null ? null : ArtifactCoordinate.parse(value);
+                    if (coordinate == null) {
+                        throw new LaunchException("Argument --pin requires group:id:version[:classifier], got: " + value, EXIT_CODE_BAD_ARGUMENTS);
+                    }
+
+                    options.resolutionSettings = options.resolutionSettings.withPin(coordinate.artifact(), coordinate.version());
+                }
+                case "--conflict-report" -> options.conflictReport = parsePath(key, value);
+                case "--threads" -> options.transferSettings = options.transferSettings
+                        .withConcurrency(parsePositive(key, value));
+                case "--host-limit" -> options.transferSettings = options.transferSettings
+                        .withHostLimit(parsePositive(key, value));
+                case "--disk-limit" -> options.transferSettings = options.transferSettings
+                        .withDiskLimit(parsePositive(key, value));
+                case "--connect-timeout" -> options.downloadSettings = options.downloadSettings
+                        .withConnectTimeout(Duration.ofSeconds(parsePositive(key, value)));
+                case "--read-timeout" -> options.downloadSettings = options.downloadSettings
+                        .withReadTimeout(Duration.ofSeconds(parsePositive(key, value)));
+                case "--retries" -> options.downloadSettings = options.downloadSettings
+                        .withMaxAttempts(parsePositive(key, value));
+                default -> throw new LaunchException("Unknown argument: " + argument, EXIT_CODE_BAD_ARGUMENTS);
+            }
+        }
+
+        if (options.watch && (options.planFile != null || options.dryRunOutput != null)) {
+            throw new LaunchException("Argument --watch can not be combined with --plan or --dry-run", EXIT_CODE_BAD_ARGUMENTS);
+        }
+
+        if (options.servePort >= 0 && (options.watch || options.planFile != null || options.dryRunOutput != null || options.archiveFile != null)) {
+            throw new LaunchException("Argument --serve can not be combined with --watch, --plan, --dry-run or --archive", EXIT_CODE_BAD_ARGUMENTS);
+        }
+
+        if (options.watch && options.archiveFile != null) {
+            throw new LaunchException("Argument --watch can not be combined with --archive", EXIT_CODE_BAD_ARGUMENTS);
+        }
+
+        return options;
+    }
+
+    private static int parsePositive(String key, String value) throws LaunchException {
+        try {
+            var result = Integer.parseInt(value);
+            if (result > 0) {
+                return result;
+            }
+        } catch (NumberFormatException ignored) {
+        }
+
+        throw new LaunchException("Argument " + key + " requires positive number, got: " + value, EXIT_CODE_BAD_ARGUMENTS);
+    }
+
+    private static int parsePort(String key, String value) throws LaunchException {
+        try {
+            var result = Integer.parseInt(value);
+            if (result >= 0 && result <= 0xFFFF) {
+                return result;
+            }
+        } catch (NumberFormatException ignored) {
+        }
+
+        throw new LaunchException("Argument " + key + " requires port number, got: " + value, EXIT_CODE_BAD_ARGUMENTS);
+    }
+
+    private static TransferStrategy parseStrategy(String key, String value) throws LaunchException {
+        try {
+            return TransferStrategy.parse(value);
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new LaunchException("Argument " + key + " requires one of auto, hardlink, symlink, clone, copy, got: " + value,
+                    EXIT_CODE_BAD_ARGUMENTS);
+        }
+    }
+
+    private static ConflictStrategy parseConflictStrategy(String key, String value) throws LaunchException {
+        try {
+            return ConflictStrategy.valueOf(String.valueOf(value).toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new LaunchException("Argument " + key + " requires one of nearest, newest, got: " + value, EXIT_CODE_BAD_ARGUMENTS);
+        }
+    }
+
+    /**
+     * @return http(s) URL or file URI of a folder
+     */
+    private static URI parseMirror(String key, String value) throws LaunchException {
+        if (value != null && (value.startsWith("http://") || value.startsWith("https://"))) {
+            try {
+                return new URI(value);
+            } catch (URISyntaxException e) {
+                throw new LaunchException("Argument " + key + " has invalid URL: " + value, EXIT_CODE_BAD_ARGUMENTS);
+            }
+        }
+
+        return parsePath(key, value).toUri();
+    }
+
+    private static Path parsePath(String key, String value) throws LaunchException {
+        if (value == null || value.isBlank()) {
+            throw new LaunchException("Argument " + key + " requires path", EXIT_CODE_BAD_ARGUMENTS);
+        }
+
+        try {
+            return Paths.get(value).toAbsolutePath().normalize();
+        } catch (InvalidPathException e) {
+            throw new LaunchException("Argument " + key + " has invalid path: " + value, EXIT_CODE_BAD_ARGUMENTS);
+        }
+    }
+
+    public List<String> getProfiles() {
+        return Collections.unmodifiableList(profiles);
+    }
+
+    /**
+     * @return platform libraries are resolved for, with features enabled by arguments
+     */
+    public Platform getPlatform() {
+        return platform.withFeatures(features);
+    }
+
+    public boolean isAllProfiles() {
+        return allProfiles;
+    }
+
+    /**
+     * @return true if profiles were selected by arguments and no prompt is needed
+     */
+    public boolean isBatch() {
+        return allProfiles || !profiles.isEmpty();
+    }
+
+    public boolean isDownload() {
+        return download;
+    }
+
+    public boolean isIncremental() {
+        return incremental;
+    }
+
+    public boolean isVerifySha1() {
+        return verifySha1;
+    }
+
+    public Path getStoreDir() {
+        return storeDir;
+    }
+
+    public TransferStrategy getTransferStrategy() {
+        return transferStrategy;
+    }
+
+    public Path getCacheDir() {
+        return cacheDir;
+    }
+
+    public long getCacheSize() {
+        return cacheSize;
+    }
+
+    public Path getResolveSnapshot() {
+        return resolveSnapshot;
+    }
+
+    /**
+     * @return file keeping listing of local library folders between runs or null if folders are probed every run
+     */
+    public Path getLibraryIndex() {
+        return libraryIndex;
+    }
+
+    /**
+     * @return file extraction plan is written to instead of being executed, null if not a dry run
+     */
+    public Path getDryRunOutput() {
+        return dryRunOutput;
+    }
+
+    /**
+     * @return previously written plan to execute instead of resolving profiles, may be null
+     */
+    public Path getPlanFile() {
+        return planFile;
+    }
+
+    /**
+     * @return file run metrics are written to, Prometheus text if it ends with {@code .prom}, JSON otherwise
+     */
+    public Path getMetricsFile() {
+        return metricsFile;
+    }
+
+    public boolean isProgress() {
+        return progress;
+    }
+
+    /**
+     * @return true if extractor keeps running and mirrors changes of selected profiles
+     */
+    public boolean isWatch() {
+        return watch;
+    }
+
+    public Path getClasspathFile() {
+        return classpathFile;
+    }
+
+    public Path getManifestFile() {
+        return manifestFile;
+    }
+
+    public Path getModulesFile() {
+        return modulesFile;
+    }
+
+    /**
+     * @return zip or tar.gz file libraries are written into instead of folders, or null
+     */
+    public Path getArchiveFile() {
+        return archiveFile;
+    }
+
+    public boolean isStoreJars() {
+        return storeJars;
+    }
+
+    /**
+     * @return true if asset indexes and objects of selected profiles are extracted into assets folder too
+     */
+    public boolean isAssets() {
+        return assets;
+    }
+
+    /**
+     * @return local port libraries are served at instead of extracting them or -1 if not serving
+     */
+    public int getServePort() {
+        return servePort;
+    }
+
+    /**
+     * @return local maven repository looked up after MC folder, or null
+     */
+    public Path getMavenRepository() {
+        return mavenRepository;
+    }
+
+    /**
+     * @return mirror folders as file URIs and mirror URLs, in lookup order
+     */
+    public List<URI> getMirrors() {
+        return Collections.unmodifiableList(mirrors);
+    }
+
+    public ResolutionSettings getResolutionSettings() {
+        return resolutionSettings;
+    }
+
+    public Path getConflictReport() {
+        return conflictReport;
+    }
+
+    public TransferSettings getTransferSettings() {
+        return transferSettings;
+    }
+
+    public DownloadSettings getDownloadSettings() {
+        return downloadSettings;
+    }
+}
@@ -1,90 +1,227 @@
 package thedarkdnktv.mclibextractor;
 
-import org.apache.commons.lang3.ArrayUtils;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonWriter;
+import thedarkdnktv.mclibextractor.api.ExtractionRequest;
 import thedarkdnktv.mclibextractor.api.IMinecraftDependencyService;
+import thedarkdnktv.mclibextractor.assets.AssetTransfer;
 import thedarkdnktv.mclibextractor.exception.LaunchException;
+import thedarkdnktv.mclibextractor.api.impl.ExtractionPipeline;
 import thedarkdnktv.mclibextractor.api.impl.MinecraftDependencyServiceImpl;
+import thedarkdnktv.mclibextractor.gson.ExtractionPlanTypeAdapter;
+import thedarkdnktv.mclibextractor.metrics.MetricsReport;
+import thedarkdnktv.mclibextractor.metrics.ProgressBar;
+import thedarkdnktv.mclibextractor.metrics.RunMetrics;
+import thedarkdnktv.mclibextractor.model.AssetIndex;
+import thedarkdnktv.mclibextractor.model.AssetObject;
 import thedarkdnktv.mclibextractor.model.Dependency;
+import thedarkdnktv.mclibextractor.model.LauncherProfile;
+import thedarkdnktv.mclibextractor.output.ArchiveSink;
+import thedarkdnktv.mclibextractor.output.ConflictReport;
+import thedarkdnktv.mclibextractor.output.ManifestWriter;
+import thedarkdnktv.mclibextractor.resolve.Conflict;
+import thedarkdnktv.mclibextractor.server.LibraryServer;
+import thedarkdnktv.mclibextractor.source.ArtifactSource;
+import thedarkdnktv.mclibextractor.source.ArtifactSources;
+import thedarkdnktv.mclibextractor.source.LibraryIndex;
+import thedarkdnktv.mclibextractor.source.MirrorSource;
+import thedarkdnktv.mclibextractor.source.RepositorySource;
+import thedarkdnktv.mclibextractor.source.UpstreamSource;
+import thedarkdnktv.mclibextractor.transfer.ExtractionPlan;
+import thedarkdnktv.mclibextractor.transfer.HttpDownloader;
+import thedarkdnktv.mclibextractor.transfer.IOFunction;
+import thedarkdnktv.mclibextractor.transfer.LocalCopier;
+import thedarkdnktv.mclibextractor.transfer.NativeExtractor;
+import thedarkdnktv.mclibextractor.transfer.PlanStep;
+import thedarkdnktv.mclibextractor.transfer.TransferAction;
+import thedarkdnktv.mclibextractor.transfer.TransferEngine;
+import thedarkdnktv.mclibextractor.transfer.TransferOutcome;
+import thedarkdnktv.mclibextractor.transfer.TransferReport;
+import thedarkdnktv.mclibextractor.transfer.TransferStrategy;
+import thedarkdnktv.mclibextractor.watch.LibraryDelta;
+import thedarkdnktv.mclibextractor.watch.VersionWatcher;
 
 import java.io.IOException;
-import java.nio.channels.Channels;
-import java.nio.channels.FileChannel;
-import java.nio.channels.ReadableByteChannel;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.*;
 
 import static java.lang.System.out;
-import static java.nio.file.StandardOpenOption.*;
 
 public class Launcher implements Runnable {
 
+    public static final int EXIT_CODE_INCOMPLETE = 3;
+
     private final IMinecraftDependencyService dependencyService;
 
     private final Scanner scanner;
     private final Path mcDir;
     private final Path mcLib;
-    private final boolean downloadLibraries;
+    private final Path localDir;
+    private final Path nativesDir;
+    private final Path assetsDir;
+    private final LaunchOptions options;
+    private final ExtractionRequest request;
+    private final LibraryIndex libraryIndex;
+    private RunMetrics metrics = new RunMetrics();
+    private int assetFailures;
 
-    public Launcher(boolean doDownload) {
+    public Launcher(LaunchOptions options) {
         this.dependencyService = new MinecraftDependencyServiceImpl();
         this.scanner = new Scanner(System.in);
         this.mcDir = this.dependencyService.getDirectory();
         this.mcLib = mcDir.resolve("libraries");
-        this.downloadLibraries = doDownload;
+        var root = Paths.get(".")
+                .toAbsolutePath()
+                .normalize();
+        this.localDir = root.resolve("libraries");
+        this.nativesDir = root.resolve("natives");
+        this.assetsDir = root.resolve("assets");
+        this.options = options;
+        this.libraryIndex = options.getLibraryIndex() == null ? null : new LibraryIndex();
+        this.dependencyService.setPlatform(options.getPlatform());
+        this.dependencyService.setMetrics(this.metrics);
+        this.dependencyService.setArtifactSources(this.artifactSources());
+        this.dependencyService.setResolutionSettings(options.getResolutionSettings());
+        this.request = ExtractionRequest.of(this.mcDir, root)
+                .withProfiles(options.isAllProfiles() ? List.of() : options.getProfiles())
+                .withPlatform(options.getPlatform())
+                .withResolution(options.getResolutionSettings())
+                .withSources(this.dependencyService.getArtifactSources())
+                .withDownload(options.isDownload() ? options.getDownloadSettings() : null)
+                .withCache(options.getCacheDir(), options.getCacheSize())
+                .withStore(options.getStoreDir())
+                .withTransfer(options.getTransferSettings())
+                .withStrategy(options.getTransferStrategy())
+                .withVerifySha1(options.isVerifySha1())
+                .withIncremental(options.isIncremental());
+    }
+
+    /**
+     * @return MC folder, local maven repository, mirrors and URLs of version JSON, in lookup order
+     */
+    private ArtifactSources artifactSources() {
+        var sources = new ArrayList<ArtifactSource>();
+        sources.add(new RepositorySource("minecraft", this.mcLib, true));
+        var m2 = this.options.getMavenRepository();
+        if (m2 != null && Files.isDirectory(m2)) {
+            sources.add(new RepositorySource("m2", m2, false));
+        }
+
+        for (var mirror : this.options.getMirrors()) {
+            sources.add("file".equals(mirror.getScheme())
+                    ? new RepositorySource("mirror", Path.of(mirror), false)
+                    : new MirrorSource(mirror));
+        }
+
+        sources.add(UpstreamSource.INSTANCE);
+        return new ArtifactSources(sources).setIndex(this.libraryIndex);
     }
 
     public static void main(String[] arguments) {
-        new Launcher(!ArrayUtils.contains(arguments, "nodownload")).run();
+        LaunchOptions options;
+        try {
+            options = LaunchOptions.parse(arguments);
+        } catch (LaunchException e) {
+            System.err.println(e.getMessage());
+            System.exit(e.getExitCode());
+            return;
+        }
+
+        new Launcher(options).run();
     }
 
     @Override
     public void run() {
         try {
-            if (Files.notExists(mcDir)) {
-                throw new LaunchException("Minecraft folder does not exist, run launcher first", 1);
-            }
-
-            out.println("Loading profiles");
-            var profileList = new ArrayList<>(this.dependencyService.loadSettings().getProfiles().values());
-            out.println("Loaded " + profileList.size() + " launcher profiles:");
-            for (int i = 0; i < profileList.size(); i ++) {
-                out.printf("\t[%d]: %s (%s)\n", i, profileList.get(i).getName(), profileList.get(i).getType());
+            ExtractionPlan plan = null;
+            Map<String, LauncherProfile> selected = Map.of();
+            Map<LauncherProfile, Set<Dependency>> resolved = Map.of();
+            Collection<Dependency> libs = null;
+            List<AssetIndex> assets = List.of();
+            this.readLibraryIndex();
+            if (this.options.getServePort() >= 0) {
+                this.serve();
+                return;
             }
 
-            int selected;
-            while (true) {
-                try {
-                    out.print("Please select profile for library extraction: ");
-                    selected = scanner.nextInt();
-                    if (selected < 0 || selected > profileList.size()) {
-                        throw new NoSuchElementException("Out of range");
-                    }
-
-                    break;
-                } catch (NoSuchElementException e) {
-                    if (e instanceof InputMismatchException) {
-                        scanner.next();
-                    }
-
-                    out.print("Please enter number");
-                    if (e.getMessage() != null) {
-                        out.print(": " + e.getMessage());
-                    }
+            if (this.options.getPlanFile() != null) {
+                plan = readPlan(this.options.getPlanFile());
+                out.printf("Loaded extraction plan of %d libraries from %s\n", plan.getSteps().size(), this.options.getPlanFile());
+                if (this.options.isAssets()) {
+                    out.println("WARN Plan does not describe profiles, assets are not extracted");
+                }
+            } else {
+                this.readSnapshot();
+                selected = this.loadProfiles();
+                resolved = this.resolveLibraries(selected.values());
+                this.reportConflicts(resolved.keySet());
+                libs = ExtractionPipeline.mergeLibraries(resolved.values()).values();
+                if (selected.size() > 1) {
+                    out.printf("Resolved %d profiles, %d unique libraries\n", selected.size(), libs.size());
+                }
 
-                    out.println();
+                if (this.options.isAssets()) {
+                    assets = this.assetIndexes(selected.values());
                 }
             }
 
-            var libs = this.dependencyService.loadLibraries(profileList.get(selected));
+            TransferReport<PlanStep> report;
             try {
-                this.processDependencies(libs);
+                report = this.processDependencies(plan, libs, assets);
             } catch (IOException e) {
                 throw new LaunchException("Unable to copy libraries", e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new LaunchException("Library extraction interrupted", e);
+            }
+
+            this.writeLibraryIndex();
+            this.reportMetrics();
+            if (report == null) {
+                return;
             }
 
-            out.printf("Successfully copied %d libraries", libs.size());
+            printReport(report);
+            // saved plan does not tell profiles apart, its libraries are written as one set
+            var outputs = new LinkedHashMap<String, Collection<Dependency>>();
+            if (plan != null) {
+                outputs.put("plan", plan.getSteps().stream().map(PlanStep::library).toList());
+            } else {
+                for (var entry : selected.entrySet()) {
+                    outputs.put(entry.getKey(), resolved.get(entry.getValue()));
+                }
+            }
+
+            if (this.options.getArchiveFile() != null) {
+                // classpath and manifest point into the archive layout, relative to where it is unpacked
+                this.writeOutputs(Paths.get(ArchiveSink.LIBRARIES), outputs);
+            } else if (plan != null) {
+                this.writeOutputs(plan.getLibrariesDir(), outputs);
+            } else {
+                this.writeOutputs(this.localDir, outputs);
+            }
+
+            if (this.options.isWatch()) {
+                this.watch(selected, resolved, failedPaths(report));
+                return;
+            }
+
+            if (report.hasFailures()) {
+                throw new LaunchException("Failed to extract " + report.getFailures().size() + " libraries", EXIT_CODE_INCOMPLETE);
+            }
+
+            if (this.assetFailures > 0) {
+                throw new LaunchException("Failed to extract " + this.assetFailures + " asset files", EXIT_CODE_INCOMPLETE);
+            }
+
+            out.print("Successfully extracted all libraries");
         } catch (LaunchException e) {
             if (e.getCause() == null) {
                 System.err.println(e.getMessage());
@@ -99,58 +236,674 @@ public class Launcher implements Runnable {
         }
     }
 
-    private void processDependencies(Set<Dependency> libs) throws IOException {
-        Path root = Paths.get(".")
-                .toAbsolutePath()
-                .normalize();
-        final var localDir = root.resolve("libraries");
-        final var nativesDir = root.resolve("natives");
-        if (Files.notExists(localDir)) {
-            Files.createDirectories(localDir);
+    /**
+     * @return selected profiles by their id
+     */
+    private Map<String, LauncherProfile> loadProfiles() throws LaunchException, IOException {
+        if (Files.notExists(mcDir)) {
+            throw new LaunchException("Minecraft folder does not exist, run launcher first", 1);
+        }
+
+        out.println("Loading profiles");
+        var started = System.nanoTime();
+        var profiles = this.dependencyService.loadSettings().getProfiles();
+        this.metrics.addPhase(RunMetrics.PHASE_SETTINGS, System.nanoTime() - started);
+        if (this.options.isBatch()) {
+            return this.selectProfiles(profiles);
+        }
+
+        var selected = this.promptProfile(new ArrayList<>(profiles.entrySet()));
+        return Map.of(selected.getKey(), selected.getValue());
+    }
+
+    /**
+     * Restores launcher settings and resolved libraries stored by previous run, if enabled.
+     */
+    private void readSnapshot() {
+        var snapshot = this.options.getResolveSnapshot();
+        if (snapshot != null) {
+            try {
+                this.dependencyService.readSnapshot(snapshot);
+            } catch (IOException e) {
+                out.println("WARN Unable to read resolved libraries snapshot, ignoring it: " + e.getMessage());
+            }
         }
+    }
 
-        if (Files.notExists(nativesDir)) {
-            Files.createDirectories(nativesDir);
+    private Map<LauncherProfile, Set<Dependency>> resolveLibraries(Collection<LauncherProfile> selected) throws IOException {
+        var snapshot = this.options.getResolveSnapshot();
+        var started = System.nanoTime();
+        var resolved = this.dependencyService.loadLibraries(selected);
+        this.metrics.addPhase(RunMetrics.PHASE_RESOLVE, System.nanoTime() - started);
+        if (snapshot != null) {
+            this.dependencyService.writeSnapshot(snapshot);
         }
 
-        for (var lib : libs) {
-            var libPath = lib.getPath();
+        return resolved;
+    }
+
+    /**
+     * Serves profiles and library files of MC folder until the process is stopped.
+     */
+    private void serve() throws LaunchException, IOException {
+        if (Files.notExists(mcDir)) {
+            throw new LaunchException("Minecraft folder does not exist, run launcher first", 1);
+        }
+
+        this.readSnapshot();
+        // file sizes and hashes are kept in memory while serving, persisted only with --library-index
+        var index = this.libraryIndex != null ? this.libraryIndex : new LibraryIndex();
+        this.dependencyService.getArtifactSources().setIndex(index);
+        var address = new InetSocketAddress(InetAddress.getLoopbackAddress(), this.options.getServePort());
+        try (var server = new LibraryServer(this.dependencyService, index, address, this.options.getTransferSettings().concurrency())) {
+            var started = System.nanoTime();
+            var served = server.start();
+            this.metrics.addPhase(RunMetrics.PHASE_RESOLVE, System.nanoTime() - started);
+            if (this.options.getResolveSnapshot() != null) {
+                this.dependencyService.writeSnapshot(this.options.getResolveSnapshot());
+            }
+
+            this.writeLibraryIndex();
+            this.reportMetrics();
+            // requests are not measured, samples would pile up while serving
+            this.dependencyService.setMetrics(null);
+            out.printf("INFO Serving %d libraries at http://%s:%d%s\n", served,
+                    server.getAddress().getHostString(), server.getAddress().getPort(), LibraryServer.PROFILES);
+            Thread.currentThread().join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void readLibraryIndex() {
+        if (this.libraryIndex == null) {
+            return;
+        }
+
+        try {
+            this.libraryIndex.read(this.options.getLibraryIndex());
+        } catch (IOException e) {
+            out.println("WARN Unable to read library index, listing folders again: " + e.getMessage());
+        }
+    }
+
+    private void writeLibraryIndex() throws IOException {
+        if (this.libraryIndex != null && this.libraryIndex.isModified()) {
+            this.libraryIndex.write(this.options.getLibraryIndex());
+        }
+    }
+
+    /**
+     * @return asset indexes of given profiles, each once
+     */
+    private List<AssetIndex> assetIndexes(Collection<LauncherProfile> profiles) throws IOException {
+        var result = new LinkedHashMap<String, AssetIndex>();
+        for (var profile : profiles) {
+            var index = this.dependencyService.loadAssetIndex(profile);
+            if (index == null) {
+                out.printf("WARN Profile %s declares no asset index\n", profile.getName());
+                continue;
+            }
+
+            result.putIfAbsent(index.id(), index);
+        }
+
+        return new ArrayList<>(result.values());
+    }
+
+    /**
+     * Prints number of version conflicts and pins no declaration matches, details go to conflict report file.
+     */
+    private void reportConflicts(Collection<LauncherProfile> profiles) throws IOException {
+        var conflicts = new LinkedHashMap<LauncherProfile, List<Conflict>>();
+        var total = 0;
+        for (var profile : profiles) {
+            var found = this.dependencyService.getConflicts(profile);
+            conflicts.put(profile, found);
+            for (var conflict : found) {
+                if (conflict.pinned() != null && conflict.reason() != Conflict.Reason.PINNED) {
+                    out.printf("WARN %s is pinned to %s, but profile %s does not declare it, using %s\n",
+                            conflict.artifact(), conflict.pinned(), profile.getName(), conflict.selected().version());
+                }
+
+                if (conflict.candidates().stream().anyMatch(candidate -> !candidate.version().equals(conflict.selected().version()))) {
+                    total ++;
+                }
+            }
+        }
+
+        var settings = this.dependencyService.getResolutionSettings();
+        var file = this.options.getConflictReport();
+        if (total > 0) {
+            out.printf("INFO Resolved %d version conflicts, %s version selected%s\n", total,
+                    settings.strategy().name().toLowerCase(Locale.ROOT), file == null ? ", see --conflict-report for details" : "");
+        }
+
+        if (file != null) {
+            ConflictReport.write(settings, conflicts, file);
+            out.println("INFO Conflict report written to " + file);
+        }
+    }
+
+    private Map.Entry<String, LauncherProfile> promptProfile(List<Map.Entry<String, LauncherProfile>> profileList) throws LaunchException {
+        out.println("Loaded " + profileList.size() + " launcher profiles:");
+        for (int i = 0; i < profileList.size(); i ++) {
+            var profile = profileList.get(i).getValue();
+            out.printf("\t[%d]: %s (%s)\n", i, profile.getName(), profile.getType());
+        }
+
+        while (true) {
+            try {
+                out.print("Please select profile for library extraction: ");
+                if (!scanner.hasNext()) {
+                    throw new LaunchException("No profile selected, use --profile or --all for non-interactive run", LaunchOptions.EXIT_CODE_BAD_ARGUMENTS);
+                }
+
+                var selected = scanner.nextInt();
+                if (selected < 0 || selected >= profileList.size()) {
+                    throw new NoSuchElementException("Out of range");
+                }
+
+                return profileList.get(selected);
+            } catch (NoSuchElementException e) {
+                if (e instanceof InputMismatchException) {
+                    scanner.next();
+                }
+
+                out.print("Please enter number");
+                if (e.getMessage() != null) {
+                    out.print(": " + e.getMessage());
+                }
+
+                out.println();
+            }
+        }
+    }
+
+    private Map<String, LauncherProfile> selectProfiles(Map<String, LauncherProfile> profiles) throws LaunchException {
+        try {
+            return ExtractionPipeline.selectProfiles(profiles, this.request.profiles());
+        } catch (IllegalArgumentException e) {
+            throw new LaunchException(e.getMessage(), LaunchOptions.EXIT_CODE_BAD_ARGUMENTS);
+        }
+    }
+
+    private static void printReport(TransferReport<PlanStep> report) {
+        report.getFailures().forEach((step, cause) ->
+                out.printf("ERR %s, path: %s: %s\n", step.library().getArtifact(), step.library().getPath(), cause.getMessage()));
+        out.printf("Processed %d libraries: %d copied, %d downloaded, %d from cache, %d updated, %d deduplicated, %d up to date\n",
+                report.getOutcomes().size() + report.getFailures().size(),
+                report.count(TransferOutcome.COPIED),
+                report.count(TransferOutcome.DOWNLOADED),
+                report.count(TransferOutcome.CACHED),
+                report.count(TransferOutcome.UPDATED),
+                report.count(TransferOutcome.DEDUPLICATED),
+                report.count(TransferOutcome.SKIPPED));
+    }
+
+    /**
+     * Keeps libraries folder in sync with selected profiles until the process is stopped. Only profiles
+     * whose version chain or launcher profile changed are resolved again and only the difference is transferred.
+     * Libraries failed to transfer are left out of the placed set, so they are transferred again on next change.
+     *
+     * @param failed paths of libraries the initial extraction failed to place
+     */
+    private void watch(Map<String, LauncherProfile> selected, Map<LauncherProfile, Set<Dependency>> resolved, Set<Path> failed) throws IOException {
+        var profiles = new LinkedHashMap<>(selected);
+        var libraries = new LinkedHashMap<String, Set<Dependency>>();
+        var chains = new HashMap<String, Set<String>>();
+        for (var entry : profiles.entrySet()) {
+            libraries.put(entry.getKey(), resolved.get(entry.getValue()));
+            chains.put(entry.getKey(), this.versionChain(entry.getValue()));
+        }
+
+        var current = ExtractionPipeline.mergeLibraries(libraries.values());
+        this.pruneOutputs(current);
+        current.keySet().removeAll(failed);
+        var incomplete = !failed.isEmpty();
+        out.printf("INFO Watching %s for changes of %d profiles, stop with Ctrl+C\n", mcDir, profiles.size());
+        try (var watcher = new VersionWatcher(mcDir)) {
+            while (true) {
+                var change = watcher.next();
+                var affected = new LinkedHashMap<String, LauncherProfile>();
+                var dropped = false;
+                if (change.settings() || change.overflow()) {
+                    Map<String, LauncherProfile> settings;
+                    try {
+                        settings = this.dependencyService.loadSettings().getProfiles();
+                    } catch (IOException | JsonParseException e) {
+                        out.println("WARN Unable to read launcher profiles, waiting for next change: " + e.getMessage());
+                        continue;
+                    }
+
+                    for (var id : List.copyOf(profiles.keySet())) {
+                        var updated = settings.get(id);
+                        if (updated == null) {
+                            out.printf("WARN Launcher profile %s was removed, its libraries are dropped\n", id);
+                            profiles.remove(id);
+                            libraries.remove(id);
+                            chains.remove(id);
+                            dropped = true;
+                        } else {
+                            if (change.overflow() || !Objects.equals(updated.getLastVersionId(), profiles.get(id).getLastVersionId())) {
+                                affected.put(id, updated);
+                            }
+
+                            profiles.put(id, updated);
+                        }
+                    }
+                }
+
+                for (var entry : profiles.entrySet()) {
+                    if (change.overflow() || !Collections.disjoint(chains.get(entry.getKey()), change.versions())) {
+                        affected.put(entry.getKey(), entry.getValue());
+                    }
+                }
 
-            var localLib = (lib.isNative() ? nativesDir : localDir).resolve(libPath);
-            var localLibFolder = localLib.getParent();
-            var mcLibrary = this.mcLib.resolve(libPath);
-            var download = false;
+                // any change retries libraries failed before
+                if (affected.isEmpty() && !dropped && !incomplete) {
+                    continue;
+                }
 
-            if (Files.notExists(mcLibrary)) {
-                if (this.downloadLibraries) {
-                    download = true;
-                } else {
-                    out.println("ERR Library not found at MC folder: " + lib.getArtifact() + ", path: " + libPath);
+                this.resetMetrics();
+                try {
+                    var updated = this.resolveLibraries(affected.values());
+                    for (var entry : affected.entrySet()) {
+                        libraries.put(entry.getKey(), updated.get(entry.getValue()));
+                        chains.put(entry.getKey(), this.versionChain(entry.getValue()));
+                    }
+                } catch (IOException | JsonParseException e) {
+                    out.println("WARN Unable to resolve changed profiles, waiting for next change: " + e.getMessage());
                     continue;
                 }
+
+                var next = ExtractionPipeline.mergeLibraries(libraries.values());
+                var delta = LibraryDelta.between(current, next);
+                out.printf("INFO %d profiles changed: %d libraries added, %d changed, %d removed\n",
+                        affected.size(), delta.added().size(), delta.changed().size(), delta.removed().size());
+                var placed = new LinkedHashMap<>(next);
+                if (!delta.transfers().isEmpty()) {
+                    try {
+                        var report = this.processDependencies(null, delta.transfers(), List.of());
+                        printReport(report);
+                        placed.keySet().removeAll(failedPaths(report));
+                    } catch (IOException e) {
+                        out.println("WARN Unable to transfer changed libraries: " + e.getMessage());
+                        for (var lib : delta.transfers()) {
+                            placed.remove(lib.getPath());
+                        }
+                    }
+                }
+
+                this.pruneOutputs(next);
+                this.writeOutputs(localDir, libraries);
+                current = placed;
+                incomplete = placed.size() < next.size();
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Set<Path> failedPaths(TransferReport<PlanStep> report) {
+        var result = new HashSet<Path>();
+        for (var step : report.getFailures().keySet()) {
+            result.add(step.library().getPath());
+        }
+
+        return result;
+    }
 
-            if (Files.notExists(localLibFolder)) {
-                Files.createDirectories(localLibFolder);
+    /**
+     * @return ids of versions the profile is built from, versions not found yet included
+     */
+    private Set<String> versionChain(LauncherProfile profile) {
+        var result = new HashSet<String>();
+        var id = profile.getLastVersionId();
+        try {
+            while (id != null && !id.isBlank() && result.add(id)) {
+                id = this.dependencyService.loadVersionProfile(id).getInheritsFrom();
             }
+        } catch (IOException | JsonParseException e) {
+            // version not installed yet, its creation triggers the profile
+        }
 
-            if (download && lib.getDownloadUrl() == null) {
-                out.printf("ERR can not download library [%s] as URL is empty\n", lib.getArtifact());
-                continue;
+        return result;
+    }
+
+    /**
+     * Deletes files in libraries and natives folders not belonging to any of given libraries, emptied folders are deleted too.
+     */
+    private void pruneOutputs(Map<Path, Dependency> libraries) throws IOException {
+        var expected = new HashSet<Path>();
+        for (var path : libraries.keySet()) {
+            expected.add(localDir.resolve(path).normalize());
+        }
+
+        this.prune(localDir, expected);
+
+        var extractor = new NativeExtractor(nativesDir);
+        var natives = new HashSet<Path>();
+        for (var lib : libraries.values()) {
+            if (lib.isNative()) {
+                var jar = localDir.resolve(lib.getPath());
+                if (!Files.isRegularFile(jar)) {
+                    // files of a jar failed to transfer are unknown, natives are kept until it is placed
+                    return;
+                }
+
+                natives.addAll(extractor.targets(jar, lib.getExtractExclude()));
             }
+        }
+
+        this.prune(nativesDir, natives);
+    }
 
-            try (var fci = download ? this.downloadDependency(lib) : FileChannel.open(mcLibrary, READ)) {
-                try (var fco = FileChannel.open(localLib, WRITE, CREATE, TRUNCATE_EXISTING)) {
-                    fco.transferFrom(fci, 0, Long.MAX_VALUE);
+    private void prune(Path folder, Set<Path> expected) throws IOException {
+        if (Files.notExists(folder)) {
+            return;
+        }
+
+        var deleted = new int[1];
+        Files.walkFileTree(folder, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                if (!expected.contains(file)) {
+                    Files.delete(file);
+                    deleted[0] ++;
                 }
+
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+                if (!dir.equals(folder)) {
+                    try (var entries = Files.newDirectoryStream(dir)) {
+                        if (!entries.iterator().hasNext()) {
+                            Files.delete(dir);
+                        }
+                    }
+                }
+
+                return FileVisitResult.CONTINUE;
+            }
+        });
+
+        if (deleted[0] > 0) {
+            out.printf("INFO Deleted %d stale files from %s\n", deleted[0], folder);
+        }
+    }
+
+    /**
+     * @param plan saved plan to execute or null to plan given libraries
+     * @return transfer report or null if it was a dry run
+     */
+    private TransferReport<PlanStep> processDependencies(ExtractionPlan plan, Collection<Dependency> libs, List<AssetIndex> assets) throws IOException, InterruptedException {
+        var pipeline = new ExtractionPipeline(this.request);
+        try {
+            if (plan == null) {
+                var started = System.nanoTime();
+                plan = pipeline.plan(libs);
+                this.metrics.addPhase(RunMetrics.PHASE_PLAN, System.nanoTime() - started);
+            }
+
+            if (this.options.getDryRunOutput() != null) {
+                printPlan(plan);
+                writePlan(plan, this.options.getDryRunOutput());
+                out.println("Dry run, extraction plan written to " + this.options.getDryRunOutput());
+                return null;
+            }
+
+            this.metrics.expectLibraries(plan.getSteps().size());
+            if (this.options.getArchiveFile() != null) {
+                try (var sink = new ArchiveSink(this.options.getArchiveFile(), this.options.isStoreJars())) {
+                    var report = this.transferAll(pipeline, plan, sink, step -> Math.max(0, step.size()));
+                    if (pipeline.getPackedNatives() > 0) {
+                        out.printf("INFO Packed %d native files\n", pipeline.getPackedNatives());
+                    }
+
+                    this.extractAssets(assets, pipeline.getDownloader(), sink);
+                    if (report.hasFailures() || this.assetFailures > 0) {
+                        out.println("WARN Extraction is incomplete, " + sink.getFile() + " is left unchanged");
+                    } else {
+                        sink.commit();
+                        out.println("INFO Libraries written to " + sink.getFile());
+                    }
+
+                    return report;
+                }
+            }
+
+            var report = this.transferAll(pipeline, plan, null, step -> Files.size(step.target()));
+            this.extractAssets(assets, pipeline.getDownloader(), null);
+            return report;
+        } finally {
+            pipeline.close();
+            var extractor = pipeline.getNativeExtractor();
+            if (extractor != null && extractor.getExtracted() + extractor.getUnchanged() > 0) {
+                out.printf("INFO Extracted %d native files, %d unchanged\n", extractor.getExtracted(), extractor.getUnchanged());
+            }
+
+            var sources = pipeline.getTransfer().getSources();
+            var taken = sources.summary();
+            if (sources.getSources().size() > 2 && !taken.isEmpty()) {
+                var summary = new StringJoiner(", ");
+                taken.forEach((source, count) -> summary.add(count + " " + source));
+                out.println("INFO Libraries taken from " + summary);
+            }
+
+            var copier = pipeline.getCopier();
+            var strategies = copier.summary();
+            if (!strategies.isEmpty() && copier.getStrategy() != TransferStrategy.COPY) {
+                var summary = new StringJoiner(", ");
+                strategies.forEach((strategy, count) -> summary.add(count + " " + strategy.name().toLowerCase(Locale.ROOT)));
+                out.println("INFO Local libraries placed by " + summary);
+            }
+
+            if (pipeline.getEvicted() > 0) {
+                out.printf("INFO Evicted %d entries from cache at %s\n", pipeline.getEvicted(), pipeline.getCache().getRoot());
             }
         }
     }
 
-    private ReadableByteChannel downloadDependency(Dependency dependency) throws IOException {
-        out.println("INFO Downloading library " + dependency.getArtifact());
-        var connection = dependency.getDownloadUrl().openConnection();
-        connection.connect();
-        return Channels.newChannel(connection.getInputStream());
+    /**
+     * Copies asset indexes and objects of the indexes, failed objects are counted into {@link #assetFailures}.
+     *
+     * @param sink archive assets are packed into, null places them into assets folder
+     */
+    private void extractAssets(List<AssetIndex> indexes, HttpDownloader downloader, ArchiveSink sink) throws IOException, InterruptedException {
+        if (indexes.isEmpty()) {
+            return;
+        }
+
+        var started = System.nanoTime();
+        var copier = new LocalCopier(this.options.getTransferStrategy());
+        var assets = new AssetTransfer(this.mcDir.resolve("assets"), this.assetsDir)
+                .setLocalCopier(copier)
+                .setDownloader(downloader)
+                .setVerify(this.options.isVerifySha1())
+                .setArchiveSink(sink);
+        var objects = new ArrayList<AssetObject>();
+        for (var index : indexes) {
+            try {
+                var file = assets.placeIndex(index, this.dependencyService::readAssetIndex);
+                if (file.legacy()) {
+                    out.printf("WARN Asset index %s uses legacy layout, only hashed objects are extracted\n", index.id());
+                }
+
+                objects.addAll(file.objects());
+            } catch (IOException e) {
+                out.printf("ERR Asset index %s: %s\n", index.id(), e.getMessage());
+                this.assetFailures ++;
+            }
+        }
+
+        var planned = assets.plan(objects);
+        if (sink == null) {
+            assets.createDirectories(planned);
+        }
+
+        TransferReport<AssetObject> report;
+        try (var engine = new TransferEngine(this.options.getTransferSettings())) {
+            report = engine.transferAll(planned, assets);
+        } finally {
+            this.metrics.addPhase(RunMetrics.PHASE_ASSETS, System.nanoTime() - started);
+        }
+
+        var failures = new ArrayList<>(report.getFailures().entrySet());
+        for (int i = 0; i < Math.min(failures.size(), 10); i ++) {
+            var failure = failures.get(i);
+            out.printf("ERR Asset object %s: %s\n", failure.getKey().hash(), failure.getValue().getMessage());
+        }
+
+        if (failures.size() > 10) {
+            out.printf("ERR ... and %d more asset objects\n", failures.size() - 10);
+        }
+
+        this.assetFailures += failures.size();
+        out.printf("Processed %d asset objects of %d indexes: %d copied, %d downloaded, %d up to date\n",
+                planned.size() + assets.getSkipped(), indexes.size(),
+                report.count(TransferOutcome.COPIED), report.count(TransferOutcome.DOWNLOADED), assets.getSkipped());
+    }
+
+    /**
+     * @param sink archive libraries are packed into, null places them into folders of the plan
+     * @param size bytes written by completed step
+     */
+    private TransferReport<PlanStep> transferAll(ExtractionPipeline pipeline, ExtractionPlan plan, ArchiveSink sink, IOFunction<PlanStep, Long> size) throws IOException, InterruptedException {
+        var started = System.nanoTime();
+        var progress = this.options.isProgress() && System.console() != null ? new ProgressBar(this.metrics, out) : null;
+        try {
+            return pipeline.execute(plan, sink, action -> this.measured(action, size));
+        } finally {
+            this.metrics.addPhase(RunMetrics.PHASE_TRANSFER, System.nanoTime() - started);
+            if (progress != null) {
+                progress.close();
+            }
+        }
+    }
+
+    /**
+     * Wraps transfer to record latency and size of every library.
+     *
+     * @param size bytes written by completed step
+     */
+    private TransferAction<PlanStep> measured(TransferAction<PlanStep> transfer, IOFunction<PlanStep, Long> size) {
+        return (step, engine) -> {
+            var started = System.nanoTime();
+            TransferOutcome outcome = null;
+            long bytes = 0;
+            try {
+                outcome = transfer.transfer(step, engine);
+                bytes = outcome == TransferOutcome.SKIPPED ? 0 : size.apply(step);
+                return outcome;
+            } finally {
+                this.metrics.addLibrary(new RunMetrics.LibrarySample(
+                        step.library().getArtifact().toString(), outcome, bytes, System.nanoTime() - started));
+            }
+        };
+    }
+
+    /**
+     * Starts measuring next cycle of watch mode, samples of previous cycles are dropped.
+     */
+    private void resetMetrics() {
+        this.metrics = new RunMetrics();
+        this.dependencyService.setMetrics(this.metrics);
+    }
+
+    private void reportMetrics() throws IOException {
+        var phases = new StringJoiner(", ");
+        this.metrics.getPhases().forEach((phase, nanos) -> phases.add(String.format(Locale.ROOT, "%s %.3f s", phase, nanos / 1e9)));
+        if (phases.length() > 0) {
+            out.println("INFO Timings: " + phases);
+        }
+
+        if (this.metrics.count(TransferOutcome.DOWNLOADED) > 0) {
+            out.printf(Locale.ROOT, "INFO Download throughput %.2f MB/s\n", this.metrics.getDownloadThroughput() / 1e6);
+        }
+
+        if (this.metrics.count(TransferOutcome.DOWNLOADED) + this.metrics.count(TransferOutcome.CACHED) > 0) {
+            out.printf(Locale.ROOT, "INFO Cache hit ratio %.0f%%\n", this.metrics.getCacheHitRatio() * 100);
+        }
+
+        var file = this.options.getMetricsFile();
+        if (file != null) {
+            MetricsReport.write(this.metrics, file);
+            out.println("INFO Metrics written to " + file);
+        }
+    }
+
+    /**
+     * Writes classpath, manifest and module list requested by arguments. Versions of one artifact differ between
+     * profiles, so with several profiles every profile gets its own files, suffixed with profile id.
+     *
+     * @param libraries libraries by profile id
+     */
+    private void writeOutputs(Path librariesDir, Map<String, ? extends Collection<Dependency>> libraries) throws IOException {
+        for (var entry : libraries.entrySet()) {
+            var suffix = libraries.size() > 1 ? entry.getKey() : null;
+            var libs = entry.getValue();
+            if (this.options.getClasspathFile() != null) {
+                ManifestWriter.writeClasspath(librariesDir, libs, suffixed(this.options.getClasspathFile(), suffix));
+            }
+
+            if (this.options.getManifestFile() != null) {
+                ManifestWriter.writeManifest(librariesDir, libs, suffixed(this.options.getManifestFile(), suffix));
+            }
+
+            if (this.options.getModulesFile() != null) {
+                ManifestWriter.writeModules(libs, suffixed(this.options.getModulesFile(), suffix));
+            }
+        }
+    }
+
+    /**
+     * @return file with suffix inserted before its extension, the file itself if suffix is null
+     */
+    private static Path suffixed(Path file, String suffix) {
+        if (suffix == null) {
+            return file;
+        }
+
+        var name = file.getFileName().toString();
+        var dot = name.lastIndexOf('.');
+        var safe = suffix.replaceAll("[^\\w.-]", "_");
+        return file.resolveSibling(dot > 0
+                ? name.substring(0, dot) + "-" + safe + name.substring(dot)
+                : name + "-" + safe);
+    }
+
+    private static void printPlan(ExtractionPlan plan) {
+        out.printf("Planned %d libraries:\n", plan.getSteps().size());
+        for (var source : PlanStep.Source.values()) {
+            var count = plan.count(source);
+            if (count > 0) {
+                out.printf("\t%s: %d libraries, %d bytes\n", source.name().toLowerCase(Locale.ROOT), count, plan.size(source));
+            }
+        }
+
+        for (var step : plan.getSteps()) {
+            if (step.source() == PlanStep.Source.MISSING) {
+                out.printf("WARN %s, path: %s: no source available\n", step.library().getArtifact(), step.library().getPath());
+            }
+        }
+    }
+
+    private static ExtractionPlan readPlan(Path file) throws LaunchException {
+        try (var reader = Files.newBufferedReader(file)) {
+            return new ExtractionPlanTypeAdapter().fromJson(reader);
+        } catch (IOException | JsonParseException | IllegalStateException e) {
+            throw new LaunchException("Unable to read extraction plan " + file + ": " + e.getMessage(), LaunchOptions.EXIT_CODE_BAD_ARGUMENTS);
+        }
+    }
+
+    private static void writePlan(ExtractionPlan plan, Path file) throws IOException {
+        Files.createDirectories(file.getParent());
+        try (var writer = new JsonWriter(Files.newBufferedWriter(file))) {
+            writer.setIndent("  ");
+            new ExtractionPlanTypeAdapter().write(writer, plan);
+        }
     }
 }
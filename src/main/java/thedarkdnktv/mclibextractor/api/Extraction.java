@@ -0,0 +1,146 @@
+package thedarkdnktv.mclibextractor.api;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Single extraction created by {@link LibraryExtractor#create(ExtractionRequest)}. Subscribe to its events
+ * before {@link #start()}, events published earlier are not replayed. Events are delivered on threads of
+ * the extractor, not on the executor running the extraction. Slow subscribers slow the extraction down,
+ * each of them buffers a limited number of events only.
+ */
+public class Extraction implements Flow.Publisher<ExtractionEvent> {
+
+    private final ExtractionRequest request;
+    private final Executor executor;
+    private final LibraryExtractor extractor;
+    private final SubmissionPublisher<ExtractionEvent> events;
+    private final CompletableFuture<ExtractionResult> result = new CompletableFuture<>();
+    private final AtomicBoolean started = new AtomicBoolean();
+    private Thread worker;
+
+    /**
+     * @param delivery delivers events, it must not be the executor, publishing waits for delivery once buffers are full
+     */
+    Extraction(ExtractionRequest request, Executor executor, Executor delivery, LibraryExtractor extractor) {
+        this.request = request;
+        this.executor = executor;
+        this.extractor = extractor;
+        this.events = new SubmissionPublisher<>(delivery, Flow.defaultBufferSize());
+        // CompletableFuture does not interrupt anything on cancel, the worker is interrupted here
+        this.result.whenComplete((value, e) -> {
+            if (this.result.isCancelled()) {
+                this.interruptWorker();
+            }
+        });
+    }
+
+    public ExtractionRequest getRequest() {
+        return request;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super ExtractionEvent> subscriber) {
+        events.subscribe(subscriber);
+    }
+
+    /**
+     * Starts the extraction once, further calls return the same future.
+     *
+     * @return future completed with result, completed exceptionally if profiles can not be resolved
+     * or the extraction is cancelled; libraries failing to transfer are reported by the result
+     */
+    public CompletableFuture<ExtractionResult> start() {
+        if (started.compareAndSet(false, true)) {
+            try {
+                executor.execute(this::run);
+            } catch (RuntimeException e) {
+                this.result.completeExceptionally(e);
+                this.events.closeExceptionally(e);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * @return future of the result, not started until {@link #start()}
+     */
+    public CompletableFuture<ExtractionResult> result() {
+        return result;
+    }
+
+    /**
+     * Stops running transfers and completes the result with {@link java.util.concurrent.CancellationException}.
+     * Files already placed are kept.
+     *
+     * @return false if the extraction completed already
+     */
+    public boolean cancel() {
+        return result.cancel(true);
+    }
+
+    public boolean isCancelled() {
+        return result.isCancelled();
+    }
+
+    void publish(ExtractionEvent event) {
+        if (result.isDone()) {
+            return;
+        }
+
+        try {
+            // unlike submit, timed offer gives up once cancel interrupts the publishing thread
+            events.offer(event, Long.MAX_VALUE, TimeUnit.NANOSECONDS, null);
+        } catch (IllegalStateException e) {
+            // closed by cancelled extraction meanwhile
+        } catch (RejectedExecutionException e) {
+            // extractor closed, nobody delivers events any more
+        }
+    }
+
+    private void run() {
+        synchronized (this) {
+            if (result.isDone()) {
+                events.closeExceptionally(new CancellationException("Extraction cancelled"));
+                return;
+            }
+
+            this.worker = Thread.currentThread();
+        }
+
+        Throwable failure = null;
+        try {
+            result.complete(extractor.extract(request, this));
+        } catch (Throwable e) {
+            failure = e;
+            result.completeExceptionally(e);
+        } finally {
+            synchronized (this) {
+                this.worker = null;
+                // interrupt of cancel meant for this extraction must not leak into next task of the thread
+                Thread.interrupted();
+            }
+        }
+
+        if (result.isCancelled()) {
+            events.closeExceptionally(new CancellationException("Extraction cancelled"));
+        } else if (failure != null) {
+            events.closeExceptionally(failure);
+        } else {
+            events.close();
+        }
+    }
+
+    private synchronized void interruptWorker() {
+        if (this.worker != null) {
+            this.worker.interrupt();
+        }
+    }
+}
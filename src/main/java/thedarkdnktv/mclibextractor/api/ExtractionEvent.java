@@ -0,0 +1,28 @@
+package thedarkdnktv.mclibextractor.api;
+
+import thedarkdnktv.mclibextractor.model.Dependency;
+import thedarkdnktv.mclibextractor.model.LauncherProfile;
+import thedarkdnktv.mclibextractor.transfer.ExtractionPlan;
+import thedarkdnktv.mclibextractor.transfer.PlanStep;
+import thedarkdnktv.mclibextractor.transfer.TransferOutcome;
+
+import java.util.Set;
+
+/**
+ * Progress of an extraction published by {@link Extraction}, in the order things happen.
+ * Library events of concurrent transfers arrive in completion order.
+ */
+public sealed interface ExtractionEvent {
+
+    record ProfileResolved(String id, LauncherProfile profile, Set<Dependency> libraries) implements ExtractionEvent {
+    }
+
+    record Planned(ExtractionPlan plan) implements ExtractionEvent {
+    }
+
+    record LibraryTransferred(PlanStep step, TransferOutcome outcome) implements ExtractionEvent {
+    }
+
+    record LibraryFailed(PlanStep step, Throwable cause) implements ExtractionEvent {
+    }
+}
@@ -0,0 +1,133 @@
+package thedarkdnktv.mclibextractor.api;
+
+import thedarkdnktv.mclibextractor.model.Platform;
+import thedarkdnktv.mclibextractor.output.OutputSink;
+import thedarkdnktv.mclibextractor.resolve.ResolutionSettings;
+import thedarkdnktv.mclibextractor.source.ArtifactSources;
+import thedarkdnktv.mclibextractor.transfer.ArtifactCache;
+import thedarkdnktv.mclibextractor.transfer.DownloadSettings;
+import thedarkdnktv.mclibextractor.transfer.TransferSettings;
+import thedarkdnktv.mclibextractor.transfer.TransferStrategy;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Everything single extraction needs, start with {@link #of(Path, Path)} and adjust it with {@code withX} methods.
+ *
+ * @param directory    MC folder profiles and libraries are read from
+ * @param librariesDir folder libraries are placed into, unused with sink
+ * @param nativesDir   folder native jars are unpacked into, unused with sink
+ * @param profiles     launcher profile ids or names, empty selects all profiles
+ * @param sources      chain libraries are looked up in, null means MC libraries folder and URLs of version JSON
+ * @param download     null disables downloading of libraries missing locally
+ * @param cacheDir     download cache shared between extractions, null disables it
+ * @param cacheSize    size the cache is trimmed to after extraction, in bytes
+ * @param storeDir     content-addressed store libraries are hard-linked from, null disables it
+ * @param sink         receives libraries instead of folders, owned by the caller and not closed by extraction
+ */
+public record ExtractionRequest(
+    Path directory,
+    Path librariesDir,
+    Path nativesDir,
+    List<String> profiles,
+    Platform platform,
+    ResolutionSettings resolution,
+    ArtifactSources sources,
+    DownloadSettings download,
+    Path cacheDir,
+    long cacheSize,
+    Path storeDir,
+    TransferSettings transfer,
+    TransferStrategy strategy,
+    boolean verifySha1,
+    boolean incremental,
+    OutputSink sink
+) {
+
+    public ExtractionRequest {
+        Objects.requireNonNull(directory);
+        Objects.requireNonNull(librariesDir);
+        Objects.requireNonNull(nativesDir);
+        Objects.requireNonNull(platform);
+        Objects.requireNonNull(resolution);
+        Objects.requireNonNull(transfer);
+        Objects.requireNonNull(strategy);
+        profiles = List.copyOf(profiles);
+    }
+
+    /**
+     * @return request extracting all profiles of MC folder into {@code libraries} and {@code natives} of output folder,
+     * downloading missing libraries without cache; {@link #withCache(Path)} enables cache of the size console launcher uses
+     */
+    public static ExtractionRequest of(Path directory, Path outputDir) {
+        return new ExtractionRequest(directory, outputDir.resolve("libraries"), outputDir.resolve("natives"), List.of(),
+                Platform.current(), ResolutionSettings.defaults(), null, DownloadSettings.defaults(), null, ArtifactCache.DEFAULT_MAX_SIZE,
+                null, TransferSettings.defaults(), TransferStrategy.COPY, false, false, null);
+    }
+
+    public ExtractionRequest withProfiles(List<String> profiles) {
+        return new ExtractionRequest(this.directory, this.librariesDir, this.nativesDir, profiles, this.platform, this.resolution,
+                this.sources, this.download, this.cacheDir, this.cacheSize, this.storeDir, this.transfer, this.strategy, this.verifySha1, this.incremental, this.sink);
+    }
+
+    public ExtractionRequest withPlatform(Platform platform) {
+        return new ExtractionRequest(this.directory, this.librariesDir, this.nativesDir, this.profiles, platform, this.resolution,
+                this.sources, this.download, this.cacheDir, this.cacheSize, this.storeDir, this.transfer, this.strategy, this.verifySha1, this.incremental, this.sink);
+    }
+
+    public ExtractionRequest withResolution(ResolutionSettings resolution) {
+        return new ExtractionRequest(this.directory, this.librariesDir, this.nativesDir, this.profiles, this.platform, resolution,
+                this.sources, this.download, this.cacheDir, this.cacheSize, this.storeDir, this.transfer, this.strategy, this.verifySha1, this.incremental, this.sink);
+    }
+
+    public ExtractionRequest withSources(ArtifactSources sources) {
+        return new ExtractionRequest(this.directory, this.librariesDir, this.nativesDir, this.profiles, this.platform, this.resolution,
+                sources, this.download, this.cacheDir, this.cacheSize, this.storeDir, this.transfer, this.strategy, this.verifySha1, this.incremental, this.sink);
+    }
+
+    public ExtractionRequest withDownload(DownloadSettings download) {
+        return new ExtractionRequest(this.directory, this.librariesDir, this.nativesDir, this.profiles, this.platform, this.resolution,
+                this.sources, download, this.cacheDir, this.cacheSize, this.storeDir, this.transfer, this.strategy, this.verifySha1, this.incremental, this.sink);
+    }
+
+    public ExtractionRequest withCache(Path cacheDir) {
+        return this.withCache(cacheDir, this.cacheSize);
+    }
+
+    public ExtractionRequest withCache(Path cacheDir, long cacheSize) {
+        return new ExtractionRequest(this.directory, this.librariesDir, this.nativesDir, this.profiles, this.platform, this.resolution,
+                this.sources, this.download, cacheDir, cacheSize, this.storeDir, this.transfer, this.strategy, this.verifySha1, this.incremental, this.sink);
+    }
+
+    public ExtractionRequest withStore(Path storeDir) {
+        return new ExtractionRequest(this.directory, this.librariesDir, this.nativesDir, this.profiles, this.platform, this.resolution,
+                this.sources, this.download, this.cacheDir, this.cacheSize, storeDir, this.transfer, this.strategy, this.verifySha1, this.incremental, this.sink);
+    }
+
+    public ExtractionRequest withTransfer(TransferSettings transfer) {
+        return new ExtractionRequest(this.directory, this.librariesDir, this.nativesDir, this.profiles, this.platform, this.resolution,
+                this.sources, this.download, this.cacheDir, this.cacheSize, this.storeDir, transfer, this.strategy, this.verifySha1, this.incremental, this.sink);
+    }
+
+    public ExtractionRequest withStrategy(TransferStrategy strategy) {
+        return new ExtractionRequest(this.directory, this.librariesDir, this.nativesDir, this.profiles, this.platform, this.resolution,
+                this.sources, this.download, this.cacheDir, this.cacheSize, this.storeDir, this.transfer, strategy, this.verifySha1, this.incremental, this.sink);
+    }
+
+    public ExtractionRequest withVerifySha1(boolean verifySha1) {
+        return new ExtractionRequest(this.directory, this.librariesDir, this.nativesDir, this.profiles, this.platform, this.resolution,
+                this.sources, this.download, this.cacheDir, this.cacheSize, this.storeDir, this.transfer, this.strategy, verifySha1, this.incremental, this.sink);
+    }
+
+    public ExtractionRequest withIncremental(boolean incremental) {
+        return new ExtractionRequest(this.directory, this.librariesDir, this.nativesDir, this.profiles, this.platform, this.resolution,
+                this.sources, this.download, this.cacheDir, this.cacheSize, this.storeDir, this.transfer, this.strategy, this.verifySha1, incremental, this.sink);
+    }
+
+    public ExtractionRequest withSink(OutputSink sink) {
+        return new ExtractionRequest(this.directory, this.librariesDir, this.nativesDir, this.profiles, this.platform, this.resolution,
+                this.sources, this.download, this.cacheDir, this.cacheSize, this.storeDir, this.transfer, this.strategy, this.verifySha1, this.incremental, sink);
+    }
+}
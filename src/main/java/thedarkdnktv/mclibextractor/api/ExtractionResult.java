@@ -0,0 +1,24 @@
+package thedarkdnktv.mclibextractor.api;
+
+import thedarkdnktv.mclibextractor.model.Dependency;
+import thedarkdnktv.mclibextractor.model.LauncherProfile;
+import thedarkdnktv.mclibextractor.transfer.PlanStep;
+import thedarkdnktv.mclibextractor.transfer.TransferReport;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * @param libraries resolved libraries of every selected profile, by profile id
+ * @param report    outcome of every transferred library, failed libraries do not fail the extraction
+ */
+public record ExtractionResult(
+    Map<String, LauncherProfile> profiles,
+    Map<String, Set<Dependency>> libraries,
+    TransferReport<PlanStep> report
+) {
+
+    public boolean hasFailures() {
+        return report.hasFailures();
+    }
+}
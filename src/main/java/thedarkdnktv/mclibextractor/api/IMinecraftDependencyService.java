@@ -1,12 +1,22 @@
 package thedarkdnktv.mclibextractor.api;
 
+import thedarkdnktv.mclibextractor.metrics.RunMetrics;
+import thedarkdnktv.mclibextractor.model.AssetIndex;
+import thedarkdnktv.mclibextractor.model.AssetIndexFile;
 import thedarkdnktv.mclibextractor.model.Dependency;
 import thedarkdnktv.mclibextractor.model.LauncherProfile;
 import thedarkdnktv.mclibextractor.model.LauncherProfileSettings;
+import thedarkdnktv.mclibextractor.model.Platform;
 import thedarkdnktv.mclibextractor.model.VersionProfile;
+import thedarkdnktv.mclibextractor.resolve.Conflict;
+import thedarkdnktv.mclibextractor.resolve.ResolutionSettings;
+import thedarkdnktv.mclibextractor.source.ArtifactSources;
 
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 public interface IMinecraftDependencyService {
@@ -15,9 +25,73 @@ public interface IMinecraftDependencyService {
 
     Path getDirectory();
 
+    /**
+     * Sets platform library rules and natives are evaluated for, current platform by default.
+     */
+    void setPlatform(Platform platform);
+
+    Platform getPlatform();
+
+    /**
+     * @param metrics receives time spent parsing version files, null disables measuring
+     */
+    void setMetrics(RunMetrics metrics);
+
+    /**
+     * Sets chain library files are looked up in, changing MC folder restores the default one.
+     */
+    void setArtifactSources(ArtifactSources sources);
+
+    /**
+     * @return configured chain, MC libraries folder followed by URLs of version JSON by default
+     */
+    ArtifactSources getArtifactSources();
+
+    /**
+     * Sets how versions of artifacts declared several times in the inheritance chain are selected.
+     */
+    void setResolutionSettings(ResolutionSettings settings);
+
+    ResolutionSettings getResolutionSettings();
+
     LauncherProfileSettings loadSettings() throws IOException;
 
     VersionProfile loadVersionProfile(String id) throws IOException;
 
+    /**
+     * @return libraries in classpath order, libraries of inheriting versions go before those of their parents
+     */
     Set<Dependency> loadLibraries(LauncherProfile profile) throws IOException;
+
+    /**
+     * Resolves libraries of several profiles at once, version files shared between profiles are parsed only once.
+     */
+    Map<LauncherProfile, Set<Dependency>> loadLibraries(Collection<LauncherProfile> profiles) throws IOException;
+
+    /**
+     * @return conflicts found by the last {@link #loadLibraries(LauncherProfile)} of the profile, empty if it was not loaded
+     */
+    List<Conflict> getConflicts(LauncherProfile profile);
+
+    /**
+     * @return asset index of the profile version, inherited from the nearest parent declaring one, or null
+     */
+    AssetIndex loadAssetIndex(LauncherProfile profile) throws IOException;
+
+    /**
+     * Reads asset index file, like {@code assets/indexes/<id>.json} of MC folder.
+     */
+    AssetIndexFile readAssetIndex(Path file) throws IOException;
+
+    /**
+     * Drops memoized version profiles and resolved libraries.
+     */
+    void clearCache();
+
+    /**
+     * Loads resolved libraries stored by {@link #writeSnapshot(Path)}, entries are used only while version files are unchanged.
+     */
+    void readSnapshot(Path file) throws IOException;
+
+    void writeSnapshot(Path file) throws IOException;
 }
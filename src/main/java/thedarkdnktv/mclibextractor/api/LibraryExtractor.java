@@ -0,0 +1,130 @@
+package thedarkdnktv.mclibextractor.api;
+
+import thedarkdnktv.mclibextractor.api.impl.ExtractionPipeline;
+import thedarkdnktv.mclibextractor.api.impl.MinecraftDependencyServiceImpl;
+import thedarkdnktv.mclibextractor.model.Dependency;
+import thedarkdnktv.mclibextractor.model.LauncherProfile;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Entry point for embedding the extractor into long-lived processes, it never exits the JVM. Extractions run
+ * in background and may run concurrently, extractions of the same MC folder share parsed and resolved versions.
+ * <p>
+ * Diagnostics of downloads and sources are still printed to {@code System.out}, results and progress are
+ * available from {@link Extraction} only.
+ */
+public class LibraryExtractor implements AutoCloseable {
+
+    private final Executor executor;
+    private final ExecutorService ownExecutor;
+    private final ExecutorService events = daemonPool("extraction-events-");
+    private final Map<Path, IMinecraftDependencyService> services = new ConcurrentHashMap<>();
+
+    /**
+     * Runs extractions on own daemon threads, stopped by {@link #close()}.
+     */
+    public LibraryExtractor() {
+        this.ownExecutor = daemonPool("extraction-");
+        this.executor = this.ownExecutor;
+    }
+
+    /**
+     * @param executor runs extractions, extraction blocks its thread until done; events are delivered on own threads,
+     *                 so subscribers never wait for the extraction they listen to
+     */
+    public LibraryExtractor(Executor executor) {
+        this.executor = executor;
+        this.ownExecutor = null;
+    }
+
+    /**
+     * @return extraction to subscribe to, not started yet
+     */
+    public Extraction create(ExtractionRequest request) {
+        return new Extraction(request, this.executor, this.events, this);
+    }
+
+    /**
+     * Starts extraction without listening to its events.
+     */
+    public CompletableFuture<ExtractionResult> extract(ExtractionRequest request) {
+        return this.create(request).start();
+    }
+
+    ExtractionResult extract(ExtractionRequest request, Extraction extraction) throws IOException, InterruptedException {
+        var profiles = new LinkedHashMap<String, LauncherProfile>();
+        var resolved = new LinkedHashMap<String, Set<Dependency>>();
+        var service = this.service(request.directory());
+        synchronized (service) {
+            // cached resolutions are keyed by platform and settings, so requests differing in them do not mix
+            service.setPlatform(request.platform());
+            service.setResolutionSettings(request.resolution());
+            profiles.putAll(ExtractionPipeline.selectProfiles(service.loadSettings().getProfiles(), request.profiles()));
+            var libraries = service.loadLibraries(profiles.values());
+            for (var entry : profiles.entrySet()) {
+                resolved.put(entry.getKey(), libraries.get(entry.getValue()));
+            }
+        }
+
+        for (var entry : resolved.entrySet()) {
+            extraction.publish(new ExtractionEvent.ProfileResolved(entry.getKey(), profiles.get(entry.getKey()), entry.getValue()));
+        }
+
+        try (var pipeline = new ExtractionPipeline(request)) {
+            var plan = pipeline.plan(ExtractionPipeline.mergeLibraries(resolved.values()).values());
+            extraction.publish(new ExtractionEvent.Planned(plan));
+            var report = pipeline.execute(plan, request.sink(), action -> (step, engine) -> {
+                try {
+                    var outcome = action.transfer(step, engine);
+                    extraction.publish(new ExtractionEvent.LibraryTransferred(step, outcome));
+                    return outcome;
+                } catch (IOException | RuntimeException e) {
+                    extraction.publish(new ExtractionEvent.LibraryFailed(step, e));
+                    throw e;
+                }
+            });
+            return new ExtractionResult(profiles, resolved, report);
+        }
+    }
+
+    private static ExecutorService daemonPool(String prefix) {
+        var counter = new AtomicInteger();
+        return Executors.newCachedThreadPool(task -> {
+            var thread = new Thread(task, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private IMinecraftDependencyService service(Path dir) {
+        return services.computeIfAbsent(dir.toAbsolutePath().normalize(), key -> {
+            var service = new MinecraftDependencyServiceImpl();
+            service.setDirectory(key);
+            return service;
+        });
+    }
+
+    /**
+     * Stops own threads, running extractions are interrupted and events still buffered are delivered.
+     * Given executor is left to its owner, events of extractions running on it are dropped from now on.
+     */
+    @Override
+    public void close() {
+        if (this.ownExecutor != null) {
+            this.ownExecutor.shutdownNow();
+        }
+
+        this.events.shutdown();
+    }
+}
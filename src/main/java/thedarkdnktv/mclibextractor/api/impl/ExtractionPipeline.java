@@ -0,0 +1,190 @@
+package thedarkdnktv.mclibextractor.api.impl;
+
+import thedarkdnktv.mclibextractor.api.ExtractionRequest;
+import thedarkdnktv.mclibextractor.model.Dependency;
+import thedarkdnktv.mclibextractor.model.LauncherProfile;
+import thedarkdnktv.mclibextractor.output.ArchiveTransfer;
+import thedarkdnktv.mclibextractor.output.OutputSink;
+import thedarkdnktv.mclibextractor.transfer.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+
+/**
+ * Transfer part of an extraction shared by console launcher and {@link thedarkdnktv.mclibextractor.api.LibraryExtractor}:
+ * plans resolved libraries of a request and places them into its folders or into a sink. Closing it stops
+ * the downloader and trims the download cache.
+ */
+public class ExtractionPipeline implements AutoCloseable {
+
+    private final ExtractionRequest request;
+    private final HttpDownloader downloader;
+    private final LocalCopier copier;
+    private final LibraryTransfer transfer;
+    private final ArtifactCache cache;
+    private NativeExtractor nativeExtractor;
+    private ArchiveTransfer archive;
+    private int evicted;
+
+    public ExtractionPipeline(ExtractionRequest request) throws IOException {
+        this.request = request;
+        this.downloader = request.download() == null ? null : new HttpDownloader(request.download());
+        this.copier = new LocalCopier(request.strategy());
+        this.transfer = new LibraryTransfer(request.directory().resolve("libraries"), request.librariesDir())
+                .setDownloader(this.downloader)
+                .setVerifyLocal(request.verifySha1())
+                .setUpToDateCheck(request.incremental() || request.verifySha1() ? new UpToDateCheck(request.verifySha1()) : null)
+                .setLocalCopier(this.copier);
+        if (request.sources() != null) {
+            this.transfer.setSources(request.sources());
+        }
+
+        try {
+            if (request.storeDir() != null) {
+                this.transfer.setContentStore(new ContentStore(request.storeDir()));
+            }
+
+            this.cache = this.downloader != null && request.cacheDir() != null
+                    ? new ArtifactCache(request.cacheDir(), request.cacheSize())
+                    : null;
+        } catch (IOException | RuntimeException e) {
+            if (this.downloader != null) {
+                this.downloader.close();
+            }
+
+            throw e;
+        }
+
+        this.transfer.setArtifactCache(this.cache);
+    }
+
+    /**
+     * @param queries profile ids or names, empty selects all profiles
+     * @return selected profiles by their id
+     * @throws IllegalArgumentException if a query matches no profile
+     */
+    public static Map<String, LauncherProfile> selectProfiles(Map<String, LauncherProfile> profiles, List<String> queries) {
+        if (queries.isEmpty()) {
+            return new LinkedHashMap<>(profiles);
+        }
+
+        var result = new LinkedHashMap<String, LauncherProfile>();
+        for (var query : queries) {
+            var id = query;
+            if (!profiles.containsKey(id)) {
+                id = profiles.entrySet()
+                        .stream()
+                        .filter(candidate -> query.equals(candidate.getValue().getName()))
+                        .map(Map.Entry::getKey)
+                        .findFirst()
+                        .orElseThrow(() -> new IllegalArgumentException("Launcher profile not found: " + query));
+            }
+
+            result.putIfAbsent(id, profiles.get(id));
+        }
+
+        return result;
+    }
+
+    /**
+     * Profiles may share libraries, each library file has to be transferred only once.
+     */
+    public static Map<Path, Dependency> mergeLibraries(Collection<Set<Dependency>> libraries) {
+        var result = new LinkedHashMap<Path, Dependency>();
+        for (var set : libraries) {
+            for (var lib : set) {
+                result.putIfAbsent(lib.getPath(), lib);
+            }
+        }
+
+        return result;
+    }
+
+    public ExtractionPlan plan(Collection<Dependency> libs) throws IOException {
+        return this.transfer.plan(libs, this.request.nativesDir());
+    }
+
+    /**
+     * Executes the plan, folders of the plan are created unless libraries go into sink.
+     *
+     * @param sink      receives libraries instead of folders, null places them into folders of the plan
+     * @param decorator wraps transfer of every step, e.g. to measure or report it
+     */
+    public TransferReport<PlanStep> execute(ExtractionPlan plan, OutputSink sink, UnaryOperator<TransferAction<PlanStep>> decorator) throws IOException, InterruptedException {
+        TransferAction<PlanStep> action;
+        if (sink != null) {
+            this.archive = new ArchiveTransfer(this.transfer, sink);
+            action = this.archive;
+        } else {
+            plan.createDirectories();
+            this.nativeExtractor = new NativeExtractor(plan.getNativesDir());
+            action = this.transfer.setNativeExtractor(this.nativeExtractor);
+        }
+
+        try (var engine = new TransferEngine(this.request.transfer())) {
+            return engine.transferAll(plan.getSchedule(), decorator.apply(action));
+        }
+    }
+
+    public LibraryTransfer getTransfer() {
+        return transfer;
+    }
+
+    /**
+     * @return downloader of missing libraries, null if downloads are disabled
+     */
+    public HttpDownloader getDownloader() {
+        return downloader;
+    }
+
+    public LocalCopier getCopier() {
+        return copier;
+    }
+
+    /**
+     * @return download cache, null if it is disabled
+     */
+    public ArtifactCache getCache() {
+        return cache;
+    }
+
+    /**
+     * @return extractor of natives of the last execution into folders, null if none ran
+     */
+    public NativeExtractor getNativeExtractor() {
+        return nativeExtractor;
+    }
+
+    /**
+     * @return native files written into sink by the last execution
+     */
+    public int getPackedNatives() {
+        return archive == null ? 0 : archive.getNatives();
+    }
+
+    /**
+     * @return entries evicted from the download cache on close
+     */
+    public int getEvicted() {
+        return evicted;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (this.downloader != null) {
+                this.downloader.close();
+            }
+        } finally {
+            if (this.cache != null) {
+                this.evicted = this.cache.trim();
+            }
+        }
+    }
+}
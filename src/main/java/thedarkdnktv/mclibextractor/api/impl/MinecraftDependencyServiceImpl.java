@@ -2,39 +2,66 @@ package thedarkdnktv.mclibextractor.api.impl;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
-import org.apache.commons.lang3.tuple.Pair;
-import org.apache.maven.artifact.versioning.ComparableVersion;
-
 import thedarkdnktv.mclibextractor.api.IMinecraftDependencyService;
-import thedarkdnktv.mclibextractor.gson.LibraryDeserializer;
+import thedarkdnktv.mclibextractor.gson.AssetIndexTypeAdapter;
+import thedarkdnktv.mclibextractor.gson.LibraryTypeAdapter;
+import thedarkdnktv.mclibextractor.gson.VersionProfileTypeAdapter;
+import thedarkdnktv.mclibextractor.metrics.RunMetrics;
 import thedarkdnktv.mclibextractor.model.*;
+import thedarkdnktv.mclibextractor.resolve.Conflict;
+import thedarkdnktv.mclibextractor.resolve.ConflictResolver;
+import thedarkdnktv.mclibextractor.resolve.Declaration;
+import thedarkdnktv.mclibextractor.resolve.ResolutionSettings;
+import thedarkdnktv.mclibextractor.source.ArtifactSources;
 
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
-import java.util.regex.Pattern;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static java.lang.System.out;
 
 public class MinecraftDependencyServiceImpl implements IMinecraftDependencyService {
 
-    private final static Pattern ARTIFACT_PATTERN;
-    static {
-        ARTIFACT_PATTERN = Pattern.compile("^([[^:].]+):([[^:].]+):([[^:].]+)(?::([[^:].]+))?$");
-    }
+    private static final int PARSE_THREADS = Math.max(2, Runtime.getRuntime().availableProcessors());
 
     private Path mcDir;
     private final Gson gson;
+    private final ExecutorService parser;
+    private final VersionProfileCache cache = new VersionProfileCache();
+    private Platform platform = Platform.current();
+    private RunMetrics metrics;
+    private ArtifactSources artifactSources;
+    private ResolutionSettings resolution = ResolutionSettings.defaults();
 
     public MinecraftDependencyServiceImpl() {
+        var libraryAdapter = new LibraryTypeAdapter();
         this.gson = new GsonBuilder()
                 .serializeNulls()
                 .setPrettyPrinting()
-                .registerTypeAdapter(Library.class, new LibraryDeserializer())
+                .registerTypeAdapter(Library.class, libraryAdapter)
+                .registerTypeAdapter(VersionProfile.class, new VersionProfileTypeAdapter(libraryAdapter))
+                .registerTypeAdapter(AssetIndexFile.class, new AssetIndexTypeAdapter())
                 .create();
+        // version files are read with blocking IO, so they are kept off the common pool; idle threads exit
+        var counter = new AtomicInteger();
+        var pool = new ThreadPoolExecutor(PARSE_THREADS, PARSE_THREADS, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), task -> {
+            var thread = new Thread(task, "version-parser-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        pool.allowCoreThreadTimeOut(true);
+        this.parser = pool;
         var path = Optional.ofNullable(System.getenv("APPDATA"))
                 .orElseGet(() -> System.getProperty("user.home"));
         this.setDirectory(Paths.get(path, ".minecraft"));
@@ -43,6 +70,8 @@ public class MinecraftDependencyServiceImpl implements IMinecraftDependencyServi
     @Override
     public void setDirectory(Path dir) {
         this.mcDir = Objects.requireNonNull(dir);
+        this.artifactSources = null;
+        this.cache.clear();
     }
 
     @Override
@@ -50,6 +79,45 @@ public class MinecraftDependencyServiceImpl implements IMinecraftDependencyServi
         return this.mcDir;
     }
 
+    @Override
+    public void setPlatform(Platform platform) {
+        this.platform = Objects.requireNonNull(platform);
+    }
+
+    @Override
+    public Platform getPlatform() {
+        return this.platform;
+    }
+
+    @Override
+    public void setMetrics(RunMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void setArtifactSources(ArtifactSources sources) {
+        this.artifactSources = sources;
+    }
+
+    @Override
+    public ArtifactSources getArtifactSources() {
+        if (this.artifactSources == null) {
+            this.artifactSources = ArtifactSources.defaults(mcDir.resolve("libraries"));
+        }
+
+        return this.artifactSources;
+    }
+
+    @Override
+    public void setResolutionSettings(ResolutionSettings settings) {
+        this.resolution = Objects.requireNonNull(settings);
+    }
+
+    @Override
+    public ResolutionSettings getResolutionSettings() {
+        return this.resolution;
+    }
+
     @Override
     public LauncherProfileSettings loadSettings() throws IOException {
         var profiles = mcDir.resolve("launcher_profiles.json");
@@ -57,52 +125,215 @@ public class MinecraftDependencyServiceImpl implements IMinecraftDependencyServi
             throw new IOException("Profiles file not found, run launcher first!");
         }
 
-        try (BufferedReader reader = Files.newBufferedReader(profiles)) {
-            return gson.fromJson(reader, LauncherProfileSettings.class);
+        var stamp = VersionProfileCache.stamp(profiles.getFileName().toString(), profiles);
+        var result = cache.getSettings(stamp);
+        if (result == null) {
+            try (BufferedReader reader = Files.newBufferedReader(profiles)) {
+                result = gson.fromJson(reader, LauncherProfileSettings.class);
+            }
+
+            cache.putSettings(stamp, result);
         }
+
+        return result;
     }
 
     @Override
     public VersionProfile loadVersionProfile(String id) throws IOException {
-        var file = mcDir.resolve("versions")
+        return this.loadVersionProfile(VersionProfileCache.stamp(id, this.versionFile(id)));
+    }
+
+    private VersionProfile loadVersionProfile(VersionProfileCache.Stamp stamp) throws IOException {
+        return this.loadVersionProfile(stamp, true);
+    }
+
+    /**
+     * @param measured adds parse time to metrics, concurrent parsing measures the whole batch instead
+     */
+    private VersionProfile loadVersionProfile(VersionProfileCache.Stamp stamp, boolean measured) throws IOException {
+        var result = cache.getProfile(stamp);
+        if (result == null) {
+            var started = System.nanoTime();
+            try (var buffer = Files.newBufferedReader(this.versionFile(stamp.id()))) {
+                result = gson.fromJson(buffer, VersionProfile.class);
+            }
+
+            if (measured && metrics != null) {
+                metrics.addPhase(RunMetrics.PHASE_PARSE, System.nanoTime() - started);
+            }
+
+            cache.putProfile(stamp, result);
+        }
+
+        return result;
+    }
+
+    private Path versionFile(String id) {
+        return mcDir.resolve("versions")
                 .resolve(id)
                 .resolve(id + ".json");
+    }
 
-        try (var buffer = Files.newBufferedReader(file)) {
-            return gson.fromJson(buffer, VersionProfile.class);
+    @Override
+    public Set<Dependency> loadLibraries(LauncherProfile profile) throws IOException {
+        var key = this.cacheKey(profile);
+        var cached = cache.getLibraries(key, this::versionFile);
+        if (cached != null) {
+            return cached;
         }
+
+        var chain = new ArrayList<VersionProfileCache.Stamp>();
+        var declarations = this.declareLibraries(profile.getLastVersionId(), chain);
+        var resolved = new ConflictResolver(this.resolution).resolve(declarations);
+        cache.putLibraries(key, chain, resolved);
+        return resolved.libraries();
     }
 
     @Override
-    public Set<Dependency> loadLibraries(LauncherProfile profile) throws IOException {
-        var dependencies = new HashMap<Dependency, Dependency>();
-        var id = profile.getLastVersionId();
+    public List<Conflict> getConflicts(LauncherProfile profile) {
+        return cache.getConflicts(this.cacheKey(profile));
+    }
 
-        do {
+    private String cacheKey(LauncherProfile profile) {
+        // resolved libraries depend on rules and conflict strategy, so they are cached per platform and settings
+        return profile.getLastVersionId() + "@" + platform.key() + "#" + resolution.key();
+    }
+
+    @Override
+    public Map<LauncherProfile, Set<Dependency>> loadLibraries(Collection<LauncherProfile> profiles) throws IOException {
+        var pending = new LinkedHashSet<String>();
+        for (var profile : profiles) {
+            if (cache.getLibraries(this.cacheKey(profile), this::versionFile) == null) {
+                pending.add(profile.getLastVersionId());
+            }
+        }
+
+        this.parseChains(pending);
+        var result = new LinkedHashMap<LauncherProfile, Set<Dependency>>();
+        for (var profile : profiles) {
+            result.put(profile, this.loadLibraries(profile));
+        }
+
+        return result;
+    }
+
+    /**
+     * Parses inheritance chains of given versions concurrently, level by level, so every version file shared
+     * by several chains is parsed once. Parsed versions are memoized, resolution itself reads them from cache.
+     * Versions failing to parse only end their own chain, the error is reported when the profile is resolved.
+     */
+    private void parseChains(Collection<String> ids) throws IOException {
+        var seen = new HashSet<String>();
+        var level = new ArrayList<String>();
+        for (var id : ids) {
+            if (id != null && !id.isBlank() && seen.add(id)) {
+                level.add(id);
+            }
+        }
+
+        while (level.size() > 1) {
+            var started = System.nanoTime();
+            var tasks = new ArrayList<Future<VersionProfile>>();
+            for (var id : level) {
+                tasks.add(parser.submit(() -> this.loadVersionProfile(VersionProfileCache.stamp(id, this.versionFile(id)), false)));
+            }
+
+            level = new ArrayList<>();
+            try {
+                for (var task : tasks) {
+                    VersionProfile versionProfile;
+                    try {
+                        versionProfile = task.get();
+                    } catch (ExecutionException e) {
+                        continue;
+                    }
+
+                    var parent = versionProfile.getInheritsFrom();
+                    if (parent != null && !parent.isBlank() && seen.add(parent)) {
+                        level.add(parent);
+                    }
+                }
+            } catch (InterruptedException e) {
+                tasks.forEach(task -> task.cancel(true));
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while parsing versions");
+            } finally {
+                if (metrics != null) {
+                    metrics.addPhase(RunMetrics.PHASE_PARSE, System.nanoTime() - started);
+                }
+            }
+        }
+    }
+
+    @Override
+    public AssetIndex loadAssetIndex(LauncherProfile profile) throws IOException {
+        var id = profile.getLastVersionId();
+        while (id != null && !id.isBlank()) {
             var versionProfile = this.loadVersionProfile(id);
-            for (var lib : versionProfile.getLibraries()) {
-                if (lib != null) {
-                    var artifact = this.parseArtifact(lib.getName());
-                    if (artifact != null) {
-                        var current = new Dependency(artifact.getKey(), artifact.getValue(), lib.getPath())
-                                .setDownloadUrl(lib.getUrl())
-                                .setNative(lib.isNative());
+            if (versionProfile.getAssetIndex() != null) {
+                return versionProfile.getAssetIndex();
+            }
 
-                        dependencies.merge(current, current, (key, previous) -> {
-                            out.printf("Found artifact duplicate for [%s], versions are %s and %s\n",
-                                    key.getArtifact(),
-                                    current.getVersion(),
-                                    previous.getVersion());
-                            if (current.getVersion().compareTo(previous.getVersion()) > 0) {
-                                previous = current;
-                            }
+            id = versionProfile.getInheritsFrom();
+        }
 
-                            out.println("\tselecting version " + previous.getVersion());
-                            return previous;
-                        });
+        return null;
+    }
+
+    @Override
+    public AssetIndexFile readAssetIndex(Path file) throws IOException {
+        try (var buffer = Files.newBufferedReader(file)) {
+            return gson.fromJson(buffer, AssetIndexFile.class);
+        }
+    }
+
+    @Override
+    public void clearCache() {
+        cache.clear();
+    }
+
+    @Override
+    public void readSnapshot(Path file) throws IOException {
+        cache.readSnapshot(file);
+    }
+
+    @Override
+    public void writeSnapshot(Path file) throws IOException {
+        cache.writeSnapshot(file);
+    }
 
+    /**
+     * @return allowed libraries of the whole inheritance chain, duplicates included
+     */
+    private List<Declaration> declareLibraries(String id, List<VersionProfileCache.Stamp> chain) throws IOException {
+        var declarations = new ArrayList<Declaration>();
+
+        do {
+            var stamp = VersionProfileCache.stamp(id, this.versionFile(id));
+            var versionProfile = this.loadVersionProfile(stamp);
+            chain.add(stamp);
 
-                        dependencies.put(current, current);
+            for (var lib : versionProfile.getLibraries()) {
+                if (lib != null && Rule.isAllowed(lib.getRules(), platform)) {
+                    var coordinate = ArtifactCoordinate.parse(lib.getName());
+                    if (coordinate == null) {
+                        continue;
+                    }
+
+                    if (lib.getPath() != null) {
+                        var classifier = coordinate.artifact().type();
+                        var current = new Dependency(coordinate.artifact(), coordinate.version(), lib.getPath())
+                                .setDownloadUrl(lib.getUrl())
+                                .setSha1(lib.getSha1())
+                                .setSize(lib.getSize())
+                                .setNative(classifier != null && classifier.startsWith("natives-"))
+                                .setExtractExclude(lib.getExtractExclude());
+                        declarations.add(new Declaration(current, id));
+                    }
+
+                    var natives = this.nativeDependency(lib, coordinate);
+                    if (natives != null) {
+                        declarations.add(new Declaration(natives, id));
                     }
                 }
             }
@@ -110,17 +341,32 @@ public class MinecraftDependencyServiceImpl implements IMinecraftDependencyServi
             id = versionProfile.getInheritsFrom();
         } while (id != null && !id.isBlank());
 
-        return new HashSet<>(dependencies.values());
+        return declarations;
     }
 
-    private Pair<MavenArtifact, ComparableVersion> parseArtifact(String name) {
-        var matcher = ARTIFACT_PATTERN.matcher(name);
-        if (matcher.lookingAt()) {
-            var mvn = new MavenArtifact(matcher.group(1), matcher.group(2), matcher.group(4));
-            var version = new ComparableVersion(matcher.group(3));
-            return Pair.of(mvn, version);
+    /**
+     * @return classifier jar with natives for current platform or null if library has none
+     */
+    private Dependency nativeDependency(Library lib, ArtifactCoordinate coordinate) {
+        var classifier = lib.getNatives().get(platform.os());
+        if (classifier == null) {
+            return null;
         }
 
-        return null;
+        classifier = classifier.replace("${arch}", platform.bitness());
+        var download = lib.getClassifiers().get(classifier);
+        if (download == null) {
+            out.printf("WARN Library %s declares natives %s without download\n", lib.getName(), classifier);
+            return null;
+        }
+
+        var artifact = coordinate.artifact();
+        var version = ArtifactCoordinate.version(coordinate.version().toString());
+        return new Dependency(MavenArtifact.of(artifact.group(), artifact.id(), classifier), version, download.path())
+                .setDownloadUrl(download.url())
+                .setSha1(download.sha1())
+                .setSize(download.size())
+                .setNative(true)
+                .setExtractExclude(lib.getExtractExclude());
     }
 }
@@ -0,0 +1,285 @@
+package thedarkdnktv.mclibextractor.api.impl;
+
+import thedarkdnktv.mclibextractor.model.ArtifactCoordinate;
+import thedarkdnktv.mclibextractor.model.Dependency;
+import thedarkdnktv.mclibextractor.model.LauncherProfile;
+import thedarkdnktv.mclibextractor.model.LauncherProfileSettings;
+import thedarkdnktv.mclibextractor.model.MavenArtifact;
+import thedarkdnktv.mclibextractor.model.VersionProfile;
+import thedarkdnktv.mclibextractor.resolve.Conflict;
+import thedarkdnktv.mclibextractor.resolve.Resolution;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Memoizes parsed launcher settings, version files and resolved library sets, entries are valid while
+ * size and modification time of the settings file or every version file in the inheritance chain stay the same.
+ */
+class VersionProfileCache {
+
+    private static final int SNAPSHOT_MAGIC = 0x4D434C58;
+    private static final int SNAPSHOT_VERSION = 5;
+
+    private final Map<String, ParsedEntry> parsed = new ConcurrentHashMap<>();
+    private final Map<String, ResolvedEntry> resolved = new ConcurrentHashMap<>();
+    private volatile SettingsEntry settings;
+
+    static Stamp stamp(String id, Path file) throws IOException {
+        var attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        return new Stamp(id, attributes.size(), attributes.lastModifiedTime().toMillis());
+    }
+
+    LauncherProfileSettings getSettings(Stamp stamp) {
+        var entry = this.settings;
+        return entry != null && entry.stamp().equals(stamp) ? entry.settings() : null;
+    }
+
+    void putSettings(Stamp stamp, LauncherProfileSettings settings) {
+        this.settings = new SettingsEntry(stamp, settings);
+    }
+
+    VersionProfile getProfile(Stamp stamp) {
+        var entry = parsed.get(stamp.id());
+        return entry != null && entry.stamp().equals(stamp) ? entry.profile() : null;
+    }
+
+    void putProfile(Stamp stamp, VersionProfile profile) {
+        parsed.put(stamp.id(), new ParsedEntry(stamp, profile));
+    }
+
+    Set<Dependency> getLibraries(String id, Function<String, Path> locator) {
+        var entry = resolved.get(id);
+        if (entry == null) {
+            return null;
+        }
+
+        try {
+            for (var stamp : entry.chain()) {
+                if (!stamp.equals(stamp(stamp.id(), locator.apply(stamp.id())))) {
+                    return null;
+                }
+            }
+        } catch (IOException e) {
+            return null;
+        }
+
+        return new LinkedHashSet<>(entry.libraries());
+    }
+
+    void putLibraries(String id, List<Stamp> chain, Resolution resolution) {
+        var libraries = Collections.unmodifiableSet(new LinkedHashSet<>(resolution.libraries()));
+        resolved.put(id, new ResolvedEntry(List.copyOf(chain), libraries, resolution.conflicts()));
+    }
+
+    List<Conflict> getConflicts(String id) {
+        var entry = resolved.get(id);
+        return entry == null ? List.of() : entry.conflicts();
+    }
+
+    void clear() {
+        this.settings = null;
+        parsed.clear();
+        resolved.clear();
+    }
+
+    void readSnapshot(Path file) throws IOException {
+        try (var in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(Files.newInputStream(file))))) {
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+                return;
+            }
+
+            if (in.readBoolean()) {
+                var stamp = new Stamp(in.readUTF(), in.readLong(), in.readLong());
+                var settings = readSettings(in);
+                if (this.settings == null) {
+                    this.settings = new SettingsEntry(stamp, settings);
+                }
+            }
+
+            var entries = in.readInt();
+            for (int i = 0; i < entries; i ++) {
+                var id = in.readUTF();
+                var chain = new ArrayList<Stamp>();
+                for (int j = in.readInt(); j > 0; j --) {
+                    chain.add(new Stamp(in.readUTF(), in.readLong(), in.readLong()));
+                }
+
+                var libraries = new LinkedHashSet<Dependency>();
+                for (int j = in.readInt(); j > 0; j --) {
+                    libraries.add(readDependency(in));
+                }
+
+                var conflicts = new ArrayList<Conflict>();
+                for (int j = in.readInt(); j > 0; j --) {
+                    conflicts.add(readConflict(in));
+                }
+
+                resolved.putIfAbsent(id, new ResolvedEntry(chain, libraries, List.copyOf(conflicts)));
+            }
+        } catch (NoSuchFileException e) {
+            // nothing stored yet
+        }
+    }
+
+    void writeSnapshot(Path file) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        var temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (var out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(temp))))) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(SNAPSHOT_VERSION);
+
+            var settings = this.settings;
+            out.writeBoolean(settings != null);
+            if (settings != null) {
+                out.writeUTF(settings.stamp().id());
+                out.writeLong(settings.stamp().size());
+                out.writeLong(settings.stamp().lastModified());
+                writeSettings(out, settings.settings());
+            }
+
+            var entries = new ArrayList<>(resolved.entrySet());
+            out.writeInt(entries.size());
+            for (var entry : entries) {
+                out.writeUTF(entry.getKey());
+                out.writeInt(entry.getValue().chain().size());
+                for (var stamp : entry.getValue().chain()) {
+                    out.writeUTF(stamp.id());
+                    out.writeLong(stamp.size());
+                    out.writeLong(stamp.lastModified());
+                }
+
+                out.writeInt(entry.getValue().libraries().size());
+                for (var lib : entry.getValue().libraries()) {
+                    writeDependency(out, lib);
+                }
+
+                out.writeInt(entry.getValue().conflicts().size());
+                for (var conflict : entry.getValue().conflicts()) {
+                    writeConflict(out, conflict);
+                }
+            }
+        }
+
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static void writeSettings(DataOutput out, LauncherProfileSettings settings) throws IOException {
+        out.writeInt(settings.getVersion());
+        out.writeInt(settings.getProfiles().size());
+        for (var entry : settings.getProfiles().entrySet()) {
+            var profile = entry.getValue();
+            out.writeUTF(entry.getKey());
+            writeNullable(out, profile.getName());
+            writeNullable(out, profile.getType());
+            writeNullable(out, profile.getLastVersionId());
+        }
+    }
+
+    private static LauncherProfileSettings readSettings(DataInput in) throws IOException {
+        var result = new LauncherProfileSettings();
+        result.setVersion(in.readInt());
+        var profiles = new LinkedHashMap<String, LauncherProfile>();
+        for (int i = in.readInt(); i > 0; i --) {
+            var key = in.readUTF();
+            var profile = new LauncherProfile();
+            profile.setName(readNullable(in));
+            profile.setType(readNullable(in));
+            profile.setLastVersionId(readNullable(in));
+            profiles.put(key, profile);
+        }
+
+        result.setProfiles(profiles);
+        return result;
+    }
+
+    private static void writeDependency(DataOutput out, Dependency lib) throws IOException {
+        out.writeUTF(lib.getArtifact().group());
+        out.writeUTF(lib.getArtifact().id());
+        writeNullable(out, lib.getArtifact().type());
+        out.writeUTF(lib.getVersion().toString());
+        out.writeUTF(lib.getPath().toString());
+        writeNullable(out, lib.getDownloadUrl() == null ? null : lib.getDownloadUrl().toString());
+        writeNullable(out, lib.getSha1());
+        out.writeLong(lib.getSize());
+        out.writeBoolean(lib.isNative());
+        out.writeInt(lib.getExtractExclude().size());
+        for (var prefix : lib.getExtractExclude()) {
+            out.writeUTF(prefix);
+        }
+    }
+
+    private static Dependency readDependency(DataInput in) throws IOException {
+        var artifact = MavenArtifact.of(in.readUTF(), in.readUTF(), readNullable(in));
+        var version = ArtifactCoordinate.version(in.readUTF());
+        var path = Paths.get(in.readUTF());
+        var result = new Dependency(artifact, version, path)
+                .setDownloadUrl(readNullable(in))
+                .setSha1(readNullable(in))
+                .setSize(in.readLong())
+                .setNative(in.readBoolean());
+        var exclude = new String[in.readInt()];
+        for (int i = 0; i < exclude.length; i ++) {
+            exclude[i] = in.readUTF();
+        }
+
+        return result.setExtractExclude(List.of(exclude));
+    }
+
+    private static void writeConflict(DataOutput out, Conflict conflict) throws IOException {
+        out.writeUTF(conflict.artifact().group());
+        out.writeUTF(conflict.artifact().id());
+        writeNullable(out, conflict.artifact().type());
+        out.writeUTF(conflict.reason().name());
+        writeNullable(out, conflict.pinned() == null ? null : conflict.pinned().toString());
+        out.writeInt(conflict.candidates().indexOf(conflict.selected()));
+        out.writeInt(conflict.candidates().size());
+        for (var candidate : conflict.candidates()) {
+            out.writeUTF(candidate.version().toString());
+            out.writeUTF(candidate.declaredBy());
+        }
+    }
+
+    private static Conflict readConflict(DataInput in) throws IOException {
+        var artifact = MavenArtifact.of(in.readUTF(), in.readUTF(), readNullable(in));
+        var reason = Conflict.Reason.valueOf(in.readUTF());
+        var pinned = readNullable(in);
+        var selected = in.readInt();
+        var candidates = new Conflict.Candidate[in.readInt()];
+        for (int i = 0; i < candidates.length; i ++) {
+            candidates[i] = new Conflict.Candidate(ArtifactCoordinate.version(in.readUTF()), in.readUTF());
+        }
+
+        return new Conflict(artifact, List.of(candidates), candidates[selected], reason,
+                pinned == null ? null : ArtifactCoordinate.version(pinned));
+    }
+
+    private static void writeNullable(DataOutput out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullable(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    record Stamp(String id, long size, long lastModified) {}
+
+    private record SettingsEntry(Stamp stamp, LauncherProfileSettings settings) {}
+
+    private record ParsedEntry(Stamp stamp, VersionProfile profile) {}
+
+    private record ResolvedEntry(List<Stamp> chain, Set<Dependency> libraries, List<Conflict> conflicts) {}
+}
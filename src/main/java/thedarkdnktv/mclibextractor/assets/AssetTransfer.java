@@ -0,0 +1,264 @@
+package thedarkdnktv.mclibextractor.assets;
+
+import thedarkdnktv.mclibextractor.model.AssetIndex;
+import thedarkdnktv.mclibextractor.model.AssetIndexFile;
+import thedarkdnktv.mclibextractor.model.AssetObject;
+import thedarkdnktv.mclibextractor.output.ArchiveSink;
+import thedarkdnktv.mclibextractor.transfer.ChecksumException;
+import thedarkdnktv.mclibextractor.transfer.Checksums;
+import thedarkdnktv.mclibextractor.transfer.HttpDownloader;
+import thedarkdnktv.mclibextractor.transfer.IOFunction;
+import thedarkdnktv.mclibextractor.transfer.LocalCopier;
+import thedarkdnktv.mclibextractor.transfer.TransferAction;
+import thedarkdnktv.mclibextractor.transfer.TransferEngine;
+import thedarkdnktv.mclibextractor.transfer.TransferOutcome;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+/**
+ * Copies asset indexes and objects they reference. Objects are named by their SHA-1, so an object already
+ * present with the declared size is skipped without reading it. Target objects folder is listed once while
+ * planning instead of checking every object, and prefix folders are created in one go before copying.
+ */
+public class AssetTransfer implements TransferAction<AssetObject> {
+
+    public static final URI RESOURCES = URI.create("https://resources.download.minecraft.net/");
+
+    private final Path sourceDir;
+    private final Path targetDir;
+
+    private LocalCopier localCopier;
+    private HttpDownloader downloader;
+    private boolean verify = false;
+    private ArchiveSink sink;
+    private int skipped;
+
+    /**
+     * @param sourceDir {@code assets} folder of MC
+     * @param targetDir {@code assets} folder objects are placed into
+     */
+    public AssetTransfer(Path sourceDir, Path targetDir) {
+        this.sourceDir = sourceDir;
+        this.targetDir = targetDir;
+    }
+
+    /**
+     * @param localCopier places objects found in MC folder, null keeps byte copy
+     */
+    public AssetTransfer setLocalCopier(LocalCopier localCopier) {
+        this.localCopier = localCopier;
+        return this;
+    }
+
+    /**
+     * @param downloader used for objects and indexes missing in MC folder, null disables downloading
+     */
+    public AssetTransfer setDownloader(HttpDownloader downloader) {
+        this.downloader = downloader;
+        return this;
+    }
+
+    /**
+     * @param verify compare SHA-1 of present and copied objects too, not only their size
+     */
+    public AssetTransfer setVerify(boolean verify) {
+        this.verify = verify;
+        return this;
+    }
+
+    /**
+     * @param sink archive objects are packed into instead of target folder, null writes files
+     */
+    public AssetTransfer setArchiveSink(ArchiveSink sink) {
+        this.sink = sink;
+        return this;
+    }
+
+    /**
+     * @return number of objects skipped by the last {@link #plan(Collection)} as already present
+     */
+    public int getSkipped() {
+        return skipped;
+    }
+
+    /**
+     * Places index file into {@code indexes}, downloading it if MC folder misses it.
+     *
+     * @return parsed index
+     */
+    public AssetIndexFile placeIndex(AssetIndex index, IOFunction<Path, AssetIndexFile> reader) throws IOException {
+        var name = "indexes/" + index.id() + ".json";
+        var source = sourceDir.resolve(name);
+        var temporary = false;
+        if (Files.notExists(source)) {
+            if (this.downloader == null || index.url() == null) {
+                throw new NoSuchFileException(source.toString(), null, "Asset index not found at MC folder");
+            }
+
+            source = sink == null ? targetDir.resolve(name) : Files.createTempFile("mclib", ".json");
+            temporary = sink != null;
+            Files.createDirectories(source.getParent());
+            this.downloader.download(URI.create(index.url()), source, index.sha1(), index.size());
+        }
+
+        try {
+            var result = reader.apply(source);
+            if (sink != null) {
+                sink.addFile(ArchiveSink.ASSETS + name, source);
+            } else if (!source.startsWith(targetDir)) {
+                var target = targetDir.resolve(name);
+                Files.createDirectories(target.getParent());
+                Files.copy(source, target, REPLACE_EXISTING);
+            }
+
+            return result;
+        } finally {
+            if (temporary) {
+                Files.deleteIfExists(source);
+            }
+        }
+    }
+
+    /**
+     * @return objects missing in target folder or differing from the index, unique by hash and sorted by it
+     */
+    public List<AssetObject> plan(Collection<AssetObject> objects) throws IOException {
+        var existing = sink == null ? this.listObjects() : Map.<String, Long>of();
+        var hashes = new HashSet<String>(objects.size() * 2);
+        var result = new ArrayList<AssetObject>();
+        this.skipped = 0;
+        for (var object : objects) {
+            if (!hashes.add(object.hash())) {
+                continue;
+            }
+
+            var size = existing.get(object.hash());
+            if (size != null && (object.size() < 0 || size == object.size()) && (!this.verify || this.matches(object))) {
+                this.skipped ++;
+                continue;
+            }
+
+            result.add(object);
+        }
+
+        result.sort(Comparator.comparing(AssetObject::hash));
+        return result;
+    }
+
+    private boolean matches(AssetObject object) throws IOException {
+        return Checksums.matches(object.hash(), Checksums.sha1(targetDir.resolve("objects").resolve(object.path())));
+    }
+
+    /**
+     * @return sizes of objects present in target folder by their hash
+     */
+    private Map<String, Long> listObjects() throws IOException {
+        var objectsDir = targetDir.resolve("objects");
+        var result = new HashMap<String, Long>();
+        if (Files.notExists(objectsDir)) {
+            return result;
+        }
+
+        Files.walkFileTree(objectsDir, EnumSet.noneOf(FileVisitOption.class), 2, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (attrs.isRegularFile()) {
+                    result.put(file.getFileName().toString(), attrs.size());
+                }
+
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Creates prefix folders of planned objects, there are at most 256 of them.
+     */
+    public void createDirectories(List<AssetObject> planned) throws IOException {
+        var prefixes = new TreeSet<String>();
+        for (var object : planned) {
+            prefixes.add(object.hash().substring(0, 2));
+        }
+
+        var objectsDir = targetDir.resolve("objects");
+        for (var prefix : prefixes) {
+            Files.createDirectories(objectsDir.resolve(prefix));
+        }
+    }
+
+    @Override
+    public TransferOutcome transfer(AssetObject object, TransferEngine engine) throws IOException {
+        var sourceRoot = sourceDir.resolve("objects");
+        var source = sourceRoot.resolve(object.path());
+        var target = targetDir.resolve("objects").resolve(object.path());
+        var name = ArchiveSink.ASSETS + "objects/" + object.path().toString().replace('\\', '/');
+        if (this.isPresent(source, object)) {
+            return engine.onDisk(() -> {
+                if (this.verify && !Checksums.matches(object.hash(), Checksums.sha1(source))) {
+                    throw new ChecksumException("SHA-1 of " + source + " does not match its name");
+                }
+
+                if (sink != null) {
+                    sink.addFile(name, source);
+                } else if (localCopier != null && !this.verify) {
+                    localCopier.copy(sourceRoot, source, target, file -> Files.copy(source, file, REPLACE_EXISTING));
+                } else {
+                    Files.copy(source, target, REPLACE_EXISTING);
+                }
+
+                return TransferOutcome.COPIED;
+            });
+        }
+
+        if (this.downloader == null) {
+            throw new NoSuchFileException(source.toString(), null, "Asset object not found at MC folder");
+        }
+
+        var uri = RESOURCES.resolve(object.path().toString().replace('\\', '/'));
+        return engine.onHost(uri, () -> {
+            if (sink == null) {
+                this.downloader.download(uri, target, object.hash(), object.size());
+                return TransferOutcome.DOWNLOADED;
+            }
+
+            var temp = Files.createTempFile("mclib", ".asset");
+            try {
+                this.downloader.download(uri, temp, object.hash(), object.size());
+                sink.addFile(name, temp);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+
+            return TransferOutcome.DOWNLOADED;
+        });
+    }
+
+    private boolean isPresent(Path source, AssetObject object) throws IOException {
+        try {
+            var attributes = Files.readAttributes(source, BasicFileAttributes.class);
+            return attributes.isRegularFile() && (object.size() < 0 || attributes.size() == object.size());
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+    }
+}
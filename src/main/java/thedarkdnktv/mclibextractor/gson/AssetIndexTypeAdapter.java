@@ -0,0 +1,97 @@
+package thedarkdnktv.mclibextractor.gson;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import thedarkdnktv.mclibextractor.model.AssetIndexFile;
+import thedarkdnktv.mclibextractor.model.AssetObject;
+import thedarkdnktv.mclibextractor.transfer.Checksums;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+
+/**
+ * Streaming adapter of {@code assets/indexes/<id>.json}, object names are counted but not kept,
+ * so written index names every object by its hash.
+ */
+public class AssetIndexTypeAdapter extends TypeAdapter<AssetIndexFile> {
+
+    @Override
+    public AssetIndexFile read(JsonReader in) throws IOException {
+        var objects = new ArrayList<AssetObject>();
+        var hashes = new HashSet<String>();
+        var names = 0;
+        var legacy = false;
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "objects" -> {
+                    in.beginObject();
+                    while (in.hasNext()) {
+                        in.nextName();
+                        names ++;
+                        var object = this.readObject(in);
+                        if (hashes.add(object.hash())) {
+                            objects.add(object);
+                        }
+                    }
+                    in.endObject();
+                }
+                case "virtual", "map_to_resources" -> legacy |= in.peek() == JsonToken.BOOLEAN && in.nextBoolean();
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        return new AssetIndexFile(objects, names, legacy);
+    }
+
+    private AssetObject readObject(JsonReader in) throws IOException {
+        String hash = null;
+        long size = -1;
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "hash" -> hash = LibraryTypeAdapter.nextString(in);
+                case "size" -> size = LibraryTypeAdapter.nextLong(in);
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+
+        // hash is used as path under assets/objects, anything else than hex could leave that folder
+        if (!Checksums.isSha1(hash)) {
+            throw new JsonParseException("Asset object has invalid hash: " + hash);
+        }
+
+        return new AssetObject(hash, size);
+    }
+
+    @Override
+    public void write(JsonWriter out, AssetIndexFile value) throws IOException {
+        if (value == null) {
+            out.nullValue();
+            return;
+        }
+
+        out.beginObject();
+        if (value.legacy()) {
+            out.name("virtual").value(true);
+        }
+
+        out.name("objects").beginObject();
+        for (var object : value.objects()) {
+            out.name(object.hash()).beginObject();
+            out.name("hash").value(object.hash());
+            if (object.size() >= 0) {
+                out.name("size").value(object.size());
+            }
+
+            out.endObject();
+        }
+        out.endObject();
+        out.endObject();
+    }
+}
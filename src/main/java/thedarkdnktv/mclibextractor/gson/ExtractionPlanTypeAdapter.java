@@ -0,0 +1,177 @@
+package thedarkdnktv.mclibextractor.gson;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import thedarkdnktv.mclibextractor.model.ArtifactCoordinate;
+import thedarkdnktv.mclibextractor.model.Dependency;
+import thedarkdnktv.mclibextractor.transfer.ExtractionPlan;
+import thedarkdnktv.mclibextractor.transfer.PlanStep;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Plan file format written by {@code --dry-run} and executed by {@code --plan}. Every step keeps
+ * full library description, so plan can be executed without MC folder resolution.
+ */
+public class ExtractionPlanTypeAdapter extends TypeAdapter<ExtractionPlan> {
+
+    private static final int FORMAT_VERSION = 1;
+
+    @Override
+    public void write(JsonWriter out, ExtractionPlan plan) throws IOException {
+        out.beginObject();
+        out.name("version").value(FORMAT_VERSION);
+        out.name("libraries").value(plan.getLibrariesDir().toString());
+        out.name("natives").value(plan.getNativesDir().toString());
+        out.name("steps").beginArray();
+        for (var step : plan.getSteps()) {
+            var lib = step.library();
+            out.beginObject();
+            out.name("name").value(lib.getName());
+            out.name("source").value(step.source().name().toLowerCase(Locale.ROOT));
+            out.name("target").value(step.target().toString());
+            if (step.origin() != null) {
+                out.name("origin").value(step.origin().toString());
+            }
+
+            out.name("path").value(lib.getPath().toString().replace('\\', '/'));
+            if (lib.getDownloadUrl() != null) {
+                out.name("url").value(lib.getDownloadUrl().toString());
+            }
+
+            if (lib.getSha1() != null) {
+                out.name("sha1").value(lib.getSha1());
+            }
+
+            if (lib.getSize() >= 0) {
+                out.name("size").value(lib.getSize());
+            }
+
+            if (lib.isNative()) {
+                out.name("native").value(true);
+                out.name("exclude").beginArray();
+                for (var prefix : lib.getExtractExclude()) {
+                    out.value(prefix);
+                }
+                out.endArray();
+            }
+
+            out.endObject();
+        }
+        out.endArray();
+        out.endObject();
+    }
+
+    @Override
+    public ExtractionPlan read(JsonReader in) throws IOException {
+        Path libraries = null, natives = null;
+        var steps = new ArrayList<PlanStep>();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "version" -> {
+                    var version = in.nextInt();
+                    if (version != FORMAT_VERSION) {
+                        throw new JsonParseException("Unsupported plan version " + version);
+                    }
+                }
+                case "libraries" -> libraries = path(in.nextString());
+                case "natives" -> natives = path(in.nextString());
+                case "steps" -> {
+                    in.beginArray();
+                    while (in.hasNext()) {
+                        steps.add(this.readStep(in));
+                    }
+                    in.endArray();
+                }
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+
+        if (libraries == null || natives == null) {
+            throw new JsonParseException("Plan misses libraries or natives folder");
+        }
+
+        return new ExtractionPlan(libraries, natives, steps);
+    }
+
+    private PlanStep readStep(JsonReader in) throws IOException {
+        String name = null, source = null, target = null, origin = null, path = null, url = null, sha1 = null;
+        long size = -1;
+        var isNative = false;
+        var exclude = new ArrayList<String>();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "name" -> name = in.nextString();
+                case "source" -> source = in.nextString();
+                case "target" -> target = in.nextString();
+                case "origin" -> origin = LibraryTypeAdapter.nextString(in);
+                case "path" -> path = in.nextString();
+                case "url" -> url = LibraryTypeAdapter.nextString(in);
+                case "sha1" -> sha1 = LibraryTypeAdapter.nextSha1(in);
+                case "size" -> size = LibraryTypeAdapter.nextLong(in);
+                case "native" -> {
+                    if (in.peek() != JsonToken.BOOLEAN) {
+                        throw new JsonParseException("Plan step field native is not boolean: " + in.peek() + " at " + in.getPath());
+                    }
+
+                    isNative = in.nextBoolean();
+                }
+                case "exclude" -> {
+                    in.beginArray();
+                    while (in.hasNext()) {
+                        exclude.add(in.nextString());
+                    }
+                    in.endArray();
+                }
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+
+        var coordinate = name == null ? null : ArtifactCoordinate.parse(name);
+        if (coordinate == null || source == null || target == null || path == null) {
+            throw new JsonParseException("Plan step is incomplete: " + name);
+        }
+
+        PlanStep.Source stepSource;
+        try {
+            stepSource = PlanStep.Source.valueOf(source.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new JsonParseException("Unknown plan step source: " + source, e);
+        }
+
+        var lib = new Dependency(coordinate.artifact(), coordinate.version(), path(path))
+                .setDownloadUrl(url)
+                .setSha1(sha1)
+                .setSize(size)
+                .setNative(isNative)
+                .setExtractExclude(List.copyOf(exclude));
+        try {
+            return new PlanStep(lib, stepSource, path(target), origin == null ? null : new URI(origin));
+        } catch (URISyntaxException e) {
+            throw new JsonParseException("Plan step origin is malformed: " + origin, e);
+        }
+    }
+
+    private static Path path(String value) {
+        try {
+            return Paths.get(value);
+        } catch (InvalidPathException e) {
+            throw new JsonParseException(e);
+        }
+    }
+}
@@ -0,0 +1,456 @@
+package thedarkdnktv.mclibextractor.gson;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import thedarkdnktv.mclibextractor.model.ArtifactCoordinate;
+import thedarkdnktv.mclibextractor.model.Library;
+import thedarkdnktv.mclibextractor.model.LibraryDownload;
+import thedarkdnktv.mclibextractor.model.Rule;
+import thedarkdnktv.mclibextractor.transfer.Checksums;
+
+import java.io.IOException;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Streaming reader of version JSON library entries, only fields used by the extractor are read,
+ * everything else is skipped without building a tree. Entries without {@code downloads}, like those
+ * of Fabric and Quilt declaring only {@code name} and repository {@code url}, get downloads derived
+ * from maven coordinate.
+ */
+public class LibraryTypeAdapter extends TypeAdapter<Library> {
+
+    /** repository of entries declaring neither downloads nor url, used by old vanilla versions */
+    public static final String DEFAULT_REPOSITORY = "https://libraries.minecraft.net/";
+
+    @Override
+    public Library read(JsonReader in) throws IOException {
+        if (in.peek() != JsonToken.BEGIN_OBJECT) {
+            in.skipValue();
+            return null;
+        }
+
+        var result = new LibraryFields();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "name" -> result.name = nextString(in);
+                case "url" -> result.repository = nextString(in);
+                case "sha1" -> result.sha1 = nextSha1(in);
+                case "size" -> result.size = nextLong(in);
+                case "downloads" -> this.readDownloads(in, result);
+                case "natives" -> this.readNatives(in, result);
+                case "extract" -> this.readExtract(in, result);
+                case "rules" -> this.readRules(in, result);
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+
+        if (result.name == null) {
+            return null;
+        }
+
+        if (result.artifact == null && result.classifiers.isEmpty()) {
+            this.deriveDownloads(result);
+            if (result.artifact == null && result.classifiers.isEmpty()) {
+                return null;
+            }
+        }
+
+        var library = new Library(result.name);
+        if (result.artifact != null) {
+            library.setPath(result.artifact.path());
+            library.setUrl(result.artifact.url());
+            library.setSha1(result.artifact.sha1());
+            library.setSize(result.artifact.size());
+        }
+
+        library.setNatives(result.natives);
+        library.setClassifiers(result.classifiers);
+        library.setExtractExclude(result.extractExclude);
+        library.setRules(result.rules);
+        return library;
+    }
+
+    /**
+     * Derives downloads from maven coordinate and repository, natives-only libraries get classifier jars only.
+     */
+    private void deriveDownloads(LibraryFields result) {
+        var repository = result.repository == null || result.repository.isBlank() ? DEFAULT_REPOSITORY : result.repository;
+        if (!repository.endsWith("/")) {
+            repository += "/";
+        }
+
+        try {
+            if (result.natives.isEmpty()) {
+                var path = ArtifactCoordinate.mavenPath(result.name, null);
+                if (path != null) {
+                    result.artifact = new LibraryDownload(Paths.get(path), repository + path, result.sha1, result.size);
+                }
+
+                return;
+            }
+
+            for (var classifier : result.natives.values()) {
+                // placeholder is replaced by platform bitness once natives are selected
+                for (var expanded : classifier.contains("${arch}")
+                        ? List.of(classifier.replace("${arch}", "32"), classifier.replace("${arch}", "64"))
+                        : List.of(classifier)) {
+                    var path = ArtifactCoordinate.mavenPath(result.name, expanded);
+                    if (path != null) {
+                        result.classifiers.put(expanded, new LibraryDownload(Paths.get(path), repository + path, null, -1));
+                    }
+                }
+            }
+        } catch (InvalidPathException e) {
+            throw new JsonParseException(e);
+        }
+    }
+
+    private void readDownloads(JsonReader in, LibraryFields result) throws IOException {
+        if (in.peek() != JsonToken.BEGIN_OBJECT) {
+            in.skipValue();
+            return;
+        }
+
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "artifact" -> result.artifact = this.readDownload(in);
+                case "classifiers" -> {
+                    if (in.peek() != JsonToken.BEGIN_OBJECT) {
+                        in.skipValue();
+                        continue;
+                    }
+
+                    in.beginObject();
+                    while (in.hasNext()) {
+                        var classifier = in.nextName();
+                        var download = this.readDownload(in);
+                        if (download != null) {
+                            result.classifiers.put(classifier, download);
+                        }
+                    }
+                    in.endObject();
+                }
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+    }
+
+    /**
+     * @return download or null if it has no path
+     */
+    private LibraryDownload readDownload(JsonReader in) throws IOException {
+        if (in.peek() != JsonToken.BEGIN_OBJECT) {
+            in.skipValue();
+            return null;
+        }
+
+        String path = null, url = null, sha1 = null;
+        long size = -1;
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "path" -> path = nextString(in);
+                case "url" -> url = nextString(in);
+                case "sha1" -> sha1 = nextSha1(in);
+                case "size" -> size = nextLong(in);
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+
+        if (path == null) {
+            return null;
+        }
+
+        try {
+            return new LibraryDownload(Paths.get(path), url, sha1, size);
+        } catch (InvalidPathException e) {
+            throw new JsonParseException(e);
+        }
+    }
+
+    private void readNatives(JsonReader in, LibraryFields result) throws IOException {
+        if (in.peek() != JsonToken.BEGIN_OBJECT) {
+            in.skipValue();
+            return;
+        }
+
+        in.beginObject();
+        while (in.hasNext()) {
+            var os = in.nextName();
+            var classifier = nextString(in);
+            if (classifier != null) {
+                result.natives.put(os, classifier);
+            }
+        }
+        in.endObject();
+    }
+
+    private void readExtract(JsonReader in, LibraryFields result) throws IOException {
+        if (in.peek() != JsonToken.BEGIN_OBJECT) {
+            in.skipValue();
+            return;
+        }
+
+        in.beginObject();
+        while (in.hasNext()) {
+            if ("exclude".equals(in.nextName()) && in.peek() == JsonToken.BEGIN_ARRAY) {
+                in.beginArray();
+                while (in.hasNext()) {
+                    var prefix = nextString(in);
+                    if (prefix != null) {
+                        result.extractExclude.add(prefix);
+                    }
+                }
+                in.endArray();
+            } else {
+                in.skipValue();
+            }
+        }
+        in.endObject();
+    }
+
+    private void readRules(JsonReader in, LibraryFields result) throws IOException {
+        if (in.peek() != JsonToken.BEGIN_ARRAY) {
+            in.skipValue();
+            return;
+        }
+
+        in.beginArray();
+        while (in.hasNext()) {
+            if (in.peek() != JsonToken.BEGIN_OBJECT) {
+                in.skipValue();
+                continue;
+            }
+
+            var action = Rule.Action.ALLOW;
+            Rule.OsCondition os = null;
+            var features = new HashMap<String, Boolean>();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "action" -> {
+                        var value = nextString(in);
+                        if (value != null) {
+                            try {
+                                action = Rule.Action.valueOf(value.toUpperCase(Locale.ROOT));
+                            } catch (IllegalArgumentException e) {
+                                throw new JsonParseException("Unknown rule action: " + value, e);
+                            }
+                        }
+                    }
+                    case "os" -> os = this.readOsCondition(in);
+                    case "features" -> {
+                        if (in.peek() != JsonToken.BEGIN_OBJECT) {
+                            in.skipValue();
+                            continue;
+                        }
+
+                        in.beginObject();
+                        while (in.hasNext()) {
+                            var name = in.nextName();
+                            if (in.peek() == JsonToken.BOOLEAN) {
+                                features.put(name, in.nextBoolean());
+                            } else {
+                                in.skipValue();
+                            }
+                        }
+                        in.endObject();
+                    }
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            result.rules.add(new Rule(action, os, features));
+        }
+        in.endArray();
+    }
+
+    private Rule.OsCondition readOsCondition(JsonReader in) throws IOException {
+        if (in.peek() != JsonToken.BEGIN_OBJECT) {
+            in.skipValue();
+            return null;
+        }
+
+        String name = null, arch = null, version = null;
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "name" -> name = nextString(in);
+                case "arch" -> arch = nextString(in);
+                case "version" -> version = nextString(in);
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+
+        try {
+            return new Rule.OsCondition(
+                    name,
+                    arch == null ? null : Rule.pattern(arch),
+                    version == null ? null : Rule.pattern(version));
+        } catch (PatternSyntaxException e) {
+            throw new JsonParseException(e);
+        }
+    }
+
+    @Override
+    public void write(JsonWriter out, Library value) throws IOException {
+        if (value == null) {
+            out.nullValue();
+            return;
+        }
+
+        out.beginObject();
+        out.name("name").value(value.getName());
+        if (value.getPath() != null || !value.getClassifiers().isEmpty()) {
+            out.name("downloads").beginObject();
+            if (value.getPath() != null) {
+                out.name("artifact");
+                writeDownload(out, new LibraryDownload(value.getPath(), value.getUrl(), value.getSha1(), value.getSize()));
+            }
+
+            if (!value.getClassifiers().isEmpty()) {
+                out.name("classifiers").beginObject();
+                for (var entry : value.getClassifiers().entrySet()) {
+                    out.name(entry.getKey());
+                    writeDownload(out, entry.getValue());
+                }
+                out.endObject();
+            }
+
+            out.endObject();
+        }
+
+        if (!value.getNatives().isEmpty()) {
+            out.name("natives").beginObject();
+            for (var entry : value.getNatives().entrySet()) {
+                out.name(entry.getKey()).value(entry.getValue());
+            }
+            out.endObject();
+        }
+
+        if (!value.getRules().isEmpty()) {
+            out.name("rules").beginArray();
+            for (var rule : value.getRules()) {
+                writeRule(out, rule);
+            }
+            out.endArray();
+        }
+
+        if (!value.getExtractExclude().isEmpty()) {
+            out.name("extract").beginObject();
+            out.name("exclude").beginArray();
+            for (var prefix : value.getExtractExclude()) {
+                out.value(prefix);
+            }
+            out.endArray();
+            out.endObject();
+        }
+
+        out.endObject();
+    }
+
+    private static void writeRule(JsonWriter out, Rule rule) throws IOException {
+        out.beginObject();
+        out.name("action").value(rule.action().name().toLowerCase(Locale.ROOT));
+        var os = rule.os();
+        if (os != null) {
+            out.name("os").beginObject();
+            if (os.name() != null) {
+                out.name("name").value(os.name());
+            }
+
+            if (os.arch() != null) {
+                out.name("arch").value(os.arch().pattern());
+            }
+
+            if (os.version() != null) {
+                out.name("version").value(os.version().pattern());
+            }
+
+            out.endObject();
+        }
+
+        if (!rule.features().isEmpty()) {
+            out.name("features").beginObject();
+            for (var feature : rule.features().entrySet()) {
+                out.name(feature.getKey()).value(feature.getValue());
+            }
+            out.endObject();
+        }
+
+        out.endObject();
+    }
+
+    private static void writeDownload(JsonWriter out, LibraryDownload download) throws IOException {
+        out.beginObject();
+        out.name("path").value(download.path().toString().replace('\\', '/'));
+        if (download.sha1() != null) {
+            out.name("sha1").value(download.sha1());
+        }
+
+        if (download.size() >= 0) {
+            out.name("size").value(download.size());
+        }
+
+        out.name("url").value(download.url());
+        out.endObject();
+    }
+
+    static String nextString(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+
+        return in.nextString();
+    }
+
+    /**
+     * Hashes name files of caches and stores, so anything else than hex SHA-1 is rejected.
+     */
+    static String nextSha1(JsonReader in) throws IOException {
+        var value = nextString(in);
+        if (value != null && !Checksums.isSha1(value)) {
+            throw new JsonParseException("Invalid SHA-1: " + value);
+        }
+
+        return value;
+    }
+
+    static long nextLong(JsonReader in) throws IOException {
+        if (in.peek() != JsonToken.NUMBER) {
+            in.skipValue();
+            return -1;
+        }
+
+        return in.nextLong();
+    }
+
+    private static class LibraryFields {
+        String name;
+        String repository;
+        String sha1;
+        long size = -1;
+        LibraryDownload artifact;
+        final Map<String, LibraryDownload> classifiers = new HashMap<>();
+        final Map<String, String> natives = new HashMap<>();
+        final List<String> extractExclude = new ArrayList<>();
+        final List<Rule> rules = new ArrayList<>();
+    }
+}
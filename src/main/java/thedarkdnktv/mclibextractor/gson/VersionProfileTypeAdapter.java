@@ -0,0 +1,137 @@
+package thedarkdnktv.mclibextractor.gson;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import thedarkdnktv.mclibextractor.model.AssetIndex;
+import thedarkdnktv.mclibextractor.model.Library;
+import thedarkdnktv.mclibextractor.model.VersionProfile;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.regex.Pattern;
+
+/**
+ * Streaming reader of version JSON, large sections like {@code arguments}, {@code logging}
+ * or {@code downloads} are skipped without materialising them.
+ */
+public class VersionProfileTypeAdapter extends TypeAdapter<VersionProfile> {
+
+    private static final Pattern ASSET_INDEX_ID = Pattern.compile("[\\w.-]+");
+
+    private final TypeAdapter<Library> libraryAdapter;
+
+    public VersionProfileTypeAdapter(TypeAdapter<Library> libraryAdapter) {
+        this.libraryAdapter = libraryAdapter;
+    }
+
+    @Override
+    public VersionProfile read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+
+        var result = new VersionProfile();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "id" -> result.setId(LibraryTypeAdapter.nextString(in));
+                case "inheritsFrom" -> result.setInheritsFrom(LibraryTypeAdapter.nextString(in));
+                case "libraries" -> {
+                    if (in.peek() != JsonToken.BEGIN_ARRAY) {
+                        in.skipValue();
+                        continue;
+                    }
+
+                    var libraries = new ArrayList<Library>();
+                    in.beginArray();
+                    while (in.hasNext()) {
+                        var library = libraryAdapter.read(in);
+                        if (library != null) {
+                            libraries.add(library);
+                        }
+                    }
+                    in.endArray();
+                    result.setLibraries(libraries);
+                }
+                case "assetIndex" -> result.setAssetIndex(this.readAssetIndex(in));
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        return result;
+    }
+
+    private AssetIndex readAssetIndex(JsonReader in) throws IOException {
+        if (in.peek() != JsonToken.BEGIN_OBJECT) {
+            in.skipValue();
+            return null;
+        }
+
+        String id = null, url = null, sha1 = null;
+        long size = -1, totalSize = -1;
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "id" -> id = LibraryTypeAdapter.nextString(in);
+                case "url" -> url = LibraryTypeAdapter.nextString(in);
+                case "sha1" -> sha1 = LibraryTypeAdapter.nextSha1(in);
+                case "size" -> size = LibraryTypeAdapter.nextLong(in);
+                case "totalSize" -> totalSize = LibraryTypeAdapter.nextLong(in);
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+
+        // id names the index file under assets/indexes
+        if (id != null && (!ASSET_INDEX_ID.matcher(id).matches() || id.replace(".", "").isEmpty())) {
+            throw new JsonParseException("Invalid asset index id: " + id);
+        }
+
+        return id == null ? null : new AssetIndex(id, url, sha1, size, totalSize);
+    }
+
+    @Override
+    public void write(JsonWriter out, VersionProfile value) throws IOException {
+        if (value == null) {
+            out.nullValue();
+            return;
+        }
+
+        out.beginObject();
+        out.name("id").value(value.getId());
+        if (value.getInheritsFrom() != null) {
+            out.name("inheritsFrom").value(value.getInheritsFrom());
+        }
+
+        var assetIndex = value.getAssetIndex();
+        if (assetIndex != null) {
+            out.name("assetIndex").beginObject();
+            out.name("id").value(assetIndex.id());
+            if (assetIndex.sha1() != null) {
+                out.name("sha1").value(assetIndex.sha1());
+            }
+
+            if (assetIndex.size() >= 0) {
+                out.name("size").value(assetIndex.size());
+            }
+
+            if (assetIndex.totalSize() >= 0) {
+                out.name("totalSize").value(assetIndex.totalSize());
+            }
+
+            out.name("url").value(assetIndex.url());
+            out.endObject();
+        }
+
+        out.name("libraries").beginArray();
+        for (var library : value.getLibraries()) {
+            libraryAdapter.write(out, library);
+        }
+        out.endArray();
+        out.endObject();
+    }
+}
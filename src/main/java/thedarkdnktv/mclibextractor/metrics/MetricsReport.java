@@ -0,0 +1,122 @@
+package thedarkdnktv.mclibextractor.metrics;
+
+import com.google.gson.stream.JsonWriter;
+import thedarkdnktv.mclibextractor.transfer.TransferOutcome;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * Writes run metrics as JSON or, for files ending with {@code .prom}, as Prometheus text exposition format.
+ */
+public final class MetricsReport {
+
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 1};
+
+    private MetricsReport() {}
+
+    public static void write(RunMetrics metrics, Path file) throws IOException {
+        var parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+
+        try (var writer = Files.newBufferedWriter(file)) {
+            if (file.getFileName().toString().endsWith(".prom")) {
+                writePrometheus(metrics, writer);
+            } else {
+                writeJson(metrics, writer);
+            }
+        }
+    }
+
+    public static void writeJson(RunMetrics metrics, Writer writer) throws IOException {
+        var json = new JsonWriter(writer);
+        json.setIndent("  ");
+        json.beginObject();
+        json.name("phases").beginObject();
+        for (var phase : metrics.getPhases().entrySet()) {
+            json.name(phase.getKey()).value(seconds(phase.getValue()));
+        }
+        json.endObject();
+
+        json.name("libraries").value(metrics.getCompleted());
+        json.name("bytes").value(metrics.getBytes());
+        json.name("outcomes").beginObject();
+        for (var outcome : TransferOutcome.values()) {
+            json.name(name(outcome)).value(metrics.count(outcome));
+        }
+        json.name("failed").value(metrics.count(null));
+        json.endObject();
+        json.name("downloadThroughput").value(metrics.getDownloadThroughput());
+        json.name("cacheHitRatio").value(metrics.getCacheHitRatio());
+
+        json.name("latency").beginObject();
+        for (var quantile : QUANTILES) {
+            json.name(quantile == 1 ? "max" : "p" + Math.round(quantile * 100)).value(seconds(metrics.latency(quantile)));
+        }
+        json.endObject();
+
+        json.name("samples").beginArray();
+        for (var sample : metrics.getLibraries()) {
+            json.beginObject();
+            json.name("name").value(sample.name());
+            json.name("outcome").value(sample.outcome() == null ? "failed" : name(sample.outcome()));
+            json.name("bytes").value(sample.bytes());
+            json.name("seconds").value(seconds(sample.nanos()));
+            json.endObject();
+        }
+        json.endArray();
+        json.endObject();
+        json.flush();
+    }
+
+    public static void writePrometheus(RunMetrics metrics, Writer writer) throws IOException {
+        writer.write("# HELP mclib_phase_seconds Time spent in extraction phase.\n");
+        writer.write("# TYPE mclib_phase_seconds gauge\n");
+        for (var phase : metrics.getPhases().entrySet()) {
+            writer.write("mclib_phase_seconds{phase=\"" + phase.getKey() + "\"} " + seconds(phase.getValue()) + "\n");
+        }
+
+        writer.write("# HELP mclib_libraries Libraries processed by outcome.\n");
+        writer.write("# TYPE mclib_libraries gauge\n");
+        for (var outcome : TransferOutcome.values()) {
+            writer.write("mclib_libraries{outcome=\"" + name(outcome) + "\"} " + metrics.count(outcome) + "\n");
+        }
+        writer.write("mclib_libraries{outcome=\"failed\"} " + metrics.count(null) + "\n");
+
+        writer.write("# HELP mclib_bytes Bytes placed into libraries folder.\n");
+        writer.write("# TYPE mclib_bytes gauge\n");
+        writer.write("mclib_bytes " + metrics.getBytes() + "\n");
+        writer.write("# HELP mclib_download_throughput_bytes_per_second Bytes downloaded per second of transfer phase.\n");
+        writer.write("# TYPE mclib_download_throughput_bytes_per_second gauge\n");
+        writer.write("mclib_download_throughput_bytes_per_second " + metrics.getDownloadThroughput() + "\n");
+        writer.write("# HELP mclib_cache_hit_ratio Share of remote libraries served by download cache.\n");
+        writer.write("# TYPE mclib_cache_hit_ratio gauge\n");
+        writer.write("mclib_cache_hit_ratio " + metrics.getCacheHitRatio() + "\n");
+
+        writer.write("# HELP mclib_library_seconds Library transfer latency.\n");
+        writer.write("# TYPE mclib_library_seconds summary\n");
+        long total = 0;
+        for (var sample : metrics.getLibraries()) {
+            total += sample.nanos();
+        }
+
+        for (var quantile : QUANTILES) {
+            writer.write("mclib_library_seconds{quantile=\"" + quantile + "\"} " + seconds(metrics.latency(quantile)) + "\n");
+        }
+        writer.write("mclib_library_seconds_sum " + seconds(total) + "\n");
+        writer.write("mclib_library_seconds_count " + metrics.getCompleted() + "\n");
+    }
+
+    private static String name(TransferOutcome outcome) {
+        return outcome.name().toLowerCase(Locale.ROOT);
+    }
+
+    private static double seconds(long nanos) {
+        return nanos / 1e9;
+    }
+}
@@ -0,0 +1,111 @@
+package thedarkdnktv.mclibextractor.metrics;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Redraws single console line with transfer progress of run metrics. While the bar is shown, {@code System.out}
+ * is replaced by a stream clearing the bar before anything else is printed, so messages of transfer threads
+ * start on a clean line and the bar is drawn again below them.
+ */
+public class ProgressBar implements AutoCloseable {
+
+    private static final int WIDTH = 30;
+
+    private final RunMetrics metrics;
+    private final PrintStream out;
+    private final PrintStream previous;
+    private final ScheduledExecutorService timer;
+    private final long started = System.nanoTime();
+    /** length of the bar on the current line, 0 if it is not drawn */
+    private int drawn;
+    /** other output left its last line unfinished, the bar waits for it */
+    private boolean lineOpen;
+
+    public ProgressBar(RunMetrics metrics, PrintStream out) {
+        this.metrics = metrics;
+        this.out = out;
+        this.previous = System.out;
+        System.setOut(new PrintStream(new ClearingStream(), true));
+        this.timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            var thread = new Thread(runnable, "progress");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.timer.scheduleAtFixedRate(this::draw, 0, 200, TimeUnit.MILLISECONDS);
+    }
+
+    private synchronized void draw() {
+        if (lineOpen) {
+            return;
+        }
+
+        var expected = Math.max(1, metrics.getExpected());
+        var completed = metrics.getCompleted();
+        var filled = (int) ((long) WIDTH * completed / expected);
+        var seconds = Math.max(1e-3, (System.nanoTime() - started) / 1e9);
+        var bytes = metrics.getBytes();
+        var line = String.format("[%s%s] %d/%d libraries, %.1f MB, %.1f MB/s ",
+                "#".repeat(filled),
+                ".".repeat(WIDTH - filled),
+                completed,
+                metrics.getExpected(),
+                bytes / 1e6,
+                bytes / 1e6 / seconds);
+        out.print("\r" + line + " ".repeat(Math.max(0, drawn - line.length())));
+        out.flush();
+        drawn = line.length();
+    }
+
+    private synchronized void write(byte[] b, int off, int len) {
+        if (len == 0) {
+            return;
+        }
+
+        if (drawn > 0) {
+            out.print("\r" + " ".repeat(drawn) + "\r");
+            drawn = 0;
+        }
+
+        out.write(b, off, len);
+        out.flush();
+        lineOpen = b[off + len - 1] != '\n';
+    }
+
+    @Override
+    public void close() {
+        timer.shutdownNow();
+        try {
+            timer.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        System.setOut(this.previous);
+        synchronized (this) {
+            if (lineOpen) {
+                out.println();
+                lineOpen = false;
+            }
+
+            this.draw();
+            out.println();
+        }
+    }
+
+    private class ClearingStream extends OutputStream {
+
+        @Override
+        public void write(int b) {
+            ProgressBar.this.write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            ProgressBar.this.write(b, off, len);
+        }
+    }
+}
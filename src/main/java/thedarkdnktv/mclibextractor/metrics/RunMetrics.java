@@ -0,0 +1,134 @@
+package thedarkdnktv.mclibextractor.metrics;
+
+import thedarkdnktv.mclibextractor.transfer.TransferOutcome;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measurements of one extraction run, safe to update from transfer threads.
+ */
+public class RunMetrics {
+
+    public static final String PHASE_SETTINGS = "settings";
+    public static final String PHASE_PARSE = "parse";
+    public static final String PHASE_RESOLVE = "resolve";
+    public static final String PHASE_PLAN = "plan";
+    public static final String PHASE_TRANSFER = "transfer";
+    public static final String PHASE_ASSETS = "assets";
+
+    private final Map<String, LongAdder> phases = Collections.synchronizedMap(new LinkedHashMap<>());
+    private final Queue<LibrarySample> libraries = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger expected = new AtomicInteger();
+    private final AtomicInteger completed = new AtomicInteger();
+    private final LongAdder bytes = new LongAdder();
+
+    /**
+     * @param outcome null if transfer failed
+     */
+    public record LibrarySample(
+        String name,
+        TransferOutcome outcome,
+        long bytes,
+        long nanos
+    ) {}
+
+    /**
+     * Adds time spent in phase, phases entered several times are summed up.
+     */
+    public void addPhase(String phase, long nanos) {
+        phases.computeIfAbsent(phase, key -> new LongAdder()).add(nanos);
+    }
+
+    public Map<String, Long> getPhases() {
+        synchronized (phases) {
+            var result = new LinkedHashMap<String, Long>();
+            phases.forEach((phase, nanos) -> result.put(phase, nanos.sum()));
+            return result;
+        }
+    }
+
+    public void expectLibraries(int count) {
+        expected.addAndGet(count);
+    }
+
+    public void addLibrary(LibrarySample sample) {
+        libraries.add(sample);
+        bytes.add(sample.bytes());
+        completed.incrementAndGet();
+    }
+
+    public List<LibrarySample> getLibraries() {
+        return List.copyOf(libraries);
+    }
+
+    public int getExpected() {
+        return expected.get();
+    }
+
+    public int getCompleted() {
+        return completed.get();
+    }
+
+    public long getBytes() {
+        return bytes.sum();
+    }
+
+    /**
+     * Downloads run concurrently, so their latencies overlap and can not be summed up. Downloaded bytes are divided
+     * by wall-clock time of {@link #PHASE_TRANSFER} instead, which also includes local copies done meanwhile.
+     *
+     * @return downloaded bytes per second of transfer phase, 0 without downloads or transfer phase
+     */
+    public double getDownloadThroughput() {
+        long bytes = 0;
+        for (var sample : libraries) {
+            if (sample.outcome() == TransferOutcome.DOWNLOADED) {
+                bytes += sample.bytes();
+            }
+        }
+
+        var transfer = phases.get(PHASE_TRANSFER);
+        var nanos = transfer == null ? 0 : transfer.sum();
+        return nanos == 0 ? 0 : bytes * 1e9 / nanos;
+    }
+
+    /**
+     * @return share of libraries taken from download cache among those not found locally, 0 if there are none
+     */
+    public double getCacheHitRatio() {
+        var hits = this.count(TransferOutcome.CACHED);
+        var total = hits + this.count(TransferOutcome.DOWNLOADED);
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    public int count(TransferOutcome outcome) {
+        var result = 0;
+        for (var sample : libraries) {
+            if (sample.outcome() == outcome) {
+                result ++;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * @param quantile between 0 and 1
+     * @return library transfer latency at given quantile in nanoseconds, 0 without libraries
+     */
+    public long latency(double quantile) {
+        var nanos = libraries.stream()
+                .mapToLong(LibrarySample::nanos)
+                .sorted()
+                .toArray();
+        if (nanos.length == 0) {
+            return 0;
+        }
+
+        var index = (int) Math.ceil(quantile * nanos.length) - 1;
+        return nanos[Math.max(0, Math.min(nanos.length - 1, index))];
+    }
+}
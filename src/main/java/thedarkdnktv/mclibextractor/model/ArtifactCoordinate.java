@@ -0,0 +1,92 @@
+package thedarkdnktv.mclibextractor.model;
+
+import org.apache.maven.artifact.versioning.ComparableVersion;
+
+/**
+ * Parsed {@code group:id:version[:classifier][@extension]} library name, extension is not a part of coordinate.
+ * Versions are mutable, so every coordinate gets its own instance.
+ */
+public record ArtifactCoordinate(
+    MavenArtifact artifact,
+    ComparableVersion version
+) {
+
+    /**
+     * Derives maven repository path of {@code group:id:version[:classifier][@extension]} name, used by libraries
+     * declaring only name and repository URL, like those of Fabric and Quilt.
+     *
+     * @param classifier classifier overriding the one of the name, may be null
+     * @return relative path with {@code /} separators or null if name has not 3 or 4 non-empty parts
+     */
+    public static String mavenPath(String name, String classifier) {
+        var extension = "jar";
+        var at = name.lastIndexOf('@');
+        if (at >= 0) {
+            extension = name.substring(at + 1);
+            name = name.substring(0, at);
+        }
+
+        var parts = name.split(":", -1);
+        if (parts.length < 3 || parts.length > 4 || extension.isEmpty()) {
+            return null;
+        }
+
+        for (var part : parts) {
+            if (part.isEmpty()) {
+                return null;
+            }
+        }
+
+        if (classifier == null && parts.length == 4) {
+            classifier = parts[3];
+        }
+
+        return parts[0].replace('.', '/') + '/' + parts[1] + '/' + parts[2] + '/'
+                + parts[1] + '-' + parts[2] + (classifier == null ? "" : "-" + classifier) + '.' + extension;
+    }
+
+    /**
+     * @return new version instance, not shared with anybody else
+     */
+    public static ComparableVersion version(String version) {
+        return new ComparableVersion(version);
+    }
+
+    /**
+     * @return parsed coordinate or null if name has not 3 or 4 non-empty parts
+     */
+    public static ArtifactCoordinate parse(String name) {
+        var extension = name.lastIndexOf('@');
+        if (extension > name.lastIndexOf(':')) {
+            name = name.substring(0, extension);
+        }
+
+        var first = name.indexOf(':');
+        if (first <= 0) {
+            return null;
+        }
+
+        var second = name.indexOf(':', first + 1);
+        if (second <= first + 1) {
+            return null;
+        }
+
+        var third = name.indexOf(':', second + 1);
+        var versionEnd = third < 0 ? name.length() : third;
+        if (versionEnd <= second + 1) {
+            return null;
+        }
+
+        String classifier = null;
+        if (third >= 0) {
+            if (third == name.length() - 1 || name.indexOf(':', third + 1) >= 0) {
+                return null;
+            }
+
+            classifier = name.substring(third + 1);
+        }
+
+        var artifact = MavenArtifact.of(name.substring(0, first), name.substring(first + 1, second), classifier);
+        return new ArtifactCoordinate(artifact, version(name.substring(second + 1, versionEnd)));
+    }
+}
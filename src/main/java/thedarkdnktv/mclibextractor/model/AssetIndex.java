@@ -0,0 +1,14 @@
+package thedarkdnktv.mclibextractor.model;
+
+/**
+ * {@code assetIndex} of version JSON, the index itself lives at {@code assets/indexes/<id>.json}.
+ *
+ * @param totalSize size of all objects referenced by the index, -1 if unknown
+ */
+public record AssetIndex(
+    String id,
+    String url,
+    String sha1,
+    long size,
+    long totalSize
+) {}
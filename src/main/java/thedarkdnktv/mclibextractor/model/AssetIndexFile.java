@@ -0,0 +1,15 @@
+package thedarkdnktv.mclibextractor.model;
+
+import java.util.List;
+
+/**
+ * Parsed asset index, objects are unique by hash even if the index maps several names to the same content.
+ *
+ * @param names     number of named entries of the index
+ * @param legacy    index asks for copies by name ({@code virtual} or {@code map_to_resources}), used by pre 1.7 versions
+ */
+public record AssetIndexFile(
+    List<AssetObject> objects,
+    int names,
+    boolean legacy
+) {}
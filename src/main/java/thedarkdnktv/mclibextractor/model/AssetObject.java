@@ -0,0 +1,29 @@
+package thedarkdnktv.mclibextractor.model;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.regex.Pattern;
+
+/**
+ * Asset file stored under {@code assets/objects} by its SHA-1, names of the index are not needed to copy it.
+ */
+public record AssetObject(
+    String hash,
+    long size
+) {
+
+    private static final Pattern HASH = Pattern.compile("[0-9a-fA-F]{40}");
+
+    public AssetObject {
+        if (hash == null || !HASH.matcher(hash).matches()) {
+            throw new IllegalArgumentException("Invalid asset hash: " + hash);
+        }
+    }
+
+    /**
+     * @return path relative to {@code assets/objects}
+     */
+    public Path path() {
+        return Paths.get(hash.substring(0, 2), hash);
+    }
+}
@@ -1,14 +1,13 @@
 package thedarkdnktv.mclibextractor.model;
 
 import org.apache.commons.lang3.StringUtils;
-import org.apache.commons.lang3.builder.EqualsBuilder;
-import org.apache.commons.lang3.builder.HashCodeBuilder;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.maven.artifact.versioning.ComparableVersion;
 
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.nio.file.Path;
+import java.util.List;
 import java.util.Map;
 
 public class Dependency implements Comparable<Dependency> {
@@ -17,7 +16,10 @@ public class Dependency implements Comparable<Dependency> {
     private ComparableVersion version;
     private URL downloadUrl;
     private Path path;
+    private String sha1;
+    private long size = -1;
     private boolean isNative;
+    private List<String> extractExclude = List.of();
 
     public Dependency(Map.Entry<MavenArtifact, Pair<ComparableVersion, Path>> entry) {
         this(entry.getKey(), entry.getValue().getKey(), entry.getValue().getValue());
@@ -37,6 +39,14 @@ public class Dependency implements Comparable<Dependency> {
         return artifact;
     }
 
+    /**
+     * @return library name as in version JSON, {@code group:id:version[:classifier]}
+     */
+    public String getName() {
+        var result = artifact.group() + ":" + artifact.id() + ":" + version;
+        return artifact.type() == null ? result : result + ":" + artifact.type();
+    }
+
     public ComparableVersion getVersion() {
         return version;
     }
@@ -69,6 +79,24 @@ public class Dependency implements Comparable<Dependency> {
         this.path = path;
     }
 
+    public String getSha1() {
+        return sha1;
+    }
+
+    public Dependency setSha1(String sha1) {
+        this.sha1 = StringUtils.isNotBlank(sha1) ? sha1 : null;
+        return this;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public Dependency setSize(long size) {
+        this.size = size;
+        return this;
+    }
+
     public boolean isNative() {
         return isNative;
     }
@@ -78,6 +106,15 @@ public class Dependency implements Comparable<Dependency> {
         return this;
     }
 
+    public List<String> getExtractExclude() {
+        return extractExclude;
+    }
+
+    public Dependency setExtractExclude(List<String> extractExclude) {
+        this.extractExclude = List.copyOf(extractExclude);
+        return this;
+    }
+
     @Override
     public int compareTo(Dependency o) {
         return this.version.compareTo(o.version);
@@ -88,15 +125,11 @@ public class Dependency implements Comparable<Dependency> {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Dependency that = (Dependency) o;
-        return new EqualsBuilder()
-                .append(artifact, that.artifact)
-                .isEquals();
+        return artifact.equals(that.artifact);
     }
 
     @Override
     public int hashCode() {
-        return new HashCodeBuilder(17, 37)
-                .append(artifact)
-                .toHashCode();
+        return artifact.hashCode();
     }
 }
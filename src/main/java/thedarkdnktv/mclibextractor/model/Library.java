@@ -1,13 +1,20 @@
 package thedarkdnktv.mclibextractor.model;
 
 import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
 
 public class Library {
 
     private final String name;
     private Path path;
     private String url;
-    private boolean isNative = false;
+    private String sha1;
+    private long size = -1;
+    private Map<String, String> natives = Map.of();
+    private Map<String, LibraryDownload> classifiers = Map.of();
+    private List<String> extractExclude = List.of();
+    private List<Rule> rules = List.of();
 
     public Library(String name) {
         this(name, null, null);
@@ -39,12 +46,60 @@ public class Library {
         this.url = url;
     }
 
-    public boolean isNative() {
-        return isNative;
+    public String getSha1() {
+        return sha1;
     }
 
-    public Library setNative(boolean aNative) {
-        isNative = aNative;
-        return this;
+    public void setSha1(String sha1) {
+        this.sha1 = sha1;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public void setSize(long size) {
+        this.size = size;
+    }
+
+    /**
+     * @return native classifier by OS name, classifier may contain {@code ${arch}} placeholder
+     */
+    public Map<String, String> getNatives() {
+        return natives;
+    }
+
+    public void setNatives(Map<String, String> natives) {
+        this.natives = Map.copyOf(natives);
+    }
+
+    public Map<String, LibraryDownload> getClassifiers() {
+        return classifiers;
+    }
+
+    public void setClassifiers(Map<String, LibraryDownload> classifiers) {
+        this.classifiers = Map.copyOf(classifiers);
+    }
+
+    /**
+     * @return entry name prefixes not to be extracted from native jar
+     */
+    public List<String> getExtractExclude() {
+        return extractExclude;
+    }
+
+    public void setExtractExclude(List<String> extractExclude) {
+        this.extractExclude = List.copyOf(extractExclude);
+    }
+
+    /**
+     * @return rules deciding on which platforms library is used, empty if always used
+     */
+    public List<Rule> getRules() {
+        return rules;
+    }
+
+    public void setRules(List<Rule> rules) {
+        this.rules = List.copyOf(rules);
     }
 }
@@ -0,0 +1,13 @@
+package thedarkdnktv.mclibextractor.model;
+
+import java.nio.file.Path;
+
+/**
+ * Downloadable file of a library, either main artifact or one of classifiers.
+ */
+public record LibraryDownload(
+    Path path,
+    String url,
+    String sha1,
+    long size
+) {}
@@ -1,33 +1,71 @@
 package thedarkdnktv.mclibextractor.model;
 
-import org.apache.commons.lang3.builder.EqualsBuilder;
-import org.apache.commons.lang3.builder.HashCodeBuilder;
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
 
-public record MavenArtifact(
-    String group,
-    String id,
-    String type
-) {
+/**
+ * Version-less maven coordinate, obtain instances with {@link #of(String, String, String)}. Equal instances in use
+ * at the same time are shared, interned ones are dropped once nothing refers to them.
+ */
+public final class MavenArtifact {
+
+    private static final Map<MavenArtifact, WeakReference<MavenArtifact>> INTERNED = new WeakHashMap<>();
+
+    private final String group;
+    private final String id;
+    private final String type;
+    private final int hash;
+
+    private MavenArtifact(String group, String id, String type) {
+        this.group = Objects.requireNonNull(group);
+        this.id = Objects.requireNonNull(id);
+        this.type = type;
+        this.hash = 31 * (31 * group.hashCode() + id.hashCode()) + Objects.hashCode(type);
+    }
+
+    public static MavenArtifact of(String group, String id, String type) {
+        var artifact = new MavenArtifact(group, id, type);
+        synchronized (INTERNED) {
+            var existing = INTERNED.get(artifact);
+            var interned = existing == null ? null : existing.get();
+            if (interned != null) {
+                return interned;
+            }
+
+            INTERNED.put(artifact, new WeakReference<>(artifact));
+        }
+
+        return artifact;
+    }
+
+    public String group() {
+        return group;
+    }
+
+    public String id() {
+        return id;
+    }
+
+    public String type() {
+        return type;
+    }
 
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         MavenArtifact that = (MavenArtifact) o;
-        return new EqualsBuilder()
-            .append(group, that.group)
-            .append(id, that.id)
-            .append(type, that.type)
-            .isEquals();
+        return hash == that.hash
+                && group.equals(that.group)
+                && id.equals(that.id)
+                && Objects.equals(type, that.type);
     }
 
     @Override
     public int hashCode() {
-        return new HashCodeBuilder(17, 37)
-            .append(group)
-            .append(id)
-            .append(type)
-            .toHashCode();
+        return hash;
     }
 
     @Override
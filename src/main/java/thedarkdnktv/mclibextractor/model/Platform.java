@@ -0,0 +1,80 @@
+package thedarkdnktv.mclibextractor.model;
+
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Target platform libraries are resolved for. Operating system is named as by version JSON:
+ * {@code windows}, {@code osx} or {@code linux}, features are names of enabled rule features.
+ */
+public record Platform(
+    String os,
+    String arch,
+    String version,
+    Set<String> features
+) {
+
+    private static final Platform CURRENT = new Platform(
+            osName(System.getProperty("os.name")),
+            System.getProperty("os.arch"),
+            System.getProperty("os.version"),
+            Set.of());
+
+    public Platform {
+        features = Set.copyOf(features);
+    }
+
+    public static Platform current() {
+        return CURRENT;
+    }
+
+    /**
+     * Parses {@code os[:arch[:version]]}, missing architecture is the current one, missing version is empty.
+     *
+     * @throws IllegalArgumentException if OS name is empty or there are more parts
+     */
+    public static Platform parse(String value) {
+        var parts = value.split(":", -1);
+        if (parts.length > 3 || parts[0].isBlank()) {
+            throw new IllegalArgumentException("Platform must be os[:arch[:version]], got: " + value);
+        }
+
+        return new Platform(
+                osName(parts[0]),
+                parts.length > 1 && !parts[1].isEmpty() ? parts[1] : CURRENT.arch(),
+                parts.length > 2 ? parts[2] : "",
+                Set.of());
+    }
+
+    public Platform withFeatures(Set<String> features) {
+        return new Platform(os, arch, version, features);
+    }
+
+    /**
+     * @return {@code 64} or {@code 32}, substituted for {@code ${arch}} in native classifiers
+     */
+    public String bitness() {
+        return arch.contains("64") ? "64" : "32";
+    }
+
+    /**
+     * @return stable string identifying the platform, libraries resolved for equal keys are the same
+     */
+    public String key() {
+        return os + ":" + arch + ":" + version + ":" + String.join(",", new TreeSet<>(features));
+    }
+
+    static String osName(String name) {
+        name = name.toLowerCase(Locale.ROOT);
+        if (name.startsWith("windows")) {
+            return "windows";
+        }
+
+        if (name.startsWith("mac") || name.startsWith("darwin") || name.equals("osx")) {
+            return "osx";
+        }
+
+        return name.contains("linux") || name.contains("nix") ? "linux" : name;
+    }
+}
@@ -0,0 +1,86 @@
+package thedarkdnktv.mclibextractor.model;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Pattern;
+
+/**
+ * Version JSON rule, applies when every present condition matches the platform.
+ * Rules are evaluated in order and the last applying one decides, with no applying rule the library is disallowed.
+ */
+public record Rule(
+    Action action,
+    OsCondition os,
+    Map<String, Boolean> features
+) {
+
+    private static final ConcurrentMap<String, Pattern> PATTERNS = new ConcurrentHashMap<>();
+
+    public enum Action {
+        ALLOW,
+        DISALLOW
+    }
+
+    /**
+     * @param name    exact OS name, null matches any
+     * @param arch    pattern matching the whole architecture, null matches any
+     * @param version pattern found in OS version, null matches any
+     */
+    public record OsCondition(
+        String name,
+        Pattern arch,
+        Pattern version
+    ) {
+
+        public boolean matches(Platform platform) {
+            return (name == null || name.equals(platform.os()))
+                    && (arch == null || arch.matcher(platform.arch()).matches())
+                    && (version == null || version.matcher(platform.version()).find());
+        }
+    }
+
+    public Rule {
+        features = features == null ? Map.of() : Map.copyOf(features);
+    }
+
+    /**
+     * @return true if libraries guarded by given rules should be used on given platform, empty rules always allow
+     */
+    public static boolean isAllowed(List<Rule> rules, Platform platform) {
+        if (rules.isEmpty()) {
+            return true;
+        }
+
+        var allowed = false;
+        for (var rule : rules) {
+            if (rule.appliesTo(platform)) {
+                allowed = rule.action() == Action.ALLOW;
+            }
+        }
+
+        return allowed;
+    }
+
+    public boolean appliesTo(Platform platform) {
+        if (os != null && !os.matches(platform)) {
+            return false;
+        }
+
+        for (var feature : features.entrySet()) {
+            if (platform.features().contains(feature.getKey()) != feature.getValue()) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * @return compiled pattern, rules of many libraries usually share a few patterns
+     */
+    public static Pattern pattern(String regex) {
+        return PATTERNS.computeIfAbsent(regex, Pattern::compile);
+    }
+}
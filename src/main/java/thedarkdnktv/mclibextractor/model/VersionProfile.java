@@ -8,6 +8,7 @@ public class VersionProfile {
     private String id;
     private String inheritsFrom;
     private List<Library> libraries = new ArrayList<>();
+    private AssetIndex assetIndex;
 
     public String getId() {
         return id;
@@ -32,4 +33,15 @@ public class VersionProfile {
     public void setLibraries(List<Library> libraries) {
         this.libraries = libraries;
     }
+
+    /**
+     * @return asset index declared by this version file, null if it inherits the one of its parent
+     */
+    public AssetIndex getAssetIndex() {
+        return assetIndex;
+    }
+
+    public void setAssetIndex(AssetIndex assetIndex) {
+        this.assetIndex = assetIndex;
+    }
 }
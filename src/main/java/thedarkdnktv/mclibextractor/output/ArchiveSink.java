@@ -0,0 +1,213 @@
+package thedarkdnktv.mclibextractor.output;
+
+import org.apache.commons.compress.archivers.ArchiveEntry;
+import org.apache.commons.compress.archivers.ArchiveOutputStream;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipFile;
+
+/**
+ * Single {@code .zip} or {@code .tar.gz} archive with the same layout as directory output:
+ * {@code libraries/<path>}, {@code natives/<entry>} and {@code assets}. Entries may be added from several threads,
+ * they are written one at a time, every name is written once. Archive is written into temporary file moved over
+ * the target by {@link #commit()}, closing the sink without commit deletes it and leaves the target untouched.
+ */
+public class ArchiveSink implements OutputSink {
+
+    public static final String LIBRARIES = "libraries/";
+    public static final String NATIVES = "natives/";
+    public static final String ASSETS = "assets/";
+
+    private static final Path NATIVES_ROOT = Paths.get("natives");
+
+    private final Path file;
+    private final Path temp;
+    private final ArchiveOutputStream<? extends ArchiveEntry> out;
+    private final boolean zip;
+    private final boolean storeJars;
+    private final Set<String> names = new HashSet<>();
+    private boolean finished;
+
+    /**
+     * @param storeJars write jars of zip archive uncompressed, they are compressed already
+     */
+    public ArchiveSink(Path file, boolean storeJars) throws IOException {
+        this.file = file;
+        this.temp = file.resolveSibling(file.getFileName() + ".tmp");
+        this.storeJars = storeJars;
+        var name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        var parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+
+        if (name.endsWith(".zip")) {
+            this.zip = true;
+            // seekable output lets stored entries be written without computing CRC up front
+            this.out = new ZipArchiveOutputStream(temp);
+        } else if (name.endsWith(".tar.gz") || name.endsWith(".tgz")) {
+            this.zip = false;
+            var tar = new TarArchiveOutputStream(new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)), 64 * 1024));
+            tar.setLongFileMode(TarArchiveOutputStream.LONGFILE_POSIX);
+            tar.setBigNumberMode(TarArchiveOutputStream.BIGNUMBER_POSIX);
+            this.out = tar;
+        } else {
+            throw new IllegalArgumentException("Archive has to end with .zip, .tar.gz or .tgz: " + file);
+        }
+    }
+
+    public static boolean isSupported(Path file) {
+        var name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        return name.endsWith(".zip") || name.endsWith(".tar.gz") || name.endsWith(".tgz");
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Adds library file as {@code libraries/<path>}.
+     */
+    @Override
+    public void addLibrary(Path path, Path source) throws IOException {
+        this.addFile(LIBRARIES + path.toString().replace('\\', '/'), source);
+    }
+
+    /**
+     * Adds file under given archive name, like {@code assets/objects/<prefix>/<hash>}.
+     *
+     * @return false if the name was added already, the file is skipped then
+     */
+    public boolean addFile(String name, Path source) throws IOException {
+        var size = Files.size(source);
+        var lastModified = Files.getLastModifiedTime(source);
+        try (var in = Files.newInputStream(source)) {
+            synchronized (this) {
+                if (names.contains(name)) {
+                    return false;
+                }
+
+                this.write(name, size, lastModified, in);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Adds entries of native jar as {@code natives/<entry>}, entries already added by another jar are skipped.
+     *
+     * @return number of entries added
+     */
+    @Override
+    public int addNatives(Path jar, List<String> exclude) throws IOException {
+        var added = 0;
+        try (var zip = new ZipFile(jar.toFile())) {
+            var entries = zip.entries();
+            while (entries.hasMoreElements()) {
+                var entry = entries.nextElement();
+                if (entry.isDirectory() || exclude.stream().anyMatch(entry.getName()::startsWith)) {
+                    continue;
+                }
+
+                var target = NATIVES_ROOT.resolve(entry.getName()).normalize();
+                if (!target.startsWith(NATIVES_ROOT) || target.equals(NATIVES_ROOT)) {
+                    throw new IOException("Entry " + entry.getName() + " of " + jar + " points outside of natives folder");
+                }
+
+                var name = NATIVES + NATIVES_ROOT.relativize(target).toString().replace('\\', '/');
+
+                try (var in = zip.getInputStream(entry)) {
+                    synchronized (this) {
+                        if (!names.contains(name)) {
+                            this.write(name, entry.getSize(), entry.getLastModifiedTime(), in);
+                            added ++;
+                        }
+                    }
+                }
+            }
+        }
+
+        return added;
+    }
+
+    private void write(String name, long size, FileTime lastModified, InputStream in) throws IOException {
+        if (finished) {
+            throw new IllegalStateException("Archive is finished already: " + file);
+        }
+
+        if (zip) {
+            var entry = new ZipArchiveEntry(name);
+            entry.setMethod(storeJars && name.endsWith(".jar") ? ZipArchiveEntry.STORED : ZipArchiveEntry.DEFLATED);
+            if (lastModified != null) {
+                entry.setLastModifiedTime(lastModified);
+            }
+
+            ((ZipArchiveOutputStream) out).putArchiveEntry(entry);
+        } else {
+            var entry = new TarArchiveEntry(name);
+            entry.setSize(size);
+            if (lastModified != null) {
+                entry.setLastModifiedTime(lastModified);
+            }
+
+            ((TarArchiveOutputStream) out).putArchiveEntry(entry);
+        }
+
+        in.transferTo(out);
+        out.closeArchiveEntry();
+        names.add(name);
+    }
+
+    /**
+     * Finishes archive and moves it over the target file, call it once everything was added successfully.
+     */
+    public synchronized void commit() throws IOException {
+        if (finished) {
+            throw new IllegalStateException("Archive is finished already: " + file);
+        }
+
+        finished = true;
+        try {
+            out.finish();
+        } finally {
+            out.close();
+        }
+
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Deletes unfinished archive unless it was committed, target file is kept as it was then.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (finished) {
+            return;
+        }
+
+        finished = true;
+        try {
+            out.close();
+        } catch (IOException e) {
+            // entry left open by failed write, the archive is discarded anyway
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package thedarkdnktv.mclibextractor.output;
+
+import thedarkdnktv.mclibextractor.transfer.LibraryTransfer;
+import thedarkdnktv.mclibextractor.transfer.PlanStep;
+import thedarkdnktv.mclibextractor.transfer.TransferAction;
+import thedarkdnktv.mclibextractor.transfer.TransferEngine;
+import thedarkdnktv.mclibextractor.transfer.TransferOutcome;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Streams planned libraries into archive or another sink instead of libraries folder, content is read straight from
+ * MC folder, store or cache; downloads without cache go through temporary file.
+ */
+public class ArchiveTransfer implements TransferAction<PlanStep> {
+
+    private final LibraryTransfer transfer;
+    private final OutputSink sink;
+    private final AtomicInteger natives = new AtomicInteger();
+
+    public ArchiveTransfer(LibraryTransfer transfer, OutputSink sink) {
+        this.transfer = transfer;
+        this.sink = sink;
+    }
+
+    @Override
+    public TransferOutcome transfer(PlanStep step, TransferEngine engine) throws IOException {
+        var lib = step.library();
+        try (var fetched = this.transfer.fetch(step, engine)) {
+            engine.onDisk(() -> {
+                this.sink.addLibrary(lib.getPath(), fetched.file());
+                if (lib.isNative()) {
+                    this.natives.addAndGet(this.sink.addNatives(fetched.file(), lib.getExtractExclude()));
+                }
+
+                return null;
+            });
+            return fetched.outcome();
+        }
+    }
+
+    /**
+     * @return number of native files written into sink
+     */
+    public int getNatives() {
+        return natives.get();
+    }
+}
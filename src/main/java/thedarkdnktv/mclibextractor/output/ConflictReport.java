@@ -0,0 +1,70 @@
+package thedarkdnktv.mclibextractor.output;
+
+import com.google.gson.stream.JsonWriter;
+import thedarkdnktv.mclibextractor.model.LauncherProfile;
+import thedarkdnktv.mclibextractor.resolve.Conflict;
+import thedarkdnktv.mclibextractor.resolve.ResolutionSettings;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Writes version conflicts of resolved profiles as JSON: every conflicting artifact with all its
+ * declarations, nearest first, the selected version and why it was selected.
+ */
+public final class ConflictReport {
+
+    private ConflictReport() {}
+
+    public static void write(ResolutionSettings settings, Map<LauncherProfile, List<Conflict>> conflicts, Path file) throws IOException {
+        var parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+
+        try (var json = new JsonWriter(Files.newBufferedWriter(file))) {
+            json.setIndent("  ");
+            json.beginObject();
+            json.name("strategy").value(settings.strategy().name().toLowerCase(Locale.ROOT));
+            json.name("profiles").beginArray();
+            for (var entry : conflicts.entrySet()) {
+                json.beginObject();
+                json.name("profile").value(entry.getKey().getName());
+                json.name("version").value(entry.getKey().getLastVersionId());
+                json.name("conflicts").beginArray();
+                for (var conflict : entry.getValue()) {
+                    writeConflict(json, conflict);
+                }
+                json.endArray();
+                json.endObject();
+            }
+            json.endArray();
+            json.endObject();
+        }
+    }
+
+    private static void writeConflict(JsonWriter json, Conflict conflict) throws IOException {
+        json.beginObject();
+        json.name("artifact").value(conflict.artifact().toString());
+        json.name("selected").value(conflict.selected().version().toString());
+        json.name("declaredBy").value(conflict.selected().declaredBy());
+        json.name("reason").value(conflict.reason().name().toLowerCase(Locale.ROOT));
+        if (conflict.pinned() != null) {
+            json.name("pinned").value(conflict.pinned().toString());
+        }
+
+        json.name("candidates").beginArray();
+        for (var candidate : conflict.candidates()) {
+            json.beginObject();
+            json.name("version").value(candidate.version().toString());
+            json.name("declaredBy").value(candidate.declaredBy());
+            json.endObject();
+        }
+        json.endArray();
+        json.endObject();
+    }
+}
@@ -0,0 +1,99 @@
+package thedarkdnktv.mclibextractor.output;
+
+import com.google.gson.stream.JsonWriter;
+import thedarkdnktv.mclibextractor.model.Dependency;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+
+/**
+ * Writes descriptions of extracted libraries straight from resolved libraries, in their classpath order,
+ * so nothing has to walk {@code libraries} folder afterwards.
+ */
+public final class ManifestWriter {
+
+    private ManifestWriter() {}
+
+    /**
+     * Writes single line of library files joined by platform path separator, ready for {@code java -cp}.
+     */
+    public static void writeClasspath(Path librariesDir, Collection<Dependency> libs, Path file) throws IOException {
+        createParent(file);
+        try (var writer = Files.newBufferedWriter(file)) {
+            var first = true;
+            for (var lib : libs) {
+                if (!first) {
+                    writer.write(File.pathSeparatorChar);
+                }
+
+                writer.write(librariesDir.resolve(lib.getPath()).toString());
+                first = false;
+            }
+
+            writer.newLine();
+        }
+    }
+
+    /**
+     * Writes JSON with coordinate, path, size and SHA-1 of every library, size is taken from extracted file if not declared.
+     */
+    public static void writeManifest(Path librariesDir, Collection<Dependency> libs, Path file) throws IOException {
+        createParent(file);
+        try (var json = new JsonWriter(Files.newBufferedWriter(file))) {
+            json.setIndent("  ");
+            json.beginObject();
+            json.name("libraries").value(librariesDir.toString());
+            json.name("entries").beginArray();
+            for (var lib : libs) {
+                var target = librariesDir.resolve(lib.getPath());
+                var size = lib.getSize();
+                if (size < 0 && Files.isRegularFile(target)) {
+                    size = Files.size(target);
+                }
+
+                json.beginObject();
+                json.name("name").value(lib.getName());
+                json.name("path").value(lib.getPath().toString().replace('\\', '/'));
+                json.name("file").value(target.toString());
+                if (size >= 0) {
+                    json.name("size").value(size);
+                }
+
+                if (lib.getSha1() != null) {
+                    json.name("sha1").value(lib.getSha1());
+                }
+
+                if (lib.isNative()) {
+                    json.name("native").value(true);
+                }
+
+                json.endObject();
+            }
+            json.endArray();
+            json.endObject();
+        }
+    }
+
+    /**
+     * Writes maven coordinates {@code group:id:version[:classifier]}, one per line.
+     */
+    public static void writeModules(Collection<Dependency> libs, Path file) throws IOException {
+        createParent(file);
+        try (var writer = Files.newBufferedWriter(file)) {
+            for (var lib : libs) {
+                writer.write(lib.getName());
+                writer.newLine();
+            }
+        }
+    }
+
+    private static void createParent(Path file) throws IOException {
+        var parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+    }
+}
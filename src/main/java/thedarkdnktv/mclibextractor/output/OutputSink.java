@@ -0,0 +1,25 @@
+package thedarkdnktv.mclibextractor.output;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Destination of extracted libraries other than libraries folder, like {@link ArchiveSink}.
+ * Files may be added from several transfer threads at once.
+ */
+public interface OutputSink extends Closeable {
+
+    /**
+     * Adds library file under its maven path.
+     */
+    void addLibrary(Path path, Path source) throws IOException;
+
+    /**
+     * Adds entries of native jar, entries starting with excluded prefix are skipped.
+     *
+     * @return number of entries added
+     */
+    int addNatives(Path jar, List<String> exclude) throws IOException;
+}
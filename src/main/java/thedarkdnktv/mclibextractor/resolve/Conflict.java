@@ -0,0 +1,30 @@
+package thedarkdnktv.mclibextractor.resolve;
+
+import org.apache.maven.artifact.versioning.ComparableVersion;
+import thedarkdnktv.mclibextractor.model.MavenArtifact;
+
+import java.util.List;
+
+/**
+ * Artifact declared with different versions, or pinned to a version no declaration has.
+ *
+ * @param candidates all declarations, nearest first
+ * @param pinned     version requested by pin or null
+ */
+public record Conflict(
+    MavenArtifact artifact,
+    List<Candidate> candidates,
+    Candidate selected,
+    Reason reason,
+    ComparableVersion pinned
+) {
+
+    public enum Reason {
+        NEAREST,
+        NEWEST,
+        PINNED
+    }
+
+    public record Candidate(ComparableVersion version, String declaredBy) {
+    }
+}
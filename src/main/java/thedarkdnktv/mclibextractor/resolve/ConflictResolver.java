@@ -0,0 +1,104 @@
+package thedarkdnktv.mclibextractor.resolve;
+
+import org.apache.maven.artifact.versioning.ComparableVersion;
+import thedarkdnktv.mclibextractor.model.Dependency;
+import thedarkdnktv.mclibextractor.model.MavenArtifact;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Selects one declaration per artifact. Result depends only on declaration order, never on hashing,
+ * so the same chain always resolves to the same libraries in the same order.
+ */
+public class ConflictResolver {
+
+    private final ResolutionSettings settings;
+
+    public ConflictResolver(ResolutionSettings settings) {
+        this.settings = settings;
+    }
+
+    /**
+     * @param declarations libraries in traversal order, those of inheriting versions first
+     */
+    public Resolution resolve(List<Declaration> declarations) {
+        // most artifacts are declared once, duplicates are chained by index instead of a list per artifact
+        var size = declarations.size();
+        var first = new HashMap<MavenArtifact, Integer>(size * 2);
+        var last = new int[size];
+        var next = new int[size];
+        var heads = new int[size];
+        var groups = 0;
+        for (int i = 0; i < size; i ++) {
+            next[i] = -1;
+            var head = first.putIfAbsent(declarations.get(i).dependency().getArtifact(), i);
+            if (head == null) {
+                heads[groups ++] = i;
+                last[i] = i;
+            } else {
+                next[last[head]] = i;
+                last[head] = i;
+            }
+        }
+
+        var libraries = new LinkedHashSet<Dependency>(groups * 2);
+        var conflicts = new ArrayList<Conflict>();
+        for (int g = 0; g < groups; g ++) {
+            var head = heads[g];
+            var declaration = declarations.get(head);
+            var pin = settings.pins().get(declaration.dependency().getArtifact());
+            if (next[head] >= 0 || pin != null) {
+                declaration = this.select(declarations, next, head, pin, conflicts);
+            }
+
+            libraries.add(declaration.dependency());
+        }
+
+        return new Resolution(libraries, List.copyOf(conflicts));
+    }
+
+    private Declaration select(List<Declaration> declarations, int[] next, int head, ComparableVersion pin, List<Conflict> conflicts) {
+        Declaration pinned = null;
+        var nearest = declarations.get(head);
+        var newest = nearest;
+        var distinct = false;
+        var candidates = new ArrayList<Conflict.Candidate>();
+        for (int i = head; i >= 0; i = next[i]) {
+            var declaration = declarations.get(i);
+            var version = declaration.dependency().getVersion();
+            candidates.add(new Conflict.Candidate(version, declaration.declaredBy()));
+            if (pinned == null && version.equals(pin)) {
+                pinned = declaration;
+            }
+
+            if (version.compareTo(newest.dependency().getVersion()) > 0) {
+                newest = declaration;
+            }
+
+            distinct |= !version.equals(nearest.dependency().getVersion());
+        }
+
+        Declaration selected;
+        Conflict.Reason reason;
+        if (pinned != null) {
+            selected = pinned;
+            reason = Conflict.Reason.PINNED;
+        } else if (settings.strategy() == ConflictStrategy.NEAREST) {
+            selected = nearest;
+            reason = Conflict.Reason.NEAREST;
+        } else {
+            selected = newest;
+            reason = Conflict.Reason.NEWEST;
+        }
+
+        if (distinct || (pin != null && pinned == null)) {
+            var chosen = new Conflict.Candidate(selected.dependency().getVersion(), selected.declaredBy());
+            conflicts.add(new Conflict(nearest.dependency().getArtifact(), List.copyOf(candidates), chosen, reason, pin));
+        }
+
+        return selected;
+    }
+}
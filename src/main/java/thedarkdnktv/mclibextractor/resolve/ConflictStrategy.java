@@ -0,0 +1,15 @@
+package thedarkdnktv.mclibextractor.resolve;
+
+/**
+ * How one version is selected when the inheritance chain declares an artifact several times.
+ */
+public enum ConflictStrategy {
+    /**
+     * Declaration closest to the selected version wins, inheriting versions override their parents.
+     */
+    NEAREST,
+    /**
+     * Highest version wins, equal versions are decided by the nearest declaration.
+     */
+    NEWEST
+}
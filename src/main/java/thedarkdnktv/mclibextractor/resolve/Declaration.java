@@ -0,0 +1,12 @@
+package thedarkdnktv.mclibextractor.resolve;
+
+import thedarkdnktv.mclibextractor.model.Dependency;
+
+/**
+ * @param declaredBy id of the version file declaring the library
+ */
+public record Declaration(
+    Dependency dependency,
+    String declaredBy
+) {
+}
@@ -0,0 +1,15 @@
+package thedarkdnktv.mclibextractor.resolve;
+
+import thedarkdnktv.mclibextractor.model.Dependency;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * @param libraries selected libraries in order of their nearest declaration
+ */
+public record Resolution(
+    Set<Dependency> libraries,
+    List<Conflict> conflicts
+) {
+}
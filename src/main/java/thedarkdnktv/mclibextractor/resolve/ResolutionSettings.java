@@ -0,0 +1,48 @@
+package thedarkdnktv.mclibextractor.resolve;
+
+import org.apache.maven.artifact.versioning.ComparableVersion;
+import thedarkdnktv.mclibextractor.model.MavenArtifact;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * @param pins versions selected regardless of strategy, applied only if some version in the chain declares them
+ */
+public record ResolutionSettings(
+    ConflictStrategy strategy,
+    Map<MavenArtifact, ComparableVersion> pins
+) {
+
+    public ResolutionSettings {
+        Objects.requireNonNull(strategy);
+        pins = Map.copyOf(pins);
+    }
+
+    public static ResolutionSettings defaults() {
+        return new ResolutionSettings(ConflictStrategy.NEWEST, Map.of());
+    }
+
+    public ResolutionSettings withStrategy(ConflictStrategy strategy) {
+        return new ResolutionSettings(strategy, pins);
+    }
+
+    public ResolutionSettings withPin(MavenArtifact artifact, ComparableVersion version) {
+        var pins = new HashMap<>(this.pins);
+        pins.put(artifact, version);
+        return new ResolutionSettings(strategy, pins);
+    }
+
+    /**
+     * @return stable text form, resolved libraries are cached per settings
+     */
+    public String key() {
+        var result = new StringBuilder(strategy.name());
+        var sorted = new TreeMap<String, ComparableVersion>();
+        pins.forEach((artifact, version) -> sorted.put(artifact.toString(), version));
+        sorted.forEach((artifact, version) -> result.append(',').append(artifact).append('=').append(version));
+        return result.toString();
+    }
+}
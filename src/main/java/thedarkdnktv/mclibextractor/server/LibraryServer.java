@@ -0,0 +1,421 @@
+package thedarkdnktv.mclibextractor.server;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonWriter;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import thedarkdnktv.mclibextractor.api.IMinecraftDependencyService;
+import thedarkdnktv.mclibextractor.model.Dependency;
+import thedarkdnktv.mclibextractor.model.LauncherProfile;
+import thedarkdnktv.mclibextractor.source.LibraryIndex;
+import thedarkdnktv.mclibextractor.transfer.Checksums;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+import static java.lang.System.out;
+import static java.nio.file.StandardOpenOption.READ;
+
+/**
+ * Serves launcher profiles, their resolved libraries and library files over HTTP, so several consumers
+ * on the host share one resolver. Resolved libraries and file hashes stay in memory, version files and
+ * library folders are only checked for changes by their modification time.
+ * <ul>
+ *     <li>{@code GET /profiles} lists launcher profiles</li>
+ *     <li>{@code GET /profiles/<id>} returns manifest of resolved libraries of the profile</li>
+ *     <li>{@code GET /libraries/<path>} returns library file, with {@code ETag} of its SHA-1 and single {@code Range}</li>
+ * </ul>
+ * Only files of libraries some profile resolves to are served, and only from local sources.
+ */
+public class LibraryServer implements AutoCloseable {
+
+    public static final String PROFILES = "/profiles";
+    public static final String LIBRARIES = "/libraries/";
+
+    private static final Pattern RANGE = Pattern.compile("bytes=(\\d*)-(\\d*)");
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final IMinecraftDependencyService service;
+    private final LibraryIndex index;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Map<String, Set<Dependency>> resolved = new HashMap<>();
+
+    /**
+     * @param threads requests handled at once
+     */
+    public LibraryServer(IMinecraftDependencyService service, LibraryIndex index, InetSocketAddress address, int threads) throws IOException {
+        this.service = service;
+        this.index = index == null ? new LibraryIndex() : index;
+        this.server = HttpServer.create(address, 0);
+        var counter = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, task -> {
+            var thread = new Thread(task, "server-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.server.setExecutor(this.executor);
+        this.server.createContext(PROFILES, this::handleProfiles);
+        this.server.createContext(LIBRARIES, this::handleLibrary);
+    }
+
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    /**
+     * Resolves libraries of all profiles ahead, then starts accepting requests.
+     *
+     * @return number of libraries served
+     */
+    public int start() throws IOException {
+        for (var profile : this.profiles().values()) {
+            this.libraries(profile);
+        }
+
+        var served = this.refresh();
+        server.start();
+        return served.size();
+    }
+
+    private Map<String, LauncherProfile> profiles() throws IOException {
+        synchronized (service) {
+            return new LinkedHashMap<>(service.loadSettings().getProfiles());
+        }
+    }
+
+    private Set<Dependency> libraries(LauncherProfile profile) throws IOException {
+        synchronized (service) {
+            // memoized while version files are unchanged
+            return service.loadLibraries(profile);
+        }
+    }
+
+    /**
+     * Resolves every profile again and rebuilds served libraries from the latest resolutions, so libraries
+     * no profile resolves to any more stop being served. Profiles failing to resolve keep their previous libraries,
+     * the failure is reported by their manifest.
+     *
+     * @return served libraries by path
+     */
+    private Map<String, Dependency> refresh() throws IOException {
+        var profiles = this.profiles();
+        synchronized (service) {
+            resolved.keySet().retainAll(profiles.keySet());
+            for (var entry : profiles.entrySet()) {
+                try {
+                    resolved.put(entry.getKey(), service.loadLibraries(entry.getValue()));
+                } catch (IOException | JsonParseException e) {
+                    // kept as resolved before
+                }
+            }
+
+            var result = new HashMap<String, Dependency>();
+            for (var libs : resolved.values()) {
+                for (var lib : libs) {
+                    result.put(libraryPath(lib), lib);
+                }
+            }
+
+            return result;
+        }
+    }
+
+    private void handleProfiles(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!this.isRead(exchange)) {
+                return;
+            }
+
+            var path = exchange.getRequestURI().getPath();
+            var profiles = this.profiles();
+            if (path.equals(PROFILES) || path.equals(PROFILES + "/")) {
+                this.sendJson(exchange, json -> {
+                    json.beginArray();
+                    for (var entry : profiles.entrySet()) {
+                        json.beginObject();
+                        json.name("id").value(entry.getKey());
+                        json.name("name").value(entry.getValue().getName());
+                        json.name("type").value(entry.getValue().getType());
+                        json.name("version").value(entry.getValue().getLastVersionId());
+                        json.name("manifest").value(PROFILES + "/" + encode(entry.getKey()));
+                        json.endObject();
+                    }
+                    json.endArray();
+                });
+                return;
+            }
+
+            var id = path.substring(PROFILES.length() + 1);
+            var profile = profiles.get(id);
+            if (profile == null) {
+                this.sendError(exchange, 404, "Launcher profile not found: " + id);
+                return;
+            }
+
+            var libs = this.libraries(profile);
+            this.sendJson(exchange, json -> {
+                json.beginObject();
+                json.name("id").value(id);
+                json.name("version").value(profile.getLastVersionId());
+                json.name("entries").beginArray();
+                for (var lib : libs) {
+                    json.beginObject();
+                    json.name("name").value(lib.getName());
+                    json.name("path").value(libraryPath(lib));
+                    json.name("url").value(LIBRARIES + encode(libraryPath(lib)));
+                    if (lib.getSize() >= 0) {
+                        json.name("size").value(lib.getSize());
+                    }
+
+                    if (lib.getSha1() != null) {
+                        json.name("sha1").value(lib.getSha1());
+                    }
+
+                    if (lib.isNative()) {
+                        json.name("native").value(true);
+                    }
+
+                    json.endObject();
+                }
+                json.endArray();
+                json.endObject();
+            });
+        } catch (IOException | RuntimeException e) {
+            this.fail(exchange, e);
+        }
+    }
+
+    private void handleLibrary(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!this.isRead(exchange)) {
+                return;
+            }
+
+            var path = exchange.getRequestURI().getPath().substring(LIBRARIES.length());
+            var lib = this.refresh().get(path);
+            var located = lib == null ? null : service.getArtifactSources().locateLocal(lib);
+            if (located == null) {
+                this.sendError(exchange, 404, lib == null ? "Unknown library: " + path : "Library is not available locally: " + path);
+                return;
+            }
+
+            var file = Path.of(located.uri());
+            // jars rewritten in place keep folder time, the file itself tells its length and hash apart
+            var entry = index.lookupFile(file);
+            if (entry == null) {
+                this.sendError(exchange, 404, "Library is not available locally: " + path);
+                return;
+            }
+
+            var etag = '"' + index.sha1(file) + '"';
+            var headers = exchange.getResponseHeaders();
+            headers.set("ETag", etag);
+            headers.set("Accept-Ranges", "bytes");
+            headers.set("Last-Modified", DateTimeFormatter.RFC_1123_DATE_TIME.format(
+                    Instant.ofEpochMilli(entry.lastModified()).atOffset(ZoneOffset.UTC)));
+            headers.set("Content-Type", "application/java-archive");
+
+            var requestHeaders = exchange.getRequestHeaders();
+            if (matches(requestHeaders.getFirst("If-None-Match"), etag)) {
+                exchange.sendResponseHeaders(304, -1);
+                return;
+            }
+
+            var size = entry.size();
+            long start = 0, end = size - 1;
+            var range = requestHeaders.getFirst("Range");
+            var ifRange = requestHeaders.getFirst("If-Range");
+            var partial = false;
+            if (range != null && (ifRange == null || ifRange.equals(etag))) {
+                // invalid and several ranges are ignored, whole file is a valid response to them
+                var bounds = parseRange(range.trim(), size);
+                if (bounds != null) {
+                    if (bounds[0] >= size) {
+                        headers.set("Content-Range", "bytes */" + size);
+                        exchange.sendResponseHeaders(416, -1);
+                        return;
+                    }
+
+                    start = bounds[0];
+                    end = bounds[1];
+                    partial = true;
+                    headers.set("Content-Range", "bytes " + start + "-" + end + "/" + size);
+                }
+            }
+
+            var length = end - start + 1;
+            var head = "HEAD".equals(exchange.getRequestMethod());
+            if (head) {
+                headers.set("Content-Length", Long.toString(length));
+            }
+
+            exchange.sendResponseHeaders(partial ? 206 : 200, head ? -1 : length == 0 ? -1 : length);
+            if (head || length == 0) {
+                return;
+            }
+
+            try (var channel = FileChannel.open(file, READ)) {
+                var body = Channels.newChannel(exchange.getResponseBody());
+                var position = start;
+                while (position <= end) {
+                    var sent = channel.transferTo(position, Math.min(end - position + 1, BUFFER_SIZE), body);
+                    if (sent <= 0) {
+                        throw new IOException("Library " + file + " was truncated while being served");
+                    }
+
+                    position += sent;
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            this.fail(exchange, e);
+        }
+    }
+
+    /**
+     * @return first and last byte of single range clamped to the file, first byte is not below size if the range
+     * is not satisfiable; null if the range is invalid
+     */
+    private static long[] parseRange(String range, long size) {
+        var matcher = RANGE.matcher(range);
+        if (!matcher.matches() || matcher.group(1).isEmpty() && matcher.group(2).isEmpty()) {
+            return null;
+        }
+
+        try {
+            if (matcher.group(1).isEmpty()) {
+                var suffix = Long.parseLong(matcher.group(2));
+                return new long[] {suffix == 0 ? size : Math.max(0, size - suffix), size - 1};
+            }
+
+            var first = Long.parseLong(matcher.group(1));
+            var last = matcher.group(2).isEmpty() ? Long.MAX_VALUE : Long.parseLong(matcher.group(2));
+            return last < first ? null : new long[] {first, Math.min(last, size - 1)};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private void fail(HttpExchange exchange, Exception e) {
+        out.println("WARN Request " + exchange.getRequestURI() + " failed: " + e);
+        if (exchange.getResponseCode() < 0) {
+            try {
+                this.sendError(exchange, 500, e.toString());
+            } catch (IOException ignored) {
+                // client is gone
+            }
+        }
+    }
+
+    /**
+     * @return false if request is not GET or HEAD, response was sent already
+     */
+    private boolean isRead(HttpExchange exchange) throws IOException {
+        var method = exchange.getRequestMethod();
+        if ("GET".equals(method) || "HEAD".equals(method)) {
+            return true;
+        }
+
+        exchange.getResponseHeaders().set("Allow", "GET, HEAD");
+        this.sendError(exchange, 405, "Method not allowed: " + method);
+        return false;
+    }
+
+    private void sendJson(HttpExchange exchange, JsonBody body) throws IOException {
+        var buffer = new ByteArrayOutputStream();
+        try (var json = new JsonWriter(new OutputStreamWriter(buffer, StandardCharsets.UTF_8))) {
+            json.setIndent("  ");
+            body.write(json);
+        }
+
+        var bytes = buffer.toByteArray();
+        var etag = "\"" + Checksums.sha1(bytes) + "\"";
+        var headers = exchange.getResponseHeaders();
+        headers.set("Content-Type", "application/json; charset=utf-8");
+        headers.set("Cache-Control", "no-cache");
+        headers.set("ETag", etag);
+        if (matches(exchange.getRequestHeaders().getFirst("If-None-Match"), etag)) {
+            exchange.sendResponseHeaders(304, -1);
+            return;
+        }
+
+        this.send(exchange, 200, bytes);
+    }
+
+    private void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        this.send(exchange, status, (message + "\n").getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void send(HttpExchange exchange, int status, byte[] bytes) throws IOException {
+        if ("HEAD".equals(exchange.getRequestMethod())) {
+            exchange.getResponseHeaders().set("Content-Length", Integer.toString(bytes.length));
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+
+        for (var candidate : ifNoneMatch.split(",")) {
+            var value = candidate.trim();
+            if (value.equals("*") || value.equals(etag) || value.equals("W/" + etag)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static String libraryPath(Dependency lib) {
+        return lib.getPath().toString().replace('\\', '/');
+    }
+
+    private static String encode(String path) {
+        try {
+            return new URI(null, null, path, null).getRawPath();
+        } catch (URISyntaxException e) {
+            return path;
+        }
+    }
+
+    /**
+     * Stops accepting requests, running ones get a second to complete.
+     */
+    @Override
+    public void close() {
+        server.stop(1);
+        executor.shutdownNow();
+    }
+
+    @FunctionalInterface
+    private interface JsonBody {
+
+        void write(JsonWriter json) throws IOException;
+    }
+}
@@ -0,0 +1,27 @@
+package thedarkdnktv.mclibextractor.source;
+
+import thedarkdnktv.mclibextractor.model.Dependency;
+
+import java.io.IOException;
+import java.net.URI;
+
+/**
+ * Place library content can be taken from, sources are asked in order of {@link ArtifactSources}.
+ */
+public interface ArtifactSource {
+
+    /**
+     * @return short name shown in summaries, e.g. {@code minecraft} or {@code m2}
+     */
+    String getName();
+
+    /**
+     * @return true if located content is a local file, remote content has to be downloaded
+     */
+    boolean isLocal();
+
+    /**
+     * @return location of library content or null if this source does not have it
+     */
+    URI locate(Dependency lib) throws IOException;
+}
@@ -0,0 +1,125 @@
+package thedarkdnktv.mclibextractor.source;
+
+import thedarkdnktv.mclibextractor.model.Dependency;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Ordered chain of artifact sources, the first source having a library wins. Local sources are always
+ * preferred over remote ones, so a library found on disk is never downloaded.
+ */
+public class ArtifactSources {
+
+    private final List<ArtifactSource> sources;
+    private final ConcurrentMap<ArtifactSource, LongAdder> hits = new ConcurrentHashMap<>();
+
+    public ArtifactSources(List<ArtifactSource> sources) {
+        this.sources = List.copyOf(sources);
+    }
+
+    /**
+     * @return MC libraries folder followed by URLs of the version JSON
+     */
+    public static ArtifactSources defaults(Path mcLib) {
+        return new ArtifactSources(List.of(new RepositorySource("minecraft", mcLib, true), UpstreamSource.INSTANCE));
+    }
+
+    public List<ArtifactSource> getSources() {
+        return sources;
+    }
+
+    /**
+     * Makes every local repository of the chain look libraries up in given index.
+     */
+    public ArtifactSources setIndex(LibraryIndex index) {
+        for (var source : sources) {
+            if (source instanceof RepositorySource repository) {
+                repository.setIndex(index);
+            }
+        }
+
+        return this;
+    }
+
+    /**
+     * @return first local copy of the library or null if no local source has it
+     */
+    public Located locateLocal(Dependency lib) throws IOException {
+        for (var source : sources) {
+            if (source.isLocal()) {
+                var uri = source.locate(lib);
+                if (uri != null) {
+                    return new Located(source, uri);
+                }
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * @return locations of the library at remote sources, in chain order
+     */
+    public List<Located> locateRemote(Dependency lib) throws IOException {
+        var result = new ArrayList<Located>();
+        for (var source : sources) {
+            if (!source.isLocal()) {
+                var uri = source.locate(lib);
+                if (uri != null) {
+                    result.add(new Located(source, uri));
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * @return local source given file belongs to or null if it is outside of all of them
+     */
+    public RepositorySource localSourceOf(Path file) {
+        for (var source : sources) {
+            if (source instanceof RepositorySource repository && file.startsWith(repository.getRoot())) {
+                return repository;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Counts library taken from given source, see {@link #summary()}.
+     */
+    public void hit(ArtifactSource source) {
+        if (source != null) {
+            hits.computeIfAbsent(source, key -> new LongAdder()).increment();
+        }
+    }
+
+    /**
+     * @return number of libraries taken from every source, in chain order
+     */
+    public Map<String, Long> summary() {
+        var result = new LinkedHashMap<String, Long>();
+        for (var source : sources) {
+            var count = hits.get(source);
+            if (count != null) {
+                result.merge(source.getName(), count.sum(), Long::sum);
+            }
+        }
+
+        return result;
+    }
+
+    public record Located(ArtifactSource source, URI uri) {
+    }
+}
@@ -0,0 +1,238 @@
+package thedarkdnktv.mclibextractor.source;
+
+import thedarkdnktv.mclibextractor.transfer.Checksums;
+
+import java.io.*;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.NotDirectoryException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Persistent listing of library folders with size, modification time and SHA-1 of their files, kept between runs
+ * so local repositories are neither probed nor hashed file by file. A folder is listed again once its modification
+ * time changes, which happens whenever a file is added, removed or replaced in it. Files rewritten in place keep
+ * the folder time and are noticed by {@link #lookupFile(Path)} only.
+ */
+public class LibraryIndex {
+
+    private static final int INDEX_MAGIC = 0x4D434C49;
+    private static final int INDEX_VERSION = 1;
+    /** folder modified that close before its listing may have changed again within the same timestamp */
+    private static final long RACY_MILLIS = 2000;
+
+    private final Map<String, Listing> folders = new ConcurrentHashMap<>();
+    private volatile boolean modified = false;
+
+    /**
+     * @return indexed file or null if there is no such regular file
+     */
+    public Entry lookup(Path file) throws IOException {
+        var listing = this.listing(file.toAbsolutePath().getParent());
+        return listing == null ? null : listing.files().get(file.getFileName().toString());
+    }
+
+    /**
+     * Like {@link #lookup(Path)}, but checks size and modification time of the file itself too, so a file rewritten
+     * in place is noticed at the cost of one more stat and hashed again by {@link #sha1(Path)}.
+     *
+     * @return indexed file or null if there is no such regular file
+     */
+    public Entry lookupFile(Path file) throws IOException {
+        var listing = this.listing(file.toAbsolutePath().getParent());
+        var name = file.getFileName().toString();
+        var entry = listing == null ? null : listing.files().get(name);
+        if (entry == null) {
+            return null;
+        }
+
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            listing.files().remove(name, entry);
+            this.modified = true;
+            return null;
+        }
+
+        var lastModified = attributes.lastModifiedTime().toMillis();
+        if (attributes.size() != entry.size() || lastModified != entry.lastModified()) {
+            var current = new Entry(attributes.size(), lastModified, null);
+            listing.files().put(name, current);
+            this.modified = true;
+            return current;
+        }
+
+        return entry;
+    }
+
+    /**
+     * @return SHA-1 of the file, computed once per file content
+     */
+    public String sha1(Path file) throws IOException {
+        var dir = file.toAbsolutePath().getParent();
+        var listing = this.listing(dir);
+        var name = file.getFileName().toString();
+        var entry = listing == null ? null : listing.files().get(name);
+        if (entry == null) {
+            throw new NoSuchFileException(file.toString());
+        }
+
+        if (entry.sha1() != null) {
+            return entry.sha1();
+        }
+
+        var sha1 = Checksums.sha1(file);
+        var attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        if (attributes.size() == entry.size() && attributes.lastModifiedTime().toMillis() == entry.lastModified()
+                && listing.files().replace(name, entry, new Entry(entry.size(), entry.lastModified(), sha1))) {
+            this.modified = true;
+        }
+
+        return sha1;
+    }
+
+    /**
+     * @return false if nothing was listed or hashed since the index was read
+     */
+    public boolean isModified() {
+        return modified;
+    }
+
+    /**
+     * @return number of indexed folders
+     */
+    public int size() {
+        return folders.size();
+    }
+
+    private Listing listing(Path dir) throws IOException {
+        var key = dir.toString();
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(dir, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            if (folders.remove(key) != null) {
+                this.modified = true;
+            }
+
+            return null;
+        }
+
+        var lastModified = attributes.lastModifiedTime().toMillis();
+        var listing = folders.get(key);
+        if (listing != null && listing.lastModified() == lastModified && listing.listedAt() - lastModified > RACY_MILLIS) {
+            return listing;
+        }
+
+        var listedAt = System.currentTimeMillis();
+        var files = new ConcurrentHashMap<String, Entry>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+            for (var file : stream) {
+                BasicFileAttributes fileAttributes;
+                try {
+                    fileAttributes = Files.readAttributes(file, BasicFileAttributes.class);
+                } catch (NoSuchFileException e) {
+                    continue;
+                }
+
+                if (!fileAttributes.isRegularFile()) {
+                    continue;
+                }
+
+                var name = file.getFileName().toString();
+                var size = fileAttributes.size();
+                var fileModified = fileAttributes.lastModifiedTime().toMillis();
+                var previous = listing == null ? null : listing.files().get(name);
+                var sha1 = previous != null && previous.size() == size && previous.lastModified() == fileModified ? previous.sha1() : null;
+                files.put(name, new Entry(size, fileModified, sha1));
+            }
+        } catch (NoSuchFileException | NotDirectoryException e) {
+            if (folders.remove(key) != null) {
+                this.modified = true;
+            }
+
+            return null;
+        }
+
+        listing = new Listing(lastModified, listedAt, files);
+        folders.put(key, listing);
+        this.modified = true;
+        return listing;
+    }
+
+    public void read(Path file) throws IOException {
+        try (var in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(Files.newInputStream(file))))) {
+            if (in.readInt() != INDEX_MAGIC || in.readInt() != INDEX_VERSION) {
+                return;
+            }
+
+            var count = in.readInt();
+            for (int i = 0; i < count; i ++) {
+                var key = in.readUTF();
+                var lastModified = in.readLong();
+                var listedAt = in.readLong();
+                var files = new ConcurrentHashMap<String, Entry>();
+                for (int j = in.readInt(); j > 0; j --) {
+                    var name = in.readUTF();
+                    files.put(name, new Entry(in.readLong(), in.readLong(), in.readBoolean() ? in.readUTF() : null));
+                }
+
+                folders.putIfAbsent(key, new Listing(lastModified, listedAt, files));
+            }
+        } catch (NoSuchFileException e) {
+            // nothing stored yet
+        }
+    }
+
+    public void write(Path file) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        var temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (var out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(temp))))) {
+            out.writeInt(INDEX_MAGIC);
+            out.writeInt(INDEX_VERSION);
+
+            var entries = new ArrayList<>(folders.entrySet());
+            out.writeInt(entries.size());
+            for (var entry : entries) {
+                var listing = entry.getValue();
+                out.writeUTF(entry.getKey());
+                out.writeLong(listing.lastModified());
+                out.writeLong(listing.listedAt());
+
+                var files = new ArrayList<>(listing.files().entrySet());
+                out.writeInt(files.size());
+                for (var fileEntry : files) {
+                    var value = fileEntry.getValue();
+                    out.writeUTF(fileEntry.getKey());
+                    out.writeLong(value.size());
+                    out.writeLong(value.lastModified());
+                    out.writeBoolean(value.sha1() != null);
+                    if (value.sha1() != null) {
+                        out.writeUTF(value.sha1());
+                    }
+                }
+            }
+        }
+
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        this.modified = false;
+    }
+
+    /**
+     * @param sha1 hex SHA-1 of the content or null if it was not needed yet
+     */
+    public record Entry(long size, long lastModified, String sha1) {
+    }
+
+    private record Listing(long lastModified, long listedAt, Map<String, Entry> files) {
+    }
+}
@@ -0,0 +1,39 @@
+package thedarkdnktv.mclibextractor.source;
+
+import thedarkdnktv.mclibextractor.model.Dependency;
+
+import java.net.URI;
+
+/**
+ * Remote maven repository, library is looked up by its path relative to the base URL.
+ * Whether the mirror has the library is known only once it is downloaded.
+ */
+public class MirrorSource implements ArtifactSource {
+
+    private final URI base;
+
+    public MirrorSource(URI base) {
+        var value = base.toString();
+        this.base = value.endsWith("/") ? base : URI.create(value + "/");
+    }
+
+    @Override
+    public String getName() {
+        return "mirror";
+    }
+
+    @Override
+    public boolean isLocal() {
+        return false;
+    }
+
+    @Override
+    public URI locate(Dependency lib) {
+        return base.resolve(lib.getPath().toString().replace('\\', '/'));
+    }
+
+    @Override
+    public String toString() {
+        return "mirror (" + base + ")";
+    }
+}
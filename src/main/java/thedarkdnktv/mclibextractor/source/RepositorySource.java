@@ -0,0 +1,90 @@
+package thedarkdnktv.mclibextractor.source;
+
+import thedarkdnktv.mclibextractor.model.Dependency;
+import thedarkdnktv.mclibextractor.transfer.Checksums;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Local folder with maven repository layout, like {@code .minecraft/libraries} or {@code ~/.m2/repository}.
+ * Files of untrusted repositories are used only if they match declared size and SHA-1, maven builds
+ * of some libraries differ from those published by Mojang. Libraries declaring neither of them are never taken
+ * from untrusted repositories, nothing proves their files are the expected ones.
+ */
+public class RepositorySource implements ArtifactSource {
+
+    private final String name;
+    private final Path root;
+    private final boolean trusted;
+    private LibraryIndex index;
+
+    public RepositorySource(String name, Path root, boolean trusted) {
+        this.name = name;
+        this.root = root;
+        this.trusted = trusted;
+    }
+
+    public static Path defaultMavenRepository() {
+        return Path.of(System.getProperty("user.home"), ".m2", "repository");
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    public Path getRoot() {
+        return root;
+    }
+
+    /**
+     * @param index answers lookups and hashes instead of the file system, null probes every file
+     */
+    public RepositorySource setIndex(LibraryIndex index) {
+        this.index = index;
+        return this;
+    }
+
+    @Override
+    public boolean isLocal() {
+        return true;
+    }
+
+    @Override
+    public URI locate(Dependency lib) throws IOException {
+        if (!this.trusted && lib.getSha1() == null && lib.getSize() < 0) {
+            return null;
+        }
+
+        var file = root.resolve(lib.getPath());
+        var entry = this.index == null ? null : this.index.lookup(file);
+        if (entry == null && (this.index != null || !Files.isRegularFile(file))) {
+            return null;
+        }
+
+        if (!this.trusted) {
+            var size = entry == null ? Files.size(file) : entry.size();
+            if (lib.getSize() >= 0 && size != lib.getSize()) {
+                return null;
+            }
+
+            if (lib.getSha1() != null && !Checksums.matches(lib.getSha1(), this.sha1(file))) {
+                return null;
+            }
+        }
+
+        return file.toUri();
+    }
+
+    private String sha1(Path file) throws IOException {
+        return this.index == null ? Checksums.sha1(file) : this.index.sha1(file);
+    }
+
+    @Override
+    public String toString() {
+        return name + " (" + root + ")";
+    }
+}
@@ -0,0 +1,46 @@
+package thedarkdnktv.mclibextractor.source;
+
+import thedarkdnktv.mclibextractor.model.Dependency;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+
+/**
+ * Download URL declared by the version JSON.
+ */
+public class UpstreamSource implements ArtifactSource {
+
+    public static final UpstreamSource INSTANCE = new UpstreamSource();
+
+    private UpstreamSource() {
+    }
+
+    @Override
+    public String getName() {
+        return "upstream";
+    }
+
+    @Override
+    public boolean isLocal() {
+        return false;
+    }
+
+    @Override
+    public URI locate(Dependency lib) throws IOException {
+        if (lib.getDownloadUrl() == null) {
+            return null;
+        }
+
+        try {
+            return lib.getDownloadUrl().toURI();
+        } catch (URISyntaxException e) {
+            throw new IOException("Library URL is malformed: " + lib.getDownloadUrl(), e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "upstream";
+    }
+}
@@ -0,0 +1,291 @@
+package thedarkdnktv.mclibextractor.transfer;
+
+import thedarkdnktv.mclibextractor.model.Dependency;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Persistent download cache shared between runs and extractor processes.
+ * Entries are keyed by library path (derived from maven coordinate) and its SHA-1,
+ * modification time of an entry is its last access time, used for LRU eviction.
+ * <p>
+ * Entries are used within {@link #hold()}, which keeps shared lock of {@code .lock} file, and evicted by {@link #trim()}
+ * under exclusive lock of the same file. File locks belong to the whole JVM, so locking state is kept per cache folder
+ * and shared by all instances of this class.
+ */
+public class ArtifactCache {
+
+    public static final long DEFAULT_MAX_SIZE = 2048L * 1024 * 1024;
+
+    private static final String UNKNOWN_HASH = "unknown";
+    private static final String LOCK_SUFFIX = ".lock";
+    private static final Map<Path, Guard> GUARDS = new ConcurrentHashMap<>();
+
+    private final Path root;
+    private final Path artifacts;
+    private final Path temp;
+    private final long maxSize;
+    private final Guard guard;
+
+    public ArtifactCache(Path root, long maxSize) throws IOException {
+        this.root = root;
+        this.artifacts = root.resolve("artifacts");
+        this.temp = root.resolve("tmp");
+        this.maxSize = maxSize;
+        Files.createDirectories(this.artifacts);
+        Files.createDirectories(this.temp);
+        var key = root.toRealPath();
+        this.guard = GUARDS.computeIfAbsent(key, dir -> new Guard(dir.resolve(LOCK_SUFFIX)));
+    }
+
+    public static Path defaultDirectory() {
+        var base = Optional.ofNullable(System.getenv("XDG_CACHE_HOME"))
+                .filter(dir -> !dir.isBlank())
+                .map(Paths::get)
+                .orElseGet(() -> Paths.get(System.getProperty("user.home"), ".cache"));
+        return base.resolve("mclib-extractor");
+    }
+
+    public Path getRoot() {
+        return root;
+    }
+
+    /**
+     * Keeps entries from eviction by this and other processes until closed, waits for running {@link #trim()}.
+     */
+    public Hold hold() throws IOException {
+        guard.acquire();
+        return new Hold();
+    }
+
+    /**
+     * @return cached entry, it may be evicted any time unless it is used within {@link #hold()}
+     */
+    public Optional<Path> lookup(Dependency lib) throws IOException {
+        var entry = this.entry(lib);
+        if (!Files.isRegularFile(entry)) {
+            return Optional.empty();
+        }
+
+        try {
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (NoSuchFileException e) {
+            // evicted by another process just now
+            return Optional.empty();
+        }
+
+        return Optional.of(entry);
+    }
+
+    /**
+     * Fills cache entry using writer, concurrent writers of the same entry from this and other
+     * processes are serialized, so the entry is fetched only once. Returned entry has to be used
+     * within {@link #hold()} taken before this call.
+     */
+    public Path put(Dependency lib, IOConsumer<Path> writer) throws IOException {
+        var entry = this.entry(lib);
+        var key = this.key(lib);
+        var lockFile = temp.resolve(key + LOCK_SUFFIX);
+        var hold = this.hold();
+        try {
+            synchronized (guard.entries.computeIfAbsent(key, k -> new Object())) {
+                try (var channel = FileChannel.open(lockFile, WRITE, CREATE)) {
+                    // released by closing the channel, lock files are deleted by trim once nobody holds the cache
+                    channel.lock();
+                    if (Files.isRegularFile(entry)) {
+                        return entry;
+                    }
+
+                    var file = temp.resolve(key);
+                    try {
+                        writer.accept(file);
+                        Files.createDirectories(entry.getParent());
+                        try {
+                            Files.move(file, entry, ATOMIC_MOVE, REPLACE_EXISTING);
+                        } catch (AtomicMoveNotSupportedException e) {
+                            Files.move(file, entry, REPLACE_EXISTING);
+                        }
+                    } finally {
+                        Files.deleteIfExists(file);
+                    }
+                }
+            }
+        } finally {
+            hold.close();
+        }
+
+        return entry;
+    }
+
+    /**
+     * Evicts least recently used entries until cache fits into its size limit, lock files of entries are deleted too.
+     * Skipped when the cache is held or trimmed by this or another process at the same moment.
+     *
+     * @return number of evicted entries
+     */
+    public int trim() throws IOException {
+        if (!guard.startTrim()) {
+            return 0;
+        }
+
+        try (var channel = FileChannel.open(guard.file, WRITE, CREATE); var lock = channel.tryLock()) {
+            if (lock == null) {
+                return 0;
+            }
+
+            // nobody is filling entries now, neither in this nor in other processes
+            guard.entries.clear();
+            try (var files = Files.newDirectoryStream(temp, "*" + LOCK_SUFFIX)) {
+                for (var file : files) {
+                    Files.deleteIfExists(file);
+                }
+            }
+
+            var entries = new ArrayList<Map.Entry<Path, BasicFileAttributes>>();
+            Files.walkFileTree(artifacts, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    entries.add(Map.entry(file, attrs));
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+
+            var total = entries.stream()
+                    .mapToLong(entry -> entry.getValue().size())
+                    .sum();
+            if (total <= maxSize) {
+                return 0;
+            }
+
+            entries.sort(Comparator.comparing(entry -> entry.getValue().lastModifiedTime()));
+            var evicted = 0;
+            for (var entry : entries) {
+                if (total <= maxSize) {
+                    break;
+                }
+
+                if (Files.deleteIfExists(entry.getKey())) {
+                    total -= entry.getValue().size();
+                    evicted ++;
+                }
+            }
+
+            return evicted;
+        } finally {
+            guard.endTrim();
+        }
+    }
+
+    private Path entry(Dependency lib) {
+        var path = artifacts.resolve(lib.getPath().toString());
+        var hash = lib.getSha1() == null ? UNKNOWN_HASH : lib.getSha1().toLowerCase(Locale.ROOT);
+        return path.resolveSibling(hash).resolve(path.getFileName().toString());
+    }
+
+    private String key(Dependency lib) {
+        var hash = lib.getSha1() == null
+                ? UNKNOWN_HASH + Integer.toHexString(lib.getPath().hashCode())
+                : lib.getSha1().toLowerCase(Locale.ROOT);
+        return hash + "-" + lib.getPath().getFileName();
+    }
+
+    /**
+     * Shared use of cached entries, see {@link #hold()}.
+     */
+    public class Hold implements AutoCloseable {
+
+        private boolean closed;
+
+        private Hold() {}
+
+        @Override
+        public void close() throws IOException {
+            if (!closed) {
+                closed = true;
+                guard.release();
+            }
+        }
+    }
+
+    /**
+     * Locking state of one cache folder within this JVM: shared file lock is taken by the first holder
+     * and released by the last one, trim runs only while nobody holds the cache.
+     */
+    private static final class Guard {
+
+        private final Path file;
+        private final Map<String, Object> entries = new ConcurrentHashMap<>();
+        private FileChannel channel;
+        private int holders;
+        private boolean trimming;
+
+        Guard(Path file) {
+            this.file = file;
+        }
+
+        synchronized void acquire() throws IOException {
+            while (trimming) {
+                try {
+                    this.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting for cache trim");
+                }
+            }
+
+            if (holders == 0) {
+                var opened = FileChannel.open(file, READ, WRITE, CREATE);
+                try {
+                    // waits for trim of another process
+                    opened.lock(0, Long.MAX_VALUE, true);
+                } catch (IOException | RuntimeException e) {
+                    opened.close();
+                    throw e;
+                }
+
+                this.channel = opened;
+            }
+
+            holders ++;
+        }
+
+        synchronized void release() throws IOException {
+            if (-- holders == 0) {
+                var opened = this.channel;
+                this.channel = null;
+                opened.close();
+            }
+        }
+
+        synchronized boolean startTrim() {
+            if (holders > 0 || trimming) {
+                return false;
+            }
+
+            trimming = true;
+            return true;
+        }
+
+        synchronized void endTrim() {
+            trimming = false;
+            this.notifyAll();
+        }
+    }
+}
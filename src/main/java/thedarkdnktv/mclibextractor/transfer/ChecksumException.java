@@ -0,0 +1,10 @@
+package thedarkdnktv.mclibextractor.transfer;
+
+import java.io.IOException;
+
+public class ChecksumException extends IOException {
+
+    public ChecksumException(String message) {
+        super(message);
+    }
+}
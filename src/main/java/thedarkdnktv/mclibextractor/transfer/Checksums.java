@@ -0,0 +1,57 @@
+package thedarkdnktv.mclibextractor.transfer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.regex.Pattern;
+
+import static java.nio.file.StandardOpenOption.READ;
+
+public final class Checksums {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final Pattern SHA1 = Pattern.compile("[0-9a-fA-F]{40}");
+
+    private Checksums() {}
+
+    public static MessageDigest newSha1() {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 is not supported by this JVM", e);
+        }
+    }
+
+    public static String sha1(Path file) throws IOException {
+        var digest = newSha1();
+        var buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        try (var channel = FileChannel.open(file, READ)) {
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    public static String sha1(byte[] content) {
+        return HexFormat.of().formatHex(newSha1().digest(content));
+    }
+
+    /**
+     * @return true if value is hex encoded SHA-1, only such values are safe to use as file names
+     */
+    public static boolean isSha1(String value) {
+        return value != null && SHA1.matcher(value).matches();
+    }
+
+    public static boolean matches(String expected, String actual) {
+        return expected != null && expected.equalsIgnoreCase(actual);
+    }
+}
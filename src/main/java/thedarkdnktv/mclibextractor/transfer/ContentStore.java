@@ -0,0 +1,86 @@
+package thedarkdnktv.mclibextractor.transfer;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+/**
+ * Content-addressed file store, objects are kept under {@code objects/<2 hex>/<sha1>}
+ * and hard-linked into extraction targets, so identical jars are written only once.
+ */
+public class ContentStore {
+
+    private final Path objects;
+    private final Path temp;
+    private final Map<String, Object> locks = new ConcurrentHashMap<>();
+
+    public ContentStore(Path root) throws IOException {
+        this.objects = root.resolve("objects");
+        this.temp = root.resolve("tmp");
+        Files.createDirectories(this.objects);
+        Files.createDirectories(this.temp);
+    }
+
+    public Path locate(String sha1) {
+        if (!Checksums.isSha1(sha1)) {
+            throw new IllegalArgumentException("Invalid SHA-1: " + sha1);
+        }
+
+        var key = sha1.toLowerCase(Locale.ROOT);
+        return objects.resolve(key.substring(0, 2)).resolve(key);
+    }
+
+    public boolean contains(String sha1) {
+        return Files.isRegularFile(this.locate(sha1));
+    }
+
+    /**
+     * Writes new object using provided writer, the writer is expected to verify content hash.
+     * Object becomes visible only after writer succeeded. Temporary file name is stable per hash,
+     * so interrupted downloads can be resumed on the next run.
+     */
+    public Path put(String sha1, IOConsumer<Path> writer) throws IOException {
+        var object = this.locate(sha1);
+        var key = sha1.toLowerCase(Locale.ROOT);
+        synchronized (locks.computeIfAbsent(key, k -> new Object())) {
+            if (Files.isRegularFile(object)) {
+                return object;
+            }
+
+            var file = temp.resolve(key);
+            try {
+                writer.accept(file);
+                Files.createDirectories(object.getParent());
+                try {
+                    Files.move(file, object, ATOMIC_MOVE, REPLACE_EXISTING);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(file, object, REPLACE_EXISTING);
+                }
+            } finally {
+                Files.deleteIfExists(file);
+            }
+        }
+
+        return object;
+    }
+
+    /**
+     * @return true if target was hard-linked, false if store is on another file system and file was copied
+     */
+    public boolean link(String sha1, Path target) throws IOException {
+        var object = this.locate(sha1);
+        Files.deleteIfExists(target);
+        try {
+            Files.createLink(target, object);
+            return true;
+        } catch (UnsupportedOperationException | FileSystemException e) {
+            Files.copy(object, target, REPLACE_EXISTING, StandardCopyOption.COPY_ATTRIBUTES);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package thedarkdnktv.mclibextractor.transfer;
+
+import java.time.Duration;
+
+public record DownloadSettings(
+    Duration connectTimeout,
+    Duration readTimeout,
+    int maxAttempts,
+    Duration initialBackoff,
+    Duration maxBackoff
+) {
+
+    public DownloadSettings {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("At least one download attempt is required");
+        }
+    }
+
+    public static DownloadSettings defaults() {
+        return new DownloadSettings(Duration.ofSeconds(10), Duration.ofSeconds(30), 4, Duration.ofMillis(500), Duration.ofSeconds(15));
+    }
+
+    public DownloadSettings withConnectTimeout(Duration connectTimeout) {
+        return new DownloadSettings(connectTimeout, this.readTimeout, this.maxAttempts, this.initialBackoff, this.maxBackoff);
+    }
+
+    public DownloadSettings withReadTimeout(Duration readTimeout) {
+        return new DownloadSettings(this.connectTimeout, readTimeout, this.maxAttempts, this.initialBackoff, this.maxBackoff);
+    }
+
+    public DownloadSettings withMaxAttempts(int maxAttempts) {
+        return new DownloadSettings(this.connectTimeout, this.readTimeout, maxAttempts, this.initialBackoff, this.maxBackoff);
+    }
+}
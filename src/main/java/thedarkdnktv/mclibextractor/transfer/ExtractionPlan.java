@@ -0,0 +1,94 @@
+package thedarkdnktv.mclibextractor.transfer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Immutable list of library transfers decided before any file is written. Steps keep order of libraries,
+ * they are executed in {@link #getSchedule() schedule} order: downloads first, then disk work, both largest first,
+ * so the longest transfers start early and do not delay the end of a run.
+ */
+public final class ExtractionPlan {
+
+    public static final Comparator<PlanStep> ORDER = Comparator
+            .comparing((PlanStep step) -> step.source() != PlanStep.Source.NETWORK)
+            .thenComparing(step -> step.source() == PlanStep.Source.MISSING)
+            .thenComparing(Comparator.comparingLong(PlanStep::size).reversed());
+
+    private final Path librariesDir;
+    private final Path nativesDir;
+    private final List<PlanStep> steps;
+    private final List<PlanStep> schedule;
+
+    public ExtractionPlan(Path librariesDir, Path nativesDir, Collection<PlanStep> steps) {
+        this.librariesDir = librariesDir;
+        this.nativesDir = nativesDir;
+        this.steps = List.copyOf(steps);
+        var sorted = new ArrayList<>(steps);
+        sorted.sort(ORDER);
+        this.schedule = Collections.unmodifiableList(sorted);
+    }
+
+    public Path getLibrariesDir() {
+        return librariesDir;
+    }
+
+    public Path getNativesDir() {
+        return nativesDir;
+    }
+
+    /**
+     * @return steps in order of planned libraries
+     */
+    public List<PlanStep> getSteps() {
+        return steps;
+    }
+
+    /**
+     * @return steps in execution order
+     */
+    public List<PlanStep> getSchedule() {
+        return schedule;
+    }
+
+    public int count(PlanStep.Source source) {
+        return (int) steps.stream()
+                .filter(step -> step.source() == source)
+                .count();
+    }
+
+    public long size(PlanStep.Source source) {
+        return steps.stream()
+                .filter(step -> step.source() == source)
+                .mapToLong(PlanStep::size)
+                .sum();
+    }
+
+    /**
+     * @return every folder the plan writes into, without folders implied by others
+     */
+    public SortedSet<Path> getDirectories() {
+        var result = new TreeSet<Path>();
+        result.add(librariesDir);
+        result.add(nativesDir);
+        for (var step : steps) {
+            result.add(step.target().getParent());
+        }
+
+        for (var dir : List.copyOf(result)) {
+            for (var parent = dir.getParent(); parent != null; parent = parent.getParent()) {
+                result.remove(parent);
+            }
+        }
+
+        return result;
+    }
+
+    public void createDirectories() throws IOException {
+        for (var dir : this.getDirectories()) {
+            Files.createDirectories(dir);
+        }
+    }
+}
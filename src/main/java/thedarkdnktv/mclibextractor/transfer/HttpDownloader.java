@@ -0,0 +1,276 @@
+package thedarkdnktv.mclibextractor.transfer;
+
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static java.lang.System.out;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Downloads files into {@code <target>.part} first, resuming it with {@code Range} request
+ * on the next attempt or run, and moves it to the target once size and hash are verified.
+ */
+public class HttpDownloader implements AutoCloseable {
+
+    private static final Pattern UNSATISFIED_RANGE = Pattern.compile("bytes \\*/(\\d{1,18})");
+
+    private final HttpClient client;
+    private final DownloadSettings settings;
+    private final ScheduledExecutorService watchdog;
+
+    public HttpDownloader(DownloadSettings settings) {
+        this(HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .connectTimeout(settings.connectTimeout())
+                .build(), settings);
+    }
+
+    public HttpDownloader(HttpClient client, DownloadSettings settings) {
+        this.client = Objects.requireNonNull(client);
+        this.settings = Objects.requireNonNull(settings);
+        this.watchdog = Executors.newSingleThreadScheduledExecutor(task -> {
+            var thread = new Thread(task, "download-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public DownloadSettings getSettings() {
+        return settings;
+    }
+
+    public void download(URI uri, Path target, String sha1, long size) throws IOException {
+        var part = target.resolveSibling(target.getFileName() + ".part");
+        var backoff = settings.initialBackoff().toMillis();
+
+        for (int attempt = 1; ; attempt ++) {
+            try {
+                this.fetch(uri, part, sha1, size);
+                break;
+            } catch (InterruptedIOException e) {
+                throw e;
+            } catch (IOException e) {
+                if (e instanceof ChecksumException) {
+                    Files.deleteIfExists(part);
+                }
+
+                if (attempt >= settings.maxAttempts() || !isRetryable(e)) {
+                    throw e;
+                }
+
+                out.printf("WARN Download of %s failed (attempt %d/%d): %s, retrying in %d ms\n",
+                        uri, attempt, settings.maxAttempts(), e.getMessage(), backoff);
+                sleep(backoff);
+                backoff = Math.min(backoff * 2, settings.maxBackoff().toMillis());
+            }
+        }
+
+        try {
+            Files.move(part, target, ATOMIC_MOVE, REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(part, target, REPLACE_EXISTING);
+        }
+    }
+
+    private void fetch(URI uri, Path part, String sha1, long size) throws IOException {
+        var offset = Files.exists(part) ? Files.size(part) : 0L;
+        if (size >= 0 && offset > size) {
+            Files.delete(part);
+            offset = 0;
+        }
+
+        var request = HttpRequest.newBuilder(uri)
+                .timeout(settings.readTimeout())
+                .GET();
+        if (offset > 0) {
+            request.header("Range", "bytes=" + offset + "-");
+        }
+
+        var response = this.send(request.build());
+        var status = response.statusCode();
+        if (status == 206 && (offset == 0 || !isRangeFrom(response, offset))) {
+            // partial body not continuing the part file can not be placed anywhere, start over without range
+            response.body().close();
+            Files.deleteIfExists(part);
+            if (offset == 0) {
+                throw new HttpStatusException(uri, status);
+            }
+
+            this.fetch(uri, part, sha1, size);
+            return;
+        }
+
+        if (status == 416 && offset > 0 && completeLength(response) != offset) {
+            // part file is stale or longer than the file on server, without known hash nothing else tells it apart
+            response.body().close();
+            Files.deleteIfExists(part);
+            this.fetch(uri, part, sha1, size);
+            return;
+        }
+
+        try (var body = new WatchedInputStream(response.body())) {
+            var verifier = new VerifyingChannel(Channels.newChannel(body));
+            if (status == 416 && offset > 0) {
+                // part file has length of the complete file, only its content has to be checked
+                verifier.absorb(part);
+                verifier.verify(sha1, size);
+                return;
+            }
+
+            if (status != 200 && status != 206) {
+                throw new HttpStatusException(uri, status);
+            }
+
+            if (status == 206) {
+                verifier.absorb(part);
+            } else {
+                offset = 0;
+            }
+
+            var expected = size >= 0 ? size : response.headers()
+                    .firstValueAsLong("Content-Length")
+                    .stream()
+                    .map(length -> length + verifier.getBytes())
+                    .findFirst()
+                    .orElse(-1L);
+            try (var fco = FileChannel.open(part, WRITE, CREATE)) {
+                fco.truncate(offset);
+                fco.transferFrom(verifier, offset, Long.MAX_VALUE);
+            } catch (IOException e) {
+                if (!body.timedOut) {
+                    throw e;
+                }
+            }
+
+            if (body.timedOut) {
+                throw new HttpTimeoutException("No data received for " + settings.readTimeout().toSeconds() + "s from " + uri);
+            }
+
+            if (expected >= 0 && verifier.getBytes() < expected) {
+                // keep part file, next attempt continues from here
+                throw new EOFException("Connection closed after " + verifier.getBytes() + " of " + expected + " bytes");
+            }
+
+            verifier.verify(sha1, size);
+        }
+    }
+
+    private HttpResponse<InputStream> send(HttpRequest request) throws IOException {
+        try {
+            return client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Download interrupted");
+        }
+    }
+
+    private static boolean isRangeFrom(HttpResponse<?> response, long offset) {
+        return response.headers()
+                .firstValue("Content-Range")
+                .map(range -> range.startsWith("bytes " + offset + "-"))
+                .orElse(false);
+    }
+
+    /**
+     * @return length of the whole file given by {@code Content-Range} of 416 reply, -1 if missing
+     */
+    private static long completeLength(HttpResponse<?> response) {
+        return response.headers()
+                .firstValue("Content-Range")
+                .map(UNSATISFIED_RANGE::matcher)
+                .filter(Matcher::matches)
+                .map(matcher -> Long.parseLong(matcher.group(1)))
+                .orElse(-1L);
+    }
+
+    private static boolean isRetryable(IOException e) {
+        if (e instanceof HttpStatusException status) {
+            return status.isRetryable();
+        }
+
+        return true;
+    }
+
+    private static void sleep(long millis) throws InterruptedIOException {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Download interrupted");
+        }
+    }
+
+    @Override
+    public void close() {
+        watchdog.shutdownNow();
+    }
+
+    /**
+     * HttpClient has no socket read timeout, so stalled body is closed from watchdog thread instead.
+     */
+    private class WatchedInputStream extends FilterInputStream {
+
+        private volatile long lastRead = System.nanoTime();
+        private volatile boolean timedOut;
+        private final ScheduledFuture<?> check;
+
+        WatchedInputStream(InputStream in) {
+            super(in);
+            var timeout = settings.readTimeout().toNanos();
+            var period = Math.max(settings.readTimeout().toMillis() / 4, 50);
+            this.check = watchdog.scheduleAtFixedRate(() -> {
+                if (System.nanoTime() - lastRead > timeout) {
+                    timedOut = true;
+                    try {
+                        in.close();
+                    } catch (IOException ignored) {
+                    }
+                }
+            }, period, period, TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int read() throws IOException {
+            var result = super.read();
+            lastRead = System.nanoTime();
+            return result;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            var result = super.read(b, off, len);
+            lastRead = System.nanoTime();
+            return result;
+        }
+
+        @Override
+        public void close() throws IOException {
+            check.cancel(false);
+            super.close();
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package thedarkdnktv.mclibextractor.transfer;
+
+import java.io.IOException;
+import java.net.URI;
+
+public class HttpStatusException extends IOException {
+
+    private final int statusCode;
+
+    public HttpStatusException(URI uri, int statusCode) {
+        super("Server responded with HTTP " + statusCode + " for " + uri);
+        this.statusCode = statusCode;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public boolean isRetryable() {
+        return statusCode == 408 || statusCode == 429 || statusCode >= 500;
+    }
+}
@@ -0,0 +1,9 @@
+package thedarkdnktv.mclibextractor.transfer;
+
+import java.io.IOException;
+
+@FunctionalInterface
+public interface IOCallable<T> {
+
+    T call() throws IOException;
+}
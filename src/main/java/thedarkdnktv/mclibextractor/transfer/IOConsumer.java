@@ -0,0 +1,9 @@
+package thedarkdnktv.mclibextractor.transfer;
+
+import java.io.IOException;
+
+@FunctionalInterface
+public interface IOConsumer<T> {
+
+    void accept(T value) throws IOException;
+}
@@ -0,0 +1,9 @@
+package thedarkdnktv.mclibextractor.transfer;
+
+import java.io.IOException;
+
+@FunctionalInterface
+public interface IOFunction<T, R> {
+
+    R apply(T value) throws IOException;
+}
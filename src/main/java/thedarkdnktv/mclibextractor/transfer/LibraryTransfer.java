@@ -0,0 +1,420 @@
+package thedarkdnktv.mclibextractor.transfer;
+
+import thedarkdnktv.mclibextractor.model.Dependency;
+import thedarkdnktv.mclibextractor.source.ArtifactSource;
+import thedarkdnktv.mclibextractor.source.ArtifactSources;
+import thedarkdnktv.mclibextractor.source.UpstreamSource;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.stream.Collectors;
+
+import static java.lang.System.out;
+import static java.nio.file.StandardOpenOption.*;
+
+public class LibraryTransfer implements TransferAction<PlanStep> {
+
+    private final Path localDir;
+
+    private ArtifactSources sources;
+    private HttpDownloader downloader;
+    private boolean verifyLocal = false;
+    private UpToDateCheck upToDateCheck;
+    private ContentStore contentStore;
+    private ArtifactCache artifactCache;
+    private LocalCopier localCopier;
+    private NativeExtractor nativeExtractor;
+
+    public LibraryTransfer(Path mcLib, Path localDir) {
+        this.localDir = localDir;
+        this.sources = ArtifactSources.defaults(mcLib);
+    }
+
+    /**
+     * @param sources chain libraries are looked up in, MC folder and URLs of version JSON by default
+     */
+    public LibraryTransfer setSources(ArtifactSources sources) {
+        this.sources = sources;
+        return this;
+    }
+
+    public ArtifactSources getSources() {
+        return sources;
+    }
+
+    /**
+     * @param downloader used for libraries missing in MC folder, null disables downloading
+     */
+    public LibraryTransfer setDownloader(HttpDownloader downloader) {
+        this.downloader = downloader;
+        return this;
+    }
+
+    public LibraryTransfer setVerifyLocal(boolean verifyLocal) {
+        this.verifyLocal = verifyLocal;
+        return this;
+    }
+
+    public LibraryTransfer setUpToDateCheck(UpToDateCheck upToDateCheck) {
+        this.upToDateCheck = upToDateCheck;
+        return this;
+    }
+
+    public LibraryTransfer setContentStore(ContentStore contentStore) {
+        this.contentStore = contentStore;
+        return this;
+    }
+
+    public LibraryTransfer setArtifactCache(ArtifactCache artifactCache) {
+        this.artifactCache = artifactCache;
+        return this;
+    }
+
+    /**
+     * @param localCopier places libraries found in MC folder, null or content store keeps byte copy
+     */
+    public LibraryTransfer setLocalCopier(LocalCopier localCopier) {
+        this.localCopier = localCopier;
+        return this;
+    }
+
+    /**
+     * @param nativeExtractor unpacks native jars once they are in place, null keeps them packed
+     */
+    public LibraryTransfer setNativeExtractor(NativeExtractor nativeExtractor) {
+        this.nativeExtractor = nativeExtractor;
+        return this;
+    }
+
+    /**
+     * Decides source of every library without writing anything, download cache entries found are touched.
+     */
+    public ExtractionPlan plan(Collection<Dependency> libs, Path nativesDir) throws IOException {
+        var steps = new ArrayList<PlanStep>(libs.size());
+        for (var lib : libs) {
+            steps.add(this.step(lib, localDir.resolve(lib.getPath())));
+        }
+
+        return new ExtractionPlan(localDir, nativesDir, steps);
+    }
+
+    private PlanStep step(Dependency lib, Path target) throws IOException {
+        var sha1 = lib.getSha1();
+        if (contentStore != null && sha1 != null && contentStore.contains(sha1)) {
+            return new PlanStep(lib, PlanStep.Source.STORE, target, null);
+        }
+
+        var local = sources.locateLocal(lib);
+        if (local != null) {
+            return new PlanStep(lib, PlanStep.Source.LOCAL, target, local.uri());
+        }
+
+        if (this.downloader == null) {
+            return new PlanStep(lib, PlanStep.Source.MISSING, target, null);
+        }
+
+        if (artifactCache != null && artifactCache.lookup(lib).isPresent()) {
+            return new PlanStep(lib, PlanStep.Source.CACHE, target, null);
+        }
+
+        var remote = sources.locateRemote(lib);
+        return remote.isEmpty()
+                ? new PlanStep(lib, PlanStep.Source.MISSING, target, null)
+                : new PlanStep(lib, PlanStep.Source.NETWORK, target, remote.get(0).uri());
+    }
+
+    /**
+     * @return false if saved plan is executed with a source it relies on disabled, the step has to be planned again
+     */
+    private boolean isAvailable(PlanStep step) {
+        return switch (step.source()) {
+            case STORE -> contentStore != null;
+            case CACHE -> artifactCache != null;
+            case NETWORK -> this.downloader != null;
+            case LOCAL -> step.origin() != null && "file".equals(step.origin().getScheme());
+            case MISSING -> false;
+        };
+    }
+
+    /**
+     * Executes planned step, target folders have to exist already, see {@link ExtractionPlan#createDirectories()}.
+     */
+    @Override
+    public TransferOutcome transfer(PlanStep step, TransferEngine engine) throws IOException {
+        var lib = step.library();
+        var outcome = this.place(step, engine);
+        if (lib.isNative() && nativeExtractor != null) {
+            engine.onDisk(() -> {
+                nativeExtractor.extract(step.target(), lib.getExtractExclude());
+                return null;
+            });
+        }
+
+        return outcome;
+    }
+
+    /**
+     * Locates content of planned step without placing it into libraries folder, used by archive output.
+     * Library neither found locally nor kept by download cache is downloaded into temporary file, see {@link Fetched#temporary()}.
+     */
+    public Fetched fetch(PlanStep step, TransferEngine engine) throws IOException {
+        var lib = step.library();
+        var planned = this.planned(step);
+        switch (planned.source()) {
+            case STORE -> {
+                return new Fetched(contentStore.locate(lib.getSha1()), TransferOutcome.DEDUPLICATED, false);
+            }
+            case LOCAL -> {
+                var source = Path.of(planned.origin());
+                if (this.verifyLocal && (lib.getSha1() != null || lib.getSize() >= 0)) {
+                    engine.onDisk(() -> {
+                        try (var channel = new VerifyingChannel(FileChannel.open(source, READ))) {
+                            var buffer = ByteBuffer.allocate(64 * 1024);
+                            while (channel.read(buffer.clear()) >= 0) {
+                                // digest is updated by the channel
+                            }
+
+                            channel.verify(lib.getSha1(), lib.getSize());
+                        }
+
+                        return null;
+                    });
+                }
+
+                sources.hit(sources.localSourceOf(source));
+                return new Fetched(source, TransferOutcome.COPIED, false);
+            }
+            case CACHE -> {
+                var hold = artifactCache.hold();
+                var cached = artifactCache.lookup(lib);
+                if (cached.isPresent()) {
+                    return new Fetched(cached.get(), TransferOutcome.CACHED, false, hold);
+                }
+
+                // evicted since planning, download again
+                hold.close();
+            }
+        }
+
+        return this.download(lib, engine, download -> {
+            if (artifactCache != null) {
+                var hold = artifactCache.hold();
+                try {
+                    return new Fetched(artifactCache.put(lib, download), TransferOutcome.DOWNLOADED, false, hold);
+                } catch (IOException | RuntimeException e) {
+                    hold.close();
+                    throw e;
+                }
+            }
+
+            var temp = Files.createTempFile("mclib", ".download");
+            try {
+                download.accept(temp);
+            } catch (IOException e) {
+                Files.deleteIfExists(temp);
+                throw e;
+            }
+
+            return new Fetched(temp, TransferOutcome.DOWNLOADED, true);
+        });
+    }
+
+    /**
+     * @return the step, planned again if its saved source is disabled
+     */
+    private PlanStep planned(PlanStep step) throws IOException {
+        var lib = step.library();
+        var planned = this.isAvailable(step) ? step : this.step(lib, step.target());
+        if (planned.source() == PlanStep.Source.MISSING) {
+            if (this.downloader == null) {
+                var names = sources.getSources().stream()
+                        .filter(ArtifactSource::isLocal)
+                        .map(ArtifactSource::toString)
+                        .collect(Collectors.joining(", "));
+                throw new NoSuchFileException(lib.getPath().toString(), null, "Library not found in " + names);
+            }
+
+            throw new IOException("Can not download library as no source has its URL");
+        }
+
+        return planned;
+    }
+
+    /**
+     * Downloads library from the first remote source serving it, failed sources are skipped.
+     *
+     * @param action receives downloader of the library into given file
+     */
+    private <R> R download(Dependency lib, TransferEngine engine, IOFunction<IOConsumer<Path>, R> action) throws IOException {
+        IOException failure = null;
+        var locations = sources.locateRemote(lib);
+        for (int i = 0; i < locations.size(); i ++) {
+            var location = locations.get(i);
+            try {
+                var result = engine.onHost(location.uri(), () -> {
+                    var source = location.source();
+                    out.println("INFO Downloading library " + lib.getArtifact() + (source.isLocal() || source == UpstreamSource.INSTANCE ? "" : " from " + source.getName()));
+                    return action.apply(file -> this.downloader.download(location.uri(), file, lib.getSha1(), lib.getSize()));
+                });
+                sources.hit(location.source());
+                return result;
+            } catch (InterruptedIOException e) {
+                throw e;
+            } catch (IOException e) {
+                if (failure != null) {
+                    e.addSuppressed(failure);
+                }
+
+                failure = e;
+                if (i < locations.size() - 1) {
+                    out.printf("WARN %s is not available at %s, trying next source: %s\n", lib.getArtifact(), location.source(), e.getMessage());
+                }
+            }
+        }
+
+        throw failure != null ? failure : new IOException("Can not download library as no source has its URL");
+    }
+
+    private TransferOutcome place(PlanStep step, TransferEngine engine) throws IOException {
+        var lib = step.library();
+        var target = step.target();
+        var planned = this.planned(step);
+        var source = planned.source() == PlanStep.Source.LOCAL ? Path.of(planned.origin()) : null;
+        var exists = Files.exists(target);
+        if (exists && upToDateCheck != null && engine.onDisk(() ->
+                upToDateCheck.isUpToDate(target, source, lib.getSha1(), lib.getSize()))) {
+            return TransferOutcome.SKIPPED;
+        }
+
+        switch (planned.source()) {
+            case STORE -> {
+                return engine.onDisk(() -> {
+                    contentStore.link(lib.getSha1(), target);
+                    return TransferOutcome.DEDUPLICATED;
+                });
+            }
+            case LOCAL -> {
+                var repository = sources.localSourceOf(source);
+                return engine.onDisk(() -> {
+                    var lastModified = Files.getLastModifiedTime(source);
+                    IOConsumer<Path> byteCopy = file -> this.copy(source, file, lib, this.verifyLocal, lastModified);
+                    if (localCopier != null && contentStore == null && !this.verifyLocal) {
+                        // links and clones do not read content, verification needs byte copy
+                        localCopier.copy(repository == null ? source.getParent() : repository.getRoot(), source, target, byteCopy);
+                    } else {
+                        this.store(lib, target, byteCopy);
+                    }
+
+                    sources.hit(repository);
+                    return exists ? TransferOutcome.UPDATED : TransferOutcome.COPIED;
+                });
+            }
+            case CACHE -> {
+                var hold = artifactCache.hold();
+                try {
+                    var cached = artifactCache.lookup(lib);
+                    if (cached.isPresent()) {
+                        return engine.onDisk(() -> {
+                            this.copyFromCache(lib, cached.get(), target);
+                            return exists ? TransferOutcome.UPDATED : TransferOutcome.CACHED;
+                        });
+                    }
+                } finally {
+                    hold.close();
+                }
+
+                // evicted since planning, download again
+            }
+        }
+
+        if (artifactCache == null) {
+            this.download(lib, engine, download -> {
+                this.store(lib, target, download);
+                return null;
+            });
+            return exists ? TransferOutcome.UPDATED : TransferOutcome.DOWNLOADED;
+        }
+
+        // entry must not be evicted before it is copied
+        var hold = artifactCache.hold();
+        try {
+            var cached = this.download(lib, engine, download -> artifactCache.put(lib, download));
+            engine.onDisk(() -> {
+                this.copyFromCache(lib, cached, target);
+                return null;
+            });
+        } finally {
+            hold.close();
+        }
+
+        return exists ? TransferOutcome.UPDATED : TransferOutcome.DOWNLOADED;
+    }
+
+    private void copyFromCache(Dependency lib, Path cached, Path target) throws IOException {
+        var lastModified = Files.getLastModifiedTime(cached);
+        this.store(lib, target, file -> this.copy(cached, file, lib, false, lastModified));
+    }
+
+    private void store(Dependency lib, Path target, IOConsumer<Path> writer) throws IOException {
+        if (contentStore != null && lib.getSha1() != null) {
+            contentStore.put(lib.getSha1(), writer);
+            contentStore.link(lib.getSha1(), target);
+        } else {
+            writer.accept(target);
+        }
+    }
+
+    private void copy(Path source, Path target, Dependency lib, boolean verify, FileTime lastModified) throws IOException {
+        // target may be a hard link into content store, never write through it
+        Files.deleteIfExists(target);
+        try (var channel = FileChannel.open(source, READ); var fco = FileChannel.open(target, WRITE, CREATE, TRUNCATE_EXISTING)) {
+            if (verify && (lib.getSha1() != null || lib.getSize() >= 0)) {
+                var verifying = new VerifyingChannel(channel);
+                fco.transferFrom(verifying, 0, Long.MAX_VALUE);
+                verifying.verify(lib.getSha1(), lib.getSize());
+            } else {
+                fco.transferFrom(channel, 0, Long.MAX_VALUE);
+            }
+        } catch (ChecksumException e) {
+            Files.deleteIfExists(target);
+            throw e;
+        }
+
+        Files.setLastModifiedTime(target, lastModified);
+    }
+
+    /**
+     * Closed once the content is consumed.
+     *
+     * @param file      library content
+     * @param temporary file was downloaded for this call only and is deleted on close
+     * @param hold      keeps cached file from eviction until close, null if the file is not cached
+     */
+    public record Fetched(Path file, TransferOutcome outcome, boolean temporary, ArtifactCache.Hold hold) implements AutoCloseable {
+
+        public Fetched(Path file, TransferOutcome outcome, boolean temporary) {
+            this(file, outcome, temporary, null);
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                if (temporary) {
+                    Files.deleteIfExists(file);
+                }
+            } finally {
+                if (hold != null) {
+                    hold.close();
+                }
+            }
+        }
+    }
+}
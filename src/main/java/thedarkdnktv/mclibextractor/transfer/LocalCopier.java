@@ -0,0 +1,108 @@
+package thedarkdnktv.mclibextractor.transfer;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Places local files into extraction target using configured {@link TransferStrategy},
+ * falling back to byte copy whenever the strategy is not supported for given source and target.
+ */
+public class LocalCopier {
+
+    private final TransferStrategy strategy;
+    private final Map<TransferStrategy, LongAdder> used;
+    private final Set<Path> unlinkableRoots = ConcurrentHashMap.newKeySet();
+
+    public LocalCopier(TransferStrategy strategy) {
+        this.strategy = strategy;
+        var counters = new EnumMap<TransferStrategy, LongAdder>(TransferStrategy.class);
+        for (var value : TransferStrategy.values()) {
+            counters.put(value, new LongAdder());
+        }
+
+        this.used = Collections.unmodifiableMap(counters);
+    }
+
+    public TransferStrategy getStrategy() {
+        return strategy;
+    }
+
+    /**
+     * @param sourceRoot root folder of the source, link support is detected once per root
+     * @param byteCopy   fallback copying bytes into given target
+     * @return strategy actually used
+     */
+    public TransferStrategy copy(Path sourceRoot, Path source, Path target, IOConsumer<Path> byteCopy) throws IOException {
+        var result = switch (strategy) {
+            case AUTO -> this.tryLink(sourceRoot, source, target) ? TransferStrategy.HARDLINK
+                    : this.tryClone(source, target) ? TransferStrategy.CLONE : null;
+            case HARDLINK -> this.tryLink(sourceRoot, source, target) ? TransferStrategy.HARDLINK : null;
+            case SYMLINK -> this.trySymlink(source, target) ? TransferStrategy.SYMLINK : null;
+            case CLONE -> this.tryClone(source, target) ? TransferStrategy.CLONE : null;
+            case COPY -> null;
+        };
+
+        if (result == null) {
+            byteCopy.accept(target);
+            result = TransferStrategy.COPY;
+        }
+
+        used.get(result).increment();
+        return result;
+    }
+
+    /**
+     * @return number of files placed with each strategy, strategies not used are omitted
+     */
+    public Map<TransferStrategy, Long> summary() {
+        var result = new EnumMap<TransferStrategy, Long>(TransferStrategy.class);
+        used.forEach((key, counter) -> {
+            if (counter.sum() > 0) {
+                result.put(key, counter.sum());
+            }
+        });
+
+        return result;
+    }
+
+    private boolean tryLink(Path sourceRoot, Path source, Path target) throws IOException {
+        if (unlinkableRoots.contains(sourceRoot)) {
+            return false;
+        }
+
+        Files.deleteIfExists(target);
+        try {
+            Files.createLink(target, source);
+            return true;
+        } catch (UnsupportedOperationException | FileSystemException e) {
+            // different file system or links not supported, no reason to try again for this root
+            unlinkableRoots.add(sourceRoot);
+            return false;
+        }
+    }
+
+    private boolean trySymlink(Path source, Path target) throws IOException {
+        Files.deleteIfExists(target);
+        try {
+            Files.createSymbolicLink(target, source.toAbsolutePath());
+            return true;
+        } catch (UnsupportedOperationException | FileSystemException e) {
+            return false;
+        }
+    }
+
+    private boolean tryClone(Path source, Path target) throws IOException {
+        try {
+            Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.COPY_ATTRIBUTES);
+            return true;
+        } catch (UnsupportedOperationException e) {
+            return false;
+        }
+    }
+}
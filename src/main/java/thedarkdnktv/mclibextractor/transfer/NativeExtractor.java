@@ -0,0 +1,135 @@
+package thedarkdnktv.mclibextractor.transfer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.READ;
+
+/**
+ * Unpacks native jars into natives folder. Entries are streamed one by one into temporary file
+ * moved over the target, so jars may be extracted concurrently.
+ */
+public class NativeExtractor {
+
+    private final Path nativesDir;
+    private final LongAdder extracted = new LongAdder();
+    private final LongAdder unchanged = new LongAdder();
+
+    public NativeExtractor(Path nativesDir) {
+        this.nativesDir = nativesDir.toAbsolutePath().normalize();
+    }
+
+    /**
+     * Extracts every file entry not starting with one of excluded prefixes,
+     * entries already present with the same size and CRC are left untouched.
+     */
+    public void extract(Path jar, List<String> exclude) throws IOException {
+        try (var zip = new ZipFile(jar.toFile())) {
+            var entries = zip.entries();
+            while (entries.hasMoreElements()) {
+                var entry = entries.nextElement();
+                if (entry.isDirectory() || isExcluded(entry.getName(), exclude)) {
+                    continue;
+                }
+
+                var target = nativesDir.resolve(entry.getName()).normalize();
+                if (!target.startsWith(nativesDir)) {
+                    throw new IOException("Entry " + entry.getName() + " of " + jar + " points outside of natives folder");
+                }
+
+                if (isSame(target, entry)) {
+                    unchanged.increment();
+                    continue;
+                }
+
+                Files.createDirectories(target.getParent());
+                var temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".part");
+                try (var in = zip.getInputStream(entry)) {
+                    Files.copy(in, temp, REPLACE_EXISTING);
+                    Files.move(temp, target, REPLACE_EXISTING, ATOMIC_MOVE);
+                } finally {
+                    Files.deleteIfExists(temp);
+                }
+
+                extracted.increment();
+            }
+        }
+    }
+
+    /**
+     * @return files {@link #extract(Path, List)} places into natives folder for the jar
+     */
+    public Set<Path> targets(Path jar, List<String> exclude) throws IOException {
+        var result = new HashSet<Path>();
+        try (var zip = new ZipFile(jar.toFile())) {
+            var entries = zip.entries();
+            while (entries.hasMoreElements()) {
+                var entry = entries.nextElement();
+                if (entry.isDirectory() || isExcluded(entry.getName(), exclude)) {
+                    continue;
+                }
+
+                var target = nativesDir.resolve(entry.getName()).normalize();
+                if (target.startsWith(nativesDir)) {
+                    result.add(target);
+                }
+            }
+        }
+
+        return result;
+    }
+
+    public long getExtracted() {
+        return extracted.sum();
+    }
+
+    public long getUnchanged() {
+        return unchanged.sum();
+    }
+
+    private static boolean isExcluded(String name, List<String> exclude) {
+        for (var prefix : exclude) {
+            if (name.startsWith(prefix)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static boolean isSame(Path target, ZipEntry entry) throws IOException {
+        if (entry.getSize() < 0 || entry.getCrc() < 0) {
+            return false;
+        }
+
+        try (var channel = FileChannel.open(target, READ)) {
+            if (channel.size() != entry.getSize()) {
+                return false;
+            }
+
+            var crc = new CRC32();
+            var buffer = ByteBuffer.allocate(64 * 1024);
+            while (channel.read(buffer) > 0) {
+                crc.update(buffer.flip());
+                buffer.clear();
+            }
+
+            return crc.getValue() == entry.getCrc();
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+    }
+}
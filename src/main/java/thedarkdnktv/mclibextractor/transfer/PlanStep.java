@@ -0,0 +1,46 @@
+package thedarkdnktv.mclibextractor.transfer;
+
+import thedarkdnktv.mclibextractor.model.Dependency;
+
+import java.net.URI;
+import java.nio.file.Path;
+
+/**
+ * Planned transfer of one library into its target file.
+ *
+ * @param origin file of {@link Source#LOCAL} or first URL of {@link Source#NETWORK} step, null for other sources
+ */
+public record PlanStep(
+    Dependency library,
+    Source source,
+    Path target,
+    URI origin
+) {
+
+    public enum Source {
+        /**
+         * Hard link of content store object.
+         */
+        STORE,
+        /**
+         * Copy of the file in MC libraries folder or another local repository.
+         */
+        LOCAL,
+        /**
+         * Copy of download cache entry.
+         */
+        CACHE,
+        NETWORK,
+        /**
+         * Library has no source, step always fails.
+         */
+        MISSING
+    }
+
+    /**
+     * @return expected size in bytes, 0 if unknown
+     */
+    public long size() {
+        return Math.max(0, library.getSize());
+    }
+}
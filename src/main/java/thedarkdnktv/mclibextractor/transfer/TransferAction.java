@@ -0,0 +1,9 @@
+package thedarkdnktv.mclibextractor.transfer;
+
+import java.io.IOException;
+
+@FunctionalInterface
+public interface TransferAction<T> {
+
+    TransferOutcome transfer(T item, TransferEngine engine) throws IOException;
+}
@@ -0,0 +1,96 @@
+package thedarkdnktv.mclibextractor.transfer;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TransferEngine implements AutoCloseable {
+
+    private final TransferSettings settings;
+    private final ExecutorService executor;
+    private final Semaphore diskPermits;
+    private final Map<String, Semaphore> hostPermits;
+
+    public TransferEngine(TransferSettings settings) {
+        this.settings = Objects.requireNonNull(settings);
+        this.executor = Executors.newFixedThreadPool(settings.concurrency(), new WorkerFactory());
+        this.diskPermits = new Semaphore(settings.diskLimit(), true);
+        this.hostPermits = new ConcurrentHashMap<>();
+    }
+
+    public TransferSettings getSettings() {
+        return settings;
+    }
+
+    public <T> TransferReport<T> transferAll(Collection<T> items, TransferAction<T> action) throws InterruptedException {
+        var futures = new LinkedHashMap<T, Future<TransferOutcome>>();
+        for (var item : items) {
+            futures.put(item, executor.submit(() -> action.transfer(item, this)));
+        }
+
+        var report = new TransferReport<T>();
+        try {
+            for (var entry : futures.entrySet()) {
+                try {
+                    report.success(entry.getKey(), entry.getValue().get());
+                } catch (ExecutionException e) {
+                    report.failure(entry.getKey(), e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            futures.values().forEach(future -> future.cancel(true));
+            throw e;
+        }
+
+        return report;
+    }
+
+    public <R> R onDisk(IOCallable<R> task) throws IOException {
+        return guarded(diskPermits, task);
+    }
+
+    public <R> R onHost(URI uri, IOCallable<R> task) throws IOException {
+        var host = String.valueOf(uri.getHost()).toLowerCase(Locale.ROOT);
+        var permits = hostPermits.computeIfAbsent(host, key -> new Semaphore(settings.hostLimit(), true));
+        return guarded(permits, task);
+    }
+
+    private static <R> R guarded(Semaphore permits, IOCallable<R> task) throws IOException {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for transfer slot");
+        }
+
+        try {
+            return task.call();
+        } finally {
+            permits.release();
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private static class WorkerFactory implements ThreadFactory {
+
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable task) {
+            var thread = new Thread(task, "transfer-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package thedarkdnktv.mclibextractor.transfer;
+
+public enum TransferOutcome {
+    COPIED,
+    DOWNLOADED,
+    CACHED,
+    UPDATED,
+    DEDUPLICATED,
+    SKIPPED
+}
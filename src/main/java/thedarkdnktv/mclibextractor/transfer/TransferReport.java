@@ -0,0 +1,47 @@
+package thedarkdnktv.mclibextractor.transfer;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class TransferReport<T> {
+
+    private final Map<T, TransferOutcome> outcomes = new LinkedHashMap<>();
+    private final Map<T, Throwable> failures = new LinkedHashMap<>();
+
+    void success(T item, TransferOutcome outcome) {
+        this.outcomes.put(item, outcome);
+    }
+
+    void failure(T item, Throwable cause) {
+        this.failures.put(item, cause);
+    }
+
+    public Map<T, TransferOutcome> getOutcomes() {
+        return Collections.unmodifiableMap(outcomes);
+    }
+
+    public Map<T, Throwable> getFailures() {
+        return Collections.unmodifiableMap(failures);
+    }
+
+    public boolean hasFailures() {
+        return !failures.isEmpty();
+    }
+
+    public int count(TransferOutcome outcome) {
+        return (int) outcomes.values().stream()
+                .filter(outcome::equals)
+                .count();
+    }
+
+    public Map<TransferOutcome, Integer> counts() {
+        var result = new EnumMap<TransferOutcome, Integer>(TransferOutcome.class);
+        for (var outcome : TransferOutcome.values()) {
+            result.put(outcome, this.count(outcome));
+        }
+
+        return result;
+    }
+}
@@ -0,0 +1,31 @@
+package thedarkdnktv.mclibextractor.transfer;
+
+public record TransferSettings(
+    int concurrency,
+    int hostLimit,
+    int diskLimit
+) {
+
+    public TransferSettings {
+        if (concurrency < 1 || hostLimit < 1 || diskLimit < 1) {
+            throw new IllegalArgumentException("Transfer limits must be positive");
+        }
+    }
+
+    public static TransferSettings defaults() {
+        var cpus = Runtime.getRuntime().availableProcessors();
+        return new TransferSettings(Math.max(8, cpus * 2), 6, Math.max(2, cpus));
+    }
+
+    public TransferSettings withConcurrency(int concurrency) {
+        return new TransferSettings(concurrency, this.hostLimit, this.diskLimit);
+    }
+
+    public TransferSettings withHostLimit(int hostLimit) {
+        return new TransferSettings(this.concurrency, hostLimit, this.diskLimit);
+    }
+
+    public TransferSettings withDiskLimit(int diskLimit) {
+        return new TransferSettings(this.concurrency, this.hostLimit, diskLimit);
+    }
+}
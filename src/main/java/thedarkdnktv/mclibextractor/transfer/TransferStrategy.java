@@ -0,0 +1,25 @@
+package thedarkdnktv.mclibextractor.transfer;
+
+import java.util.Locale;
+
+public enum TransferStrategy {
+    /**
+     * Hard link when source and target share file system, clone otherwise.
+     */
+    AUTO,
+    HARDLINK,
+    SYMLINK,
+    /**
+     * {@link java.nio.file.Files#copy} leaving the copy to the platform, which may share
+     * extents (copy-on-write) on file systems supporting it.
+     */
+    CLONE,
+    /**
+     * Byte copy through channels, the only strategy hashing content while copying.
+     */
+    COPY;
+
+    public static TransferStrategy parse(String value) {
+        return valueOf(value.toUpperCase(Locale.ROOT));
+    }
+}
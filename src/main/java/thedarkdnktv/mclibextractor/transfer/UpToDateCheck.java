@@ -0,0 +1,51 @@
+package thedarkdnktv.mclibextractor.transfer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+
+public class UpToDateCheck {
+
+    private final boolean compareSha1;
+
+    public UpToDateCheck(boolean compareSha1) {
+        this.compareSha1 = compareSha1;
+    }
+
+    /**
+     * Local sources are compared by size and modification time, which are copied over
+     * to the target on every transfer. Downloaded targets only have the size and hash
+     * from the version JSON to compare with; without size the hash is always compared,
+     * and a target with neither of them is never up to date.
+     */
+    public boolean isUpToDate(Path target, Path source, String sha1, long size) throws IOException {
+        if (Files.notExists(target)) {
+            return false;
+        }
+
+        if (source == null) {
+            if (size < 0) {
+                // truncated file could not be told apart from complete one otherwise
+                return sha1 != null && Checksums.matches(sha1, Checksums.sha1(target));
+            }
+
+            if (Files.size(target) != size) {
+                return false;
+            }
+        } else {
+            var targetAttributes = Files.readAttributes(target, BasicFileAttributes.class);
+            var sourceAttributes = Files.readAttributes(source, BasicFileAttributes.class);
+            if (targetAttributes.size() != sourceAttributes.size()
+                    || !targetAttributes.lastModifiedTime().equals(sourceAttributes.lastModifiedTime())) {
+                return false;
+            }
+        }
+
+        if (this.compareSha1 && sha1 != null) {
+            return Checksums.matches(sha1, Checksums.sha1(target));
+        }
+
+        return true;
+    }
+}
@@ -0,0 +1,87 @@
+package thedarkdnktv.mclibextractor.transfer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+
+import static java.nio.file.StandardOpenOption.READ;
+
+public class VerifyingChannel implements ReadableByteChannel {
+
+    private final ReadableByteChannel delegate;
+    private final MessageDigest digest;
+    private long bytes;
+    private String sha1;
+
+    public VerifyingChannel(ReadableByteChannel delegate) {
+        this.delegate = delegate;
+        this.digest = Checksums.newSha1();
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+        var start = dst.position();
+        var read = delegate.read(dst);
+        if (read > 0) {
+            digest.update(dst.duplicate().position(start).limit(start + read));
+            bytes += read;
+        }
+
+        return read;
+    }
+
+    /**
+     * Feeds already present prefix of the file into digest, used when resuming partial downloads.
+     */
+    public void absorb(Path prefix) throws IOException {
+        var buffer = ByteBuffer.allocate(64 * 1024);
+        try (var channel = FileChannel.open(prefix, READ)) {
+            int read;
+            while ((read = channel.read(buffer)) >= 0) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+                bytes += read;
+            }
+        }
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    public String getSha1() {
+        if (sha1 == null) {
+            sha1 = HexFormat.of().formatHex(digest.digest());
+        }
+
+        return sha1;
+    }
+
+    public void verify(String expectedSha1, long expectedSize) throws ChecksumException {
+        if (expectedSize >= 0 && expectedSize != bytes) {
+            throw new ChecksumException("Size mismatch, expected " + expectedSize + " bytes, got " + bytes);
+        }
+
+        if (expectedSha1 != null) {
+            var actual = this.getSha1();
+            if (!Checksums.matches(expectedSha1, actual)) {
+                throw new ChecksumException("SHA-1 mismatch, expected " + expectedSha1 + ", got " + actual);
+            }
+        }
+    }
+
+    @Override
+    public boolean isOpen() {
+        return delegate.isOpen();
+    }
+
+    @Override
+    public void close() throws IOException {
+        delegate.close();
+    }
+}
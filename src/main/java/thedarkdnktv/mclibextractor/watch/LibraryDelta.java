@@ -0,0 +1,64 @@
+package thedarkdnktv.mclibextractor.watch;
+
+import thedarkdnktv.mclibextractor.model.Dependency;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Difference between two library sets keyed by library path. A new version of a library
+ * has another path, so it is seen as removal of the old file and addition of the new one.
+ */
+public record LibraryDelta(
+    List<Dependency> added,
+    List<Dependency> changed,
+    List<Dependency> removed
+) {
+
+    public static LibraryDelta between(Map<Path, Dependency> previous, Map<Path, Dependency> current) {
+        var added = new ArrayList<Dependency>();
+        var changed = new ArrayList<Dependency>();
+        var removed = new ArrayList<Dependency>();
+        for (var lib : current.values()) {
+            var old = previous.get(lib.getPath());
+            if (old == null) {
+                added.add(lib);
+            } else if (!isSameContent(old, lib)) {
+                changed.add(lib);
+            }
+        }
+
+        for (var lib : previous.values()) {
+            if (!current.containsKey(lib.getPath())) {
+                removed.add(lib);
+            }
+        }
+
+        return new LibraryDelta(List.copyOf(added), List.copyOf(changed), List.copyOf(removed));
+    }
+
+    private static boolean isSameContent(Dependency a, Dependency b) {
+        return Objects.equals(a.getSha1(), b.getSha1())
+                && a.getSize() == b.getSize()
+                && Objects.equals(a.getDownloadUrl() == null ? null : a.getDownloadUrl().toString(),
+                        b.getDownloadUrl() == null ? null : b.getDownloadUrl().toString())
+                && a.isNative() == b.isNative();
+    }
+
+    /**
+     * @return libraries to be transferred
+     */
+    public List<Dependency> transfers() {
+        var result = new ArrayList<Dependency>(added.size() + changed.size());
+        result.addAll(added);
+        result.addAll(changed);
+        return result;
+    }
+
+    public boolean isEmpty() {
+        return added.isEmpty() && changed.isEmpty() && removed.isEmpty();
+    }
+}
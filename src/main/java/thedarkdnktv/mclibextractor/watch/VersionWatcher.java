@@ -0,0 +1,99 @@
+package thedarkdnktv.mclibextractor.watch;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+
+/**
+ * Watches {@code launcher_profiles.json} and {@code versions/*}{@code /*.json} of MC folder.
+ * Bursts of events, e.g. launcher writing several files, are collected into one {@link Change}.
+ */
+public class VersionWatcher implements Closeable {
+
+    private static final String SETTINGS_FILE = "launcher_profiles.json";
+    private static final long QUIET_PERIOD = 500;
+
+    private final Path mcDir;
+    private final Path versionsDir;
+    private final WatchService service;
+
+    /**
+     * @param settings true if launcher profiles may have changed
+     * @param versions ids of versions whose JSON was created, modified or deleted
+     * @param overflow true if events were lost, everything has to be considered changed
+     */
+    public record Change(
+        boolean settings,
+        Set<String> versions,
+        boolean overflow
+    ) {}
+
+    public VersionWatcher(Path mcDir) throws IOException {
+        this.mcDir = mcDir;
+        this.versionsDir = mcDir.resolve("versions");
+        this.service = mcDir.getFileSystem().newWatchService();
+        mcDir.register(service, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+        Files.createDirectories(versionsDir);
+        versionsDir.register(service, ENTRY_CREATE, ENTRY_DELETE);
+        try (var dirs = Files.newDirectoryStream(versionsDir, Files::isDirectory)) {
+            for (var dir : dirs) {
+                dir.register(service, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+            }
+        }
+    }
+
+    /**
+     * Blocks until something relevant changes and stays quiet for a while.
+     */
+    public Change next() throws InterruptedException, IOException {
+        var settings = false;
+        var overflow = false;
+        var versions = new HashSet<String>();
+        var key = service.take();
+        while (key != null) {
+            var dir = (Path) key.watchable();
+            for (var event : key.pollEvents()) {
+                if (event.kind() == OVERFLOW) {
+                    overflow = true;
+                    continue;
+                }
+
+                var name = (Path) event.context();
+                if (dir.equals(mcDir)) {
+                    settings |= SETTINGS_FILE.equals(name.toString());
+                } else if (dir.equals(versionsDir)) {
+                    var child = dir.resolve(name);
+                    if (event.kind() == ENTRY_CREATE && Files.isDirectory(child)) {
+                        child.register(service, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+                    }
+
+                    versions.add(name.toString());
+                } else if (name.toString().endsWith(".json")) {
+                    versions.add(dir.getFileName().toString());
+                }
+            }
+
+            if (!key.reset() && dir.equals(mcDir)) {
+                throw new IOException("MC folder is no longer accessible: " + mcDir);
+            }
+
+            key = service.poll(QUIET_PERIOD, TimeUnit.MILLISECONDS);
+            if (key == null && !settings && !overflow && versions.isEmpty()) {
+                // only irrelevant files changed, keep waiting
+                key = service.take();
+            }
+        }
+
+        return new Change(settings, Set.copyOf(versions), overflow);
+    }
+
+    @Override
+    public void close() throws IOException {
+        service.close();
+    }
+}
@@ -0,0 +1,97 @@
+package thedarkdnktv.mclibextractor.api;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LibraryExtractorTest {
+
+    private static final int LIBRARIES = 600;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void slowSubscriberDoesNotBlockSingleThreadExecutor() throws Exception {
+        var mcDir = this.minecraft();
+        var executor = Executors.newSingleThreadExecutor();
+        try (var extractor = new LibraryExtractor(executor)) {
+            var extraction = extractor.create(ExtractionRequest.of(mcDir, dir.resolve("out"))
+                    .withProfiles(List.of("test"))
+                    .withDownload(null));
+            var transferred = new AtomicInteger();
+            var completed = new CountDownLatch(1);
+            extraction.subscribe(new Flow.Subscriber<>() {
+                private Flow.Subscription subscription;
+
+                @Override
+                public void onSubscribe(Flow.Subscription subscription) {
+                    this.subscription = subscription;
+                    subscription.request(1);
+                }
+
+                @Override
+                public void onNext(ExtractionEvent event) {
+                    if (event instanceof ExtractionEvent.LibraryTransferred) {
+                        transferred.incrementAndGet();
+                    }
+
+                    try {
+                        Thread.sleep(1);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+
+                    subscription.request(1);
+                }
+
+                @Override
+                public void onError(Throwable throwable) {
+                    completed.countDown();
+                }
+
+                @Override
+                public void onComplete() {
+                    completed.countDown();
+                }
+            });
+
+            var result = extraction.start().get(30, TimeUnit.SECONDS);
+            assertTrue(completed.await(30, TimeUnit.SECONDS));
+            assertFalse(result.report().hasFailures());
+            assertEquals(LIBRARIES, transferred.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Path minecraft() throws IOException {
+        var mcDir = dir.resolve(".minecraft");
+        var libraries = new StringJoiner(",");
+        for (int i = 0; i < LIBRARIES; i ++) {
+            var path = "org/test/lib" + i + "/1/lib" + i + "-1.jar";
+            var file = mcDir.resolve("libraries").resolve(path);
+            Files.createDirectories(file.getParent());
+            Files.write(file, new byte[] {(byte) i});
+            libraries.add("{\"name\": \"org.test:lib" + i + ":1\", \"downloads\": {\"artifact\": {\"path\": \"" + path + "\", \"size\": 1}}}");
+        }
+
+        Files.createDirectories(mcDir.resolve("versions/test"));
+        Files.writeString(mcDir.resolve("versions/test/test.json"), "{\"id\": \"test\", \"libraries\": [" + libraries + "]}");
+        Files.writeString(mcDir.resolve("launcher_profiles.json"),
+                "{\"version\": 3, \"profiles\": {\"test\": {\"name\": \"Test\", \"type\": \"custom\", \"lastVersionId\": \"test\"}}}");
+        return mcDir;
+    }
+}
@@ -0,0 +1,50 @@
+package thedarkdnktv.mclibextractor.gson;
+
+import com.google.gson.JsonParseException;
+import org.junit.jupiter.api.Test;
+import thedarkdnktv.mclibextractor.model.AssetIndexFile;
+import thedarkdnktv.mclibextractor.model.AssetObject;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AssetIndexTypeAdapterTest {
+
+    private static final String HASH = "bdf48ef6b5d0d23bbb02e17d04865216179f510a";
+
+    private final AssetIndexTypeAdapter adapter = new AssetIndexTypeAdapter();
+
+    @Test
+    void readsObjectsUniqueByHash() throws IOException {
+        var index = adapter.fromJson("""
+                {"objects": {
+                    "a.ogg": {"hash": "%1$s", "size": 10},
+                    "b.ogg": {"hash": "%1$s", "size": 10}
+                }, "virtual": true}
+                """.formatted(HASH));
+
+        assertEquals(List.of(new AssetObject(HASH, 10)), index.objects());
+        assertEquals(2, index.names());
+        assertTrue(index.legacy());
+    }
+
+    @Test
+    void writesInverseOfRead() throws IOException {
+        var index = new AssetIndexFile(List.of(new AssetObject(HASH, 10), new AssetObject(HASH.replace('b', 'c'), -1)), 2, true);
+
+        var read = adapter.fromJson(adapter.toJson(index));
+
+        assertEquals(index, read);
+    }
+
+    @Test
+    void rejectsHashLeavingObjectsFolder() {
+        var json = """
+                {"objects": {"a.ogg": {"hash": "../../../../../../../../../../../../../x", "size": 10}}}
+                """;
+
+        assertThrows(JsonParseException.class, () -> adapter.fromJson(json));
+    }
+}
@@ -0,0 +1,56 @@
+package thedarkdnktv.mclibextractor.gson;
+
+import com.google.gson.JsonParseException;
+import org.junit.jupiter.api.Test;
+import thedarkdnktv.mclibextractor.model.ArtifactCoordinate;
+import thedarkdnktv.mclibextractor.model.Dependency;
+import thedarkdnktv.mclibextractor.transfer.ExtractionPlan;
+import thedarkdnktv.mclibextractor.transfer.PlanStep;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExtractionPlanTypeAdapterTest {
+
+    private final ExtractionPlanTypeAdapter adapter = new ExtractionPlanTypeAdapter();
+
+    @Test
+    void readsWrittenPlan() throws IOException {
+        var coordinate = ArtifactCoordinate.parse("org.lwjgl:lwjgl:3.3.1:natives-linux");
+        var lib = new Dependency(coordinate.artifact(), coordinate.version(), Path.of("org/lwjgl/lwjgl/3.3.1/lwjgl-3.3.1-natives-linux.jar"))
+                .setSha1("bdf48ef6b5d0d23bbb02e17d04865216179f510a")
+                .setSize(42)
+                .setNative(true)
+                .setExtractExclude(List.of("META-INF/"));
+        var plan = new ExtractionPlan(Path.of("/out/libraries"), Path.of("/out/natives"), List.of(
+                new PlanStep(lib, PlanStep.Source.NETWORK, Path.of("/out/libraries").resolve(lib.getPath()), URI.create("https://example.org/lwjgl.jar"))));
+
+        var read = adapter.fromJson(adapter.toJson(plan));
+
+        assertEquals(plan.getLibrariesDir(), read.getLibrariesDir());
+        var step = read.getSteps().get(0);
+        assertEquals(PlanStep.Source.NETWORK, step.source());
+        assertEquals(URI.create("https://example.org/lwjgl.jar"), step.origin());
+        assertEquals(lib.getPath(), step.library().getPath());
+        assertEquals(lib.getSha1(), step.library().getSha1());
+        assertEquals(42, step.library().getSize());
+        assertTrue(step.library().isNative());
+        assertEquals(List.of("META-INF/"), step.library().getExtractExclude());
+    }
+
+    @Test
+    void rejectsNonBooleanNative() {
+        var json = """
+                {"version": 1, "libraries": "/out/libraries", "natives": "/out/natives", "steps": [
+                    {"name": "org.test:a:1", "source": "local", "target": "/out/libraries/a.jar", "path": "a.jar", "native": "yes"}
+                ]}
+                """;
+
+        var e = assertThrows(JsonParseException.class, () -> adapter.fromJson(json));
+        assertTrue(e.getMessage().contains("native"), e.getMessage());
+    }
+}
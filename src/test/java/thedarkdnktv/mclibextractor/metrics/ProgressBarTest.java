@@ -0,0 +1,37 @@
+package thedarkdnktv.mclibextractor.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProgressBarTest {
+
+    @Test
+    void clearsBarBeforeOtherOutput() throws InterruptedException {
+        var console = System.out;
+        var buffer = new ByteArrayOutputStream();
+        var metrics = new RunMetrics();
+        metrics.expectLibraries(2);
+        try (var bar = new ProgressBar(metrics, new PrintStream(buffer, true, StandardCharsets.UTF_8))) {
+            assertNotNull(bar);
+            while (buffer.size() == 0) {
+                Thread.sleep(10);
+            }
+
+            System.out.println("INFO Downloading library org.test:a");
+            Thread.sleep(300);
+        } finally {
+            assertSame(console, System.out);
+            System.setOut(console);
+        }
+
+        var lines = buffer.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("INFO Downloading library org.test:a", lines[0].substring(lines[0].lastIndexOf('\r') + 1));
+        assertTrue(lines[1].trim().startsWith("[") && lines[1].contains("0/2 libraries"), lines[1]);
+    }
+}
@@ -0,0 +1,24 @@
+package thedarkdnktv.mclibextractor.metrics;
+
+import org.junit.jupiter.api.Test;
+import thedarkdnktv.mclibextractor.transfer.TransferOutcome;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RunMetricsTest {
+
+    @Test
+    void measuresThroughputOverTransferPhase() {
+        var metrics = new RunMetrics();
+        assertEquals(0, metrics.getDownloadThroughput());
+
+        // two concurrent downloads of one second each within one second of transfer
+        metrics.addLibrary(new RunMetrics.LibrarySample("a", TransferOutcome.DOWNLOADED, 1_000_000, 1_000_000_000));
+        metrics.addLibrary(new RunMetrics.LibrarySample("b", TransferOutcome.DOWNLOADED, 1_000_000, 1_000_000_000));
+        metrics.addLibrary(new RunMetrics.LibrarySample("c", TransferOutcome.COPIED, 5_000_000, 10_000_000));
+        assertEquals(0, metrics.getDownloadThroughput());
+
+        metrics.addPhase(RunMetrics.PHASE_TRANSFER, 1_000_000_000);
+        assertEquals(2_000_000, metrics.getDownloadThroughput(), 1e-6);
+    }
+}
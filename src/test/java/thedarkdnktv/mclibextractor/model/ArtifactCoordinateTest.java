@@ -0,0 +1,36 @@
+package thedarkdnktv.mclibextractor.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArtifactCoordinateTest {
+
+    @Test
+    void parsesName() {
+        var coordinate = ArtifactCoordinate.parse("org.lwjgl:lwjgl:3.3.1:natives-linux@jar");
+
+        assertEquals(MavenArtifact.of("org.lwjgl", "lwjgl", "natives-linux"), coordinate.artifact());
+        assertEquals("3.3.1", coordinate.version().toString());
+        assertNull(ArtifactCoordinate.parse("org.lwjgl:lwjgl"));
+        assertNull(ArtifactCoordinate.parse("org.lwjgl::3.3.1"));
+    }
+
+    @Test
+    void doesNotShareVersions() {
+        var first = ArtifactCoordinate.parse("org.test:a:1.0");
+        var second = ArtifactCoordinate.parse("org.test:a:1.0");
+        assertNotSame(first.version(), second.version());
+
+        first.version().parseVersion("2.0");
+        assertEquals("1.0", second.version().toString());
+        assertEquals("1.0", ArtifactCoordinate.version("1.0").toString());
+    }
+
+    @Test
+    void sharesArtifactsInUse() {
+        var artifact = MavenArtifact.of("org.test", "a", null);
+
+        assertSame(artifact, ArtifactCoordinate.parse("org.test:a:1.0").artifact());
+    }
+}
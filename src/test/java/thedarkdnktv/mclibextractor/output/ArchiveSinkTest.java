@@ -0,0 +1,85 @@
+package thedarkdnktv.mclibextractor.output;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArchiveSinkTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void skipsDuplicateNames() throws IOException {
+        var source = Files.writeString(dir.resolve("a.json"), "{}");
+        var file = dir.resolve("out.zip");
+        try (var sink = new ArchiveSink(file, false)) {
+            assertTrue(sink.addFile(ArchiveSink.ASSETS + "a.json", source));
+            assertFalse(sink.addFile(ArchiveSink.ASSETS + "a.json", source));
+            sink.commit();
+        }
+
+        assertEquals(List.of(ArchiveSink.ASSETS + "a.json"), names(file));
+    }
+
+    @Test
+    void keepsTargetWithoutCommit() throws IOException {
+        var source = Files.writeString(dir.resolve("a.json"), "{}");
+        var file = Files.writeString(dir.resolve("out.zip"), "previous");
+        try (var sink = new ArchiveSink(file, false)) {
+            sink.addFile(ArchiveSink.ASSETS + "a.json", source);
+        }
+
+        assertEquals("previous", Files.readString(file));
+        assertFalse(Files.exists(dir.resolve("out.zip.tmp")));
+    }
+
+    @Test
+    void normalizesNativeEntries() throws IOException {
+        var jar = this.jar("natives.jar", "lib/../liblwjgl.so", "META-INF/MANIFEST.MF");
+        var file = dir.resolve("out.zip");
+        try (var sink = new ArchiveSink(file, false)) {
+            assertEquals(1, sink.addNatives(jar, List.of("META-INF/")));
+            sink.commit();
+        }
+
+        assertEquals(List.of(ArchiveSink.NATIVES + "liblwjgl.so"), names(file));
+    }
+
+    @Test
+    void rejectsNativeEntriesOutsideNatives() throws IOException {
+        var jar = this.jar("natives.jar", "a/../../liblwjgl.so");
+        try (var sink = new ArchiveSink(dir.resolve("out.zip"), false)) {
+            assertThrows(IOException.class, () -> sink.addNatives(jar, List.of()));
+        }
+    }
+
+    private Path jar(String name, String... entries) throws IOException {
+        var jar = dir.resolve(name);
+        try (var out = new ZipOutputStream(Files.newOutputStream(jar))) {
+            for (var entry : entries) {
+                out.putNextEntry(new ZipEntry(entry));
+                out.write(1);
+                out.closeEntry();
+            }
+        }
+
+        return jar;
+    }
+
+    private static List<String> names(Path file) throws IOException {
+        try (var zip = new ZipFile(file.toFile())) {
+            return Collections.list(zip.entries()).stream().map(ZipEntry::getName).toList();
+        }
+    }
+}
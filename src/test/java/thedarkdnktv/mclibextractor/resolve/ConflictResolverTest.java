@@ -0,0 +1,121 @@
+package thedarkdnktv.mclibextractor.resolve;
+
+import org.junit.jupiter.api.Test;
+import thedarkdnktv.mclibextractor.model.ArtifactCoordinate;
+import thedarkdnktv.mclibextractor.model.Dependency;
+import thedarkdnktv.mclibextractor.model.MavenArtifact;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConflictResolverTest {
+
+    private static final MavenArtifact GUAVA = MavenArtifact.of("com.google", "guava", null);
+
+    @Test
+    void selectsNewestByDefault() {
+        var resolution = resolve(ResolutionSettings.defaults(),
+                declare("forge", "com.google:guava:21.0"),
+                declare("vanilla", "com.google:guava:31.1"));
+
+        assertEquals(List.of("com/google/guava/31.1/guava-31.1.jar"), paths(resolution));
+        var conflict = resolution.conflicts().get(0);
+        assertEquals(Conflict.Reason.NEWEST, conflict.reason());
+        assertEquals("vanilla", conflict.selected().declaredBy());
+        assertEquals(List.of("forge", "vanilla"), conflict.candidates().stream().map(Conflict.Candidate::declaredBy).toList());
+    }
+
+    @Test
+    void selectsNearestWhenAsked() {
+        var resolution = resolve(ResolutionSettings.defaults().withStrategy(ConflictStrategy.NEAREST),
+                declare("forge", "com.google:guava:21.0"),
+                declare("vanilla", "com.google:guava:31.1"));
+
+        assertEquals(List.of("com/google/guava/21.0/guava-21.0.jar"), paths(resolution));
+        assertEquals(Conflict.Reason.NEAREST, resolution.conflicts().get(0).reason());
+    }
+
+    @Test
+    void tieGoesToNearestDeclaration() {
+        var nearest = declare("forge", "com.google:guava:31.1", "forge/guava.jar");
+        var resolution = resolve(ResolutionSettings.defaults(), nearest, declare("vanilla", "com.google:guava:31.1"));
+
+        assertEquals(1, resolution.libraries().size());
+        assertSame(nearest.dependency(), resolution.libraries().iterator().next());
+        assertEquals(List.of(), resolution.conflicts());
+    }
+
+    @Test
+    void pinPresentInChainWins() {
+        var settings = ResolutionSettings.defaults().withPin(GUAVA, ArtifactCoordinate.version("21.0"));
+        var resolution = resolve(settings,
+                declare("forge", "com.google:guava:21.0"),
+                declare("vanilla", "com.google:guava:31.1"));
+
+        assertEquals(List.of("com/google/guava/21.0/guava-21.0.jar"), paths(resolution));
+        var conflict = resolution.conflicts().get(0);
+        assertEquals(Conflict.Reason.PINNED, conflict.reason());
+        assertEquals("21.0", conflict.pinned().toString());
+    }
+
+    @Test
+    void pinMissingFromChainKeepsStrategyWinner() {
+        var settings = ResolutionSettings.defaults().withPin(GUAVA, ArtifactCoordinate.version("25.0"));
+        var resolution = resolve(settings,
+                declare("forge", "com.google:guava:21.0"),
+                declare("vanilla", "com.google:guava:31.1"));
+
+        assertEquals(List.of("com/google/guava/31.1/guava-31.1.jar"), paths(resolution));
+        var conflict = resolution.conflicts().get(0);
+        assertEquals(Conflict.Reason.NEWEST, conflict.reason());
+        assertEquals("25.0", conflict.pinned().toString());
+
+        // single declaration is a conflict with the pin too
+        resolution = resolve(settings, declare("vanilla", "com.google:guava:31.1"));
+        assertEquals(List.of("com/google/guava/31.1/guava-31.1.jar"), paths(resolution));
+        assertEquals(1, resolution.conflicts().size());
+    }
+
+    @Test
+    void keepsOrderOfNearestDeclarations() {
+        var declarations = new ArrayList<Declaration>();
+        for (int i = 0; i < 50; i ++) {
+            declarations.add(declare("forge", "org.test:lib" + i + ":2"));
+        }
+
+        for (int i = 49; i >= 0; i --) {
+            declarations.add(declare("vanilla", "org.test:lib" + i + ":1"));
+        }
+
+        declarations.add(declare("vanilla", "org.test:natives:1:natives-linux"));
+        declarations.add(declare("vanilla", "org.test:natives:1"));
+
+        var expected = paths(resolve(ResolutionSettings.defaults(), declarations.toArray(Declaration[]::new)));
+        assertEquals(52, expected.size());
+        assertEquals("org/test/lib0/2/lib0-2.jar", expected.get(0));
+        assertEquals("org/test/natives/1/natives-1-natives-linux.jar", expected.get(50));
+        for (int run = 0; run < 5; run ++) {
+            assertEquals(expected, paths(resolve(ResolutionSettings.defaults(), declarations.toArray(Declaration[]::new))));
+        }
+    }
+
+    private static Resolution resolve(ResolutionSettings settings, Declaration... declarations) {
+        return new ConflictResolver(settings).resolve(List.of(declarations));
+    }
+
+    private static Declaration declare(String declaredBy, String name) {
+        return declare(declaredBy, name, ArtifactCoordinate.mavenPath(name, null));
+    }
+
+    private static Declaration declare(String declaredBy, String name, String path) {
+        var coordinate = ArtifactCoordinate.parse(name);
+        return new Declaration(new Dependency(coordinate.artifact(), coordinate.version(), Path.of(path)), declaredBy);
+    }
+
+    private static List<String> paths(Resolution resolution) {
+        return resolution.libraries().stream().map(lib -> lib.getPath().toString().replace('\\', '/')).toList();
+    }
+}
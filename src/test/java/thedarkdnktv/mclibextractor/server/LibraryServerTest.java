@@ -0,0 +1,190 @@
+package thedarkdnktv.mclibextractor.server;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import thedarkdnktv.mclibextractor.api.impl.MinecraftDependencyServiceImpl;
+import thedarkdnktv.mclibextractor.transfer.Checksums;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LibraryServerTest {
+
+    private static final String LIBRARY = "org/test/a/1/a-1.jar";
+    private static final byte[] CONTENT = content(1000);
+    private static final FileTime OLD = FileTime.fromMillis(86_400_000L);
+
+    @TempDir
+    Path dir;
+
+    private Path mcDir;
+    private LibraryServer server;
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        mcDir = dir.resolve(".minecraft");
+        this.library(LIBRARY, CONTENT);
+        this.version("{\"name\": \"org.test:a:1\", \"downloads\": {\"artifact\": {\"path\": \"" + LIBRARY + "\", \"size\": 1000}}}");
+        Files.writeString(mcDir.resolve("launcher_profiles.json"),
+                "{\"version\": 3, \"profiles\": {\"test\": {\"name\": \"Test\", \"type\": \"custom\", \"lastVersionId\": \"test\"}}}");
+
+        var service = new MinecraftDependencyServiceImpl();
+        service.setDirectory(mcDir);
+        server = new LibraryServer(service, null, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 2);
+        assertEquals(1, server.start());
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    @Test
+    void servesWholeFile() throws Exception {
+        var response = this.get(LIBRARY);
+
+        assertEquals(200, response.statusCode());
+        assertArrayEquals(CONTENT, response.body());
+        assertEquals(etag(CONTENT), response.headers().firstValue("ETag").orElseThrow());
+        assertEquals("bytes", response.headers().firstValue("Accept-Ranges").orElseThrow());
+    }
+
+    @Test
+    void servesRanges() throws Exception {
+        var response = this.get(LIBRARY, "Range", "bytes=100-199");
+        assertEquals(206, response.statusCode());
+        assertArrayEquals(Arrays.copyOfRange(CONTENT, 100, 200), response.body());
+        assertEquals("bytes 100-199/1000", response.headers().firstValue("Content-Range").orElseThrow());
+
+        response = this.get(LIBRARY, "Range", "bytes=-10");
+        assertEquals(206, response.statusCode());
+        assertArrayEquals(Arrays.copyOfRange(CONTENT, 990, 1000), response.body());
+
+        response = this.get(LIBRARY, "Range", "bytes=1000-");
+        assertEquals(416, response.statusCode());
+        assertEquals("bytes */1000", response.headers().firstValue("Content-Range").orElseThrow());
+    }
+
+    @Test
+    void ignoresInvalidRanges() throws Exception {
+        for (var range : new String[] {"bytes=5-3", "bytes=99999999999999999999-", "bytes=0-1,5-6", "items=0-1"}) {
+            var response = this.get(LIBRARY, "Range", range);
+            assertEquals(200, response.statusCode(), range);
+            assertArrayEquals(CONTENT, response.body(), range);
+        }
+    }
+
+    @Test
+    void honoursIfRange() throws Exception {
+        var response = this.get(LIBRARY, "Range", "bytes=0-9", "If-Range", etag(CONTENT));
+        assertEquals(206, response.statusCode());
+
+        response = this.get(LIBRARY, "Range", "bytes=0-9", "If-Range", "\"other\"");
+        assertEquals(200, response.statusCode());
+        assertArrayEquals(CONTENT, response.body());
+    }
+
+    @Test
+    void answersNotModified() throws Exception {
+        var response = this.get(LIBRARY, "If-None-Match", etag(CONTENT));
+
+        assertEquals(304, response.statusCode());
+        assertEquals(0, response.body().length);
+    }
+
+    @Test
+    void answersHead() throws Exception {
+        var request = HttpRequest.newBuilder(this.uri(LIBRARY))
+                .method("HEAD", HttpRequest.BodyPublishers.noBody())
+                .build();
+        var response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+
+        assertEquals(200, response.statusCode());
+        assertEquals("1000", response.headers().firstValue("Content-Length").orElseThrow());
+        assertEquals(etag(CONTENT), response.headers().firstValue("ETag").orElseThrow());
+        assertEquals(0, response.body().length);
+    }
+
+    @Test
+    void noticesFileRewrittenInPlace() throws Exception {
+        assertEquals(200, this.get(LIBRARY).statusCode());
+
+        var changed = content(1500);
+        this.library(LIBRARY, changed);
+        var response = this.get(LIBRARY);
+
+        assertEquals(200, response.statusCode());
+        assertArrayEquals(changed, response.body());
+        assertEquals(etag(changed), response.headers().firstValue("ETag").orElseThrow());
+    }
+
+    @Test
+    void followsVersionChangesWithoutManifestRequest() throws Exception {
+        var other = "org/test/b/1/b-1.jar";
+        this.library(other, CONTENT);
+        this.version("{\"name\": \"org.test:b:1\", \"downloads\": {\"artifact\": {\"path\": \"" + other + "\", \"size\": 1000}}}");
+
+        assertEquals(404, this.get(LIBRARY).statusCode());
+        assertEquals(200, this.get(other).statusCode());
+    }
+
+    private HttpResponse<byte[]> get(String library, String... headers) throws Exception {
+        var request = HttpRequest.newBuilder(this.uri(library));
+        for (int i = 0; i < headers.length; i += 2) {
+            request.header(headers[i], headers[i + 1]);
+        }
+
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private URI uri(String library) {
+        var address = server.getAddress();
+        return URI.create("http://" + address.getHostString() + ":" + address.getPort() + LibraryServer.LIBRARIES + library);
+    }
+
+    /**
+     * Writes library keeping old modification time of its folder, like a jar rewritten in place.
+     */
+    private void library(String path, byte[] content) throws IOException {
+        var file = mcDir.resolve("libraries").resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.write(file, content);
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() - content.length));
+        Files.setLastModifiedTime(file.getParent(), OLD);
+    }
+
+    private void version(String library) throws IOException {
+        var file = mcDir.resolve("versions/test/test.json");
+        Files.createDirectories(file.getParent());
+        var modified = Files.exists(file) ? Files.getLastModifiedTime(file).toMillis() + 1000 : System.currentTimeMillis();
+        Files.writeString(file, "{\"id\": \"test\", \"libraries\": [" + library + "]}");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(modified));
+    }
+
+    private static String etag(byte[] content) {
+        return '"' + Checksums.sha1(content) + '"';
+    }
+
+    private static byte[] content(int size) {
+        var result = new byte[size];
+        for (int i = 0; i < size; i ++) {
+            result[i] = (byte) (i * 7 + size);
+        }
+
+        return result;
+    }
+}
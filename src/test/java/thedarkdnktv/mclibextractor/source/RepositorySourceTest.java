@@ -0,0 +1,45 @@
+package thedarkdnktv.mclibextractor.source;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import thedarkdnktv.mclibextractor.model.ArtifactCoordinate;
+import thedarkdnktv.mclibextractor.model.Dependency;
+import thedarkdnktv.mclibextractor.model.MavenArtifact;
+import thedarkdnktv.mclibextractor.transfer.Checksums;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RepositorySourceTest {
+
+    private static final byte[] CONTENT = {1, 2, 3};
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void untrustedNeedsDeclaredChecksumOrSize() throws IOException {
+        var lib = this.library();
+        var source = new RepositorySource("m2", dir, false);
+
+        assertNull(source.locate(lib));
+        assertNotNull(source.locate(lib.setSize(CONTENT.length)));
+        assertNull(source.locate(lib.setSha1("0".repeat(40))));
+        assertNotNull(source.locate(lib.setSha1(Checksums.sha1(CONTENT))));
+    }
+
+    @Test
+    void trustedTakesUndeclaredFiles() throws IOException {
+        assertNotNull(new RepositorySource("minecraft", dir, true).locate(this.library()));
+    }
+
+    private Dependency library() throws IOException {
+        var path = Path.of("org", "test", "a", "1", "a-1.jar");
+        Files.createDirectories(dir.resolve(path).getParent());
+        Files.write(dir.resolve(path), CONTENT);
+        return new Dependency(MavenArtifact.of("org.test", "a", null), ArtifactCoordinate.version("1"), path);
+    }
+}
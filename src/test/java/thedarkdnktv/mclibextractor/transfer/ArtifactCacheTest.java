@@ -0,0 +1,85 @@
+package thedarkdnktv.mclibextractor.transfer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import thedarkdnktv.mclibextractor.model.ArtifactCoordinate;
+import thedarkdnktv.mclibextractor.model.Dependency;
+import thedarkdnktv.mclibextractor.model.MavenArtifact;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArtifactCacheTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void fillsEntryOnceAcrossInstances() throws Exception {
+        var lib = library("a", 1);
+        var writes = new AtomicInteger();
+        var executor = Executors.newFixedThreadPool(8);
+        try {
+            var tasks = new ArrayList<Callable<Path>>();
+            for (int i = 0; i < 16; i ++) {
+                // separate instances like concurrent extractions sharing one cache folder
+                var cache = new ArtifactCache(dir, Long.MAX_VALUE);
+                tasks.add(() -> cache.put(lib, file -> {
+                    writes.incrementAndGet();
+                    Files.write(file, new byte[10]);
+                }));
+            }
+
+            for (var result : executor.invokeAll(tasks)) {
+                assertEquals(10, Files.size(result.get()));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, writes.get());
+    }
+
+    @Test
+    void keepsHeldEntriesOnTrim() throws IOException {
+        var cache = new ArtifactCache(dir, 0);
+        var entry = cache.put(library("a", 1), file -> Files.write(file, new byte[10]));
+
+        try (var hold = cache.hold()) {
+            assertNotNull(hold);
+            assertEquals(0, new ArtifactCache(dir, 0).trim());
+            assertTrue(Files.exists(entry));
+        }
+
+        assertEquals(1, cache.trim());
+        assertFalse(Files.exists(entry));
+        try (var files = Files.list(dir.resolve("tmp"))) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void evictsLeastRecentlyUsed() throws IOException {
+        var cache = new ArtifactCache(dir, 15);
+        var old = cache.put(library("a", 1), file -> Files.write(file, new byte[10]));
+        Files.setLastModifiedTime(old, FileTime.fromMillis(0));
+        var recent = cache.put(library("b", 1), file -> Files.write(file, new byte[10]));
+
+        assertEquals(1, cache.trim());
+        assertFalse(Files.exists(old));
+        assertTrue(Files.exists(recent));
+    }
+
+    private static Dependency library(String name, int version) {
+        var path = Path.of("org", "test", name, String.valueOf(version), name + "-" + version + ".jar");
+        return new Dependency(MavenArtifact.of("org.test", name, null), ArtifactCoordinate.version(String.valueOf(version)), path);
+    }
+}
@@ -0,0 +1,256 @@
+package thedarkdnktv.mclibextractor.transfer;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpTimeoutException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HttpDownloaderTest {
+
+    private static final byte[] CONTENT = content(100_000);
+    private static final String SHA1 = Checksums.sha1(CONTENT);
+
+    @TempDir
+    Path dir;
+
+    private HttpServer server;
+    private ExecutorService executor;
+    private HttpDownloader downloader;
+    private final List<String> ranges = new CopyOnWriteArrayList<>();
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        executor = Executors.newCachedThreadPool();
+        server.setExecutor(executor);
+        server.start();
+        downloader = this.downloader(Duration.ofSeconds(5), 3);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        downloader.close();
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    @Test
+    void downloadsWholeFile() throws IOException {
+        var uri = this.serve(this::ranged);
+        var target = dir.resolve("lib.jar");
+
+        downloader.download(uri, target, SHA1, CONTENT.length);
+
+        assertArrayEquals(CONTENT, Files.readAllBytes(target));
+        assertFalse(Files.exists(part(target)));
+        assertEquals(List.of("-"), ranges);
+    }
+
+    @Test
+    void resumesPartFile() throws IOException {
+        var uri = this.serve(this::ranged);
+        var target = dir.resolve("lib.jar");
+        Files.write(part(target), Arrays.copyOf(CONTENT, 40_000));
+
+        downloader.download(uri, target, SHA1, CONTENT.length);
+
+        assertArrayEquals(CONTENT, Files.readAllBytes(target));
+        assertEquals(List.of("bytes=40000-"), ranges);
+    }
+
+    @Test
+    void acceptsCompletePartFileOnRangeNotSatisfiable() throws IOException {
+        var uri = this.serve(this::ranged);
+        var target = dir.resolve("lib.jar");
+        Files.write(part(target), CONTENT);
+
+        downloader.download(uri, target, SHA1, -1);
+
+        assertArrayEquals(CONTENT, Files.readAllBytes(target));
+        assertEquals(List.of("bytes=" + CONTENT.length + "-"), ranges);
+    }
+
+    @Test
+    void restartsOnRangeNotSatisfiableForLongerPartFile() throws IOException {
+        var uri = this.serve(this::ranged);
+        var target = dir.resolve("lib.jar");
+        Files.write(part(target), Arrays.copyOf(CONTENT, CONTENT.length + 10));
+
+        downloader.download(uri, target, null, -1);
+
+        assertArrayEquals(CONTENT, Files.readAllBytes(target));
+        assertEquals(List.of("bytes=" + (CONTENT.length + 10) + "-", "-"), ranges);
+    }
+
+    @Test
+    void restartsOnRangeNotSatisfiableWithoutLength() throws IOException {
+        var uri = this.serve(exchange -> {
+            if (exchange.getRequestHeaders().containsKey("Range")) {
+                send(exchange, 416, new byte[0]);
+            } else {
+                send(exchange, 200, CONTENT);
+            }
+        });
+        var target = dir.resolve("lib.jar");
+        Files.write(part(target), CONTENT);
+
+        downloader.download(uri, target, null, -1);
+
+        assertArrayEquals(CONTENT, Files.readAllBytes(target));
+        assertEquals(List.of("bytes=" + CONTENT.length + "-", "-"), ranges);
+    }
+
+    @Test
+    void restartsOnPartialContentNotContinuingPartFile() throws IOException {
+        // server ignores requested offset and always answers with range from the start
+        var uri = this.serve(exchange -> {
+            if (exchange.getRequestHeaders().containsKey("Range")) {
+                exchange.getResponseHeaders().add("Content-Range", "bytes 0-999/" + CONTENT.length);
+                send(exchange, 206, Arrays.copyOf(CONTENT, 1000));
+            } else {
+                send(exchange, 200, CONTENT);
+            }
+        });
+        var target = dir.resolve("lib.jar");
+        Files.write(part(target), Arrays.copyOf(CONTENT, 40_000));
+
+        downloader.download(uri, target, null, -1);
+
+        assertArrayEquals(CONTENT, Files.readAllBytes(target));
+        assertEquals(List.of("bytes=40000-", "-"), ranges);
+    }
+
+    @Test
+    void retriesServiceUnavailable() throws IOException {
+        var calls = new AtomicInteger();
+        var uri = this.serve(exchange -> {
+            if (calls.incrementAndGet() == 1) {
+                send(exchange, 503, new byte[0]);
+            } else {
+                this.ranged(exchange);
+            }
+        });
+        var target = dir.resolve("lib.jar");
+
+        downloader.download(uri, target, SHA1, CONTENT.length);
+
+        assertArrayEquals(CONTENT, Files.readAllBytes(target));
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void rejectsSha1Mismatch() {
+        var uri = this.serve(this::ranged);
+        var target = dir.resolve("lib.jar");
+
+        assertThrows(ChecksumException.class, () -> downloader.download(uri, target, "0".repeat(40), CONTENT.length));
+        assertFalse(Files.exists(target));
+        assertFalse(Files.exists(part(target)));
+        assertEquals(3, ranges.size());
+    }
+
+    @Test
+    void abortsStalledBody() throws IOException {
+        downloader.close();
+        downloader = this.downloader(Duration.ofMillis(300), 1);
+        var uri = this.serve(exchange -> {
+            exchange.sendResponseHeaders(200, CONTENT.length);
+            try (var body = exchange.getResponseBody()) {
+                body.write(CONTENT, 0, 1000);
+                body.flush();
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        var target = dir.resolve("lib.jar");
+
+        var start = System.nanoTime();
+        assertThrows(HttpTimeoutException.class, () -> downloader.download(uri, target, SHA1, CONTENT.length));
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).compareTo(Duration.ofSeconds(5)) < 0);
+        assertFalse(Files.exists(target));
+        assertEquals(1000, Files.size(part(target)));
+    }
+
+    private HttpDownloader downloader(Duration readTimeout, int maxAttempts) {
+        var client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        var settings = new DownloadSettings(Duration.ofSeconds(5), readTimeout, maxAttempts, Duration.ofMillis(10), Duration.ofMillis(50));
+        return new HttpDownloader(client, settings);
+    }
+
+    private URI serve(HttpHandler handler) {
+        server.createContext("/lib.jar", exchange -> {
+            ranges.add(exchange.getRequestHeaders().getFirst("Range") == null ? "-" : exchange.getRequestHeaders().getFirst("Range"));
+            handler.handle(exchange);
+        });
+        return URI.create("http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + "/lib.jar");
+    }
+
+    /**
+     * Serves {@link #CONTENT} honouring single open-ended range.
+     */
+    private void ranged(HttpExchange exchange) throws IOException {
+        var range = exchange.getRequestHeaders().getFirst("Range");
+        if (range == null) {
+            send(exchange, 200, CONTENT);
+            return;
+        }
+
+        var from = Integer.parseInt(range.substring("bytes=".length(), range.length() - 1));
+        if (from >= CONTENT.length) {
+            exchange.getResponseHeaders().add("Content-Range", "bytes */" + CONTENT.length);
+            send(exchange, 416, new byte[0]);
+            return;
+        }
+
+        exchange.getResponseHeaders().add("Content-Range", "bytes " + from + "-" + (CONTENT.length - 1) + "/" + CONTENT.length);
+        send(exchange, 206, Arrays.copyOfRange(CONTENT, from, CONTENT.length));
+    }
+
+    private static void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        try (var out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static Path part(Path target) {
+        return target.resolveSibling(target.getFileName() + ".part");
+    }
+
+    private static byte[] content(int size) {
+        var result = new byte[size];
+        for (int i = 0; i < size; i ++) {
+            result[i] = (byte) (i * 31 + (i >> 8));
+        }
+
+        return result;
+    }
+}
@@ -0,0 +1,58 @@
+package thedarkdnktv.mclibextractor.transfer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UpToDateCheckTest {
+
+    private static final byte[] CONTENT = {1, 2, 3, 4};
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void comparesDownloadedTargetBySize() throws IOException {
+        var target = Files.write(dir.resolve("lib.jar"), CONTENT);
+        var check = new UpToDateCheck(false);
+
+        assertTrue(check.isUpToDate(target, null, null, CONTENT.length));
+        assertFalse(check.isUpToDate(target, null, null, CONTENT.length + 1));
+    }
+
+    @Test
+    void comparesHashOfDownloadedTargetWithoutSize() throws IOException {
+        var target = Files.write(dir.resolve("lib.jar"), CONTENT);
+        var check = new UpToDateCheck(false);
+
+        assertTrue(check.isUpToDate(target, null, Checksums.sha1(CONTENT), -1));
+        assertFalse(check.isUpToDate(target, null, Checksums.sha1(new byte[] {1, 2}), -1));
+    }
+
+    @Test
+    void neverTrustsDownloadedTargetWithoutSizeAndHash() throws IOException {
+        var target = Files.write(dir.resolve("lib.jar"), CONTENT);
+
+        assertFalse(new UpToDateCheck(false).isUpToDate(target, null, null, -1));
+        assertFalse(new UpToDateCheck(true).isUpToDate(target, null, null, -1));
+    }
+
+    @Test
+    void comparesLocalSourceBySizeAndTime() throws IOException {
+        var source = Files.write(dir.resolve("source.jar"), CONTENT);
+        var target = Files.write(dir.resolve("target.jar"), CONTENT);
+        var check = new UpToDateCheck(false);
+
+        Files.setLastModifiedTime(target, Files.getLastModifiedTime(source));
+        assertTrue(check.isUpToDate(target, source, null, -1));
+
+        Files.setLastModifiedTime(target, FileTime.fromMillis(0));
+        assertFalse(check.isUpToDate(target, source, null, -1));
+    }
+}